@@ -0,0 +1,46 @@
+package com.airline.booking.benchmark;
+
+import com.airline.booking.service.DatabaseService;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Embedded H2 + Vert.x fixture shared by the benchmarks; blocks the JMH thread during setup only. */
+final class EmbeddedDatabase {
+
+    final Vertx vertx;
+    final DatabaseService dbService;
+
+    EmbeddedDatabase() {
+        this("jdbc");
+    }
+
+    /** {@code storage} is the DatabaseService STORAGE setting: "jdbc" or "memory". */
+    EmbeddedDatabase(String storage) {
+        vertx = Vertx.vertx();
+        dbService = new DatabaseService(vertx, new JsonObject().put("STORAGE", storage));
+        await(dbService.initialize());
+    }
+
+    /** Materializes the rows of a query so mapping can be measured without the JDBC round-trip. */
+    List<Row> rows(String sql) {
+        return await(dbService.getPool().query(sql).execute().map(rowSet -> {
+            List<Row> rows = new ArrayList<>();
+            rowSet.forEach(rows::add);
+            return rows;
+        }));
+    }
+
+    void close() {
+        dbService.close();
+        await(vertx.close());
+    }
+
+    static <T> T await(Future<T> future) {
+        return future.toCompletionStage().toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,81 @@
+package com.airline.booking.benchmark;
+
+import com.airline.booking.MainVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end bookTicket and searchFlights over HTTP against embedded H2, one request at a time,
+ * so the numbers are per-request latency through routing, SQL and encoding. The {@code memory}
+ * storage variant swaps H2 for the in-memory repositories to isolate the HTTP layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandlerPathBenchmark {
+
+    private static final int PORT = 8899;
+
+    @Param({"jdbc", "memory"})
+    public String storage;
+
+    private EmbeddedDatabase db;
+    private WebClient client;
+    private int passengerId;
+    private String departure;
+
+    @Setup
+    public void setup() {
+        db = new EmbeddedDatabase(storage);
+        EmbeddedDatabase.await(db.vertx.deployVerticle(new MainVerticle(db.dbService),
+                new DeploymentOptions().setConfig(new JsonObject().put("http.port", PORT))));
+        client = WebClient.create(db.vertx);
+
+        JsonObject passenger = new JsonObject()
+                .put("name", "Bench Mark")
+                .put("email", "bench@example.com")
+                .put("passportNumber", "BENCH0001");
+        passengerId = EmbeddedDatabase.await(client.post(PORT, "localhost", "/passengers").sendJsonObject(passenger))
+                .bodyAsJsonObject().getInteger("id");
+        // EK205 DXB -> LHR is seeded one day ahead (see data.sql)
+        departure = LocalDate.now().plusDays(1).toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        db.close();
+    }
+
+    @Benchmark
+    public HttpResponse<Buffer> searchFlights() {
+        return EmbeddedDatabase.await(client.get(PORT, "localhost", "/flights/search")
+                .addQueryParam("from", "DXB")
+                .addQueryParam("to", "LHR")
+                .addQueryParam("departure", departure)
+                .send());
+    }
+
+    /** Books and cancels so the same passenger can book again on the next invocation. */
+    @Benchmark
+    public HttpResponse<Buffer> bookTicketAndCancel() {
+        JsonObject booking = new JsonObject().put("flightId", 1).put("passengerId", passengerId);
+        HttpResponse<Buffer> booked = EmbeddedDatabase.await(client.post(PORT, "localhost", "/bookings")
+                .sendJsonObject(booking));
+        if (booked.statusCode() != 201) {
+            throw new IllegalStateException("Booking failed: " + booked.bodyAsString());
+        }
+        return EmbeddedDatabase.await(client.delete(PORT, "localhost",
+                "/bookings/" + booked.bodyAsJsonObject().getLong("id")).send());
+    }
+}
@@ -0,0 +1,54 @@
+package com.airline.booking.benchmark;
+
+import com.airline.booking.handler.JsonResponse;
+import com.airline.booking.model.Flight;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of flight lists: the old pretty-printed String path against the compact JsonResponse path.
+ * {@code compactBuffer} bypasses JsonResponse's record cache so both sides actually encode;
+ * {@code compactBufferCached} is the warm path handlers take for repeated snapshots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonEncodingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int flights;
+
+    private List<Flight> list;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<>(flights);
+        for (int i = 0; i < flights; i++) {
+            list.add(new Flight((long) i, 1L, "EK" + i, "DXB", "LHR",
+                    "2026-05-01T10:00", "2026-05-01T17:00", 50 + i % 100, 899.99));
+        }
+    }
+
+    @Benchmark
+    public String encodePrettily() {
+        return Json.encodePrettily(list);
+    }
+
+    @Benchmark
+    public Buffer compactBuffer() {
+        return JsonResponse.encodeUncached(list);
+    }
+
+    @Benchmark
+    public Buffer compactBufferCached() {
+        return JsonResponse.encode(list, false);
+    }
+}
@@ -0,0 +1,60 @@
+package com.airline.booking.benchmark;
+
+import com.airline.booking.model.Booking;
+import com.airline.booking.model.Flight;
+import com.airline.booking.model.Passenger;
+import io.vertx.sqlclient.Row;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Row-to-record mapping with the uppercase column lookups used by every handler. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private EmbeddedDatabase db;
+    private List<Row> flights;
+    private List<Row> bookings;
+    private List<Row> passengers;
+
+    @Setup
+    public void setup() {
+        db = new EmbeddedDatabase();
+        flights = db.rows("SELECT * FROM flights");
+        bookings = db.rows("SELECT * FROM bookings");
+        passengers = db.rows("SELECT * FROM passengers");
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public void flightFromRow(Blackhole bh) {
+        for (Row row : flights) {
+            bh.consume(Flight.fromRow(row));
+        }
+    }
+
+    @Benchmark
+    public void bookingFromRow(Blackhole bh) {
+        for (Row row : bookings) {
+            bh.consume(Booking.fromRow(row));
+        }
+    }
+
+    @Benchmark
+    public void passengerFromRow(Blackhole bh) {
+        for (Row row : passengers) {
+            bh.consume(Passenger.fromRow(row));
+        }
+    }
+}
@@ -2,20 +2,119 @@ package com.airline.booking;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.airline.booking.metrics.AppVertxMetrics;
+import com.airline.booking.service.DatabaseService;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class AppLauncher {
     private static final Logger log = LoggerFactory.getLogger(com.airline.booking.MainVerticle.class);
 
     public static void main(String[] args) {
-        Vertx vertx = Vertx.vertx();
+        // Metrics SPI enabled so the SQL pool reports queue depth, active connections and wait time
+        Vertx vertx = Vertx.builder()
+                .with(new VertxOptions().setMetricsOptions(new MetricsOptions().setEnabled(true)))
+                .withMetrics(options -> new AppVertxMetrics())
+                .build();
+
+        ConfigRetriever retriever = ConfigRetriever.create(vertx, new ConfigRetrieverOptions()
+                .addStore(new ConfigStoreOptions()
+                        .setType("file")
+                        .setFormat("json")
+                        .setConfig(new JsonObject().put("path", "src/main/resources/application.json"))));
 
-        vertx.deployVerticle(new MainVerticle())
-                .onSuccess(id ->
-                        log.info("MainVerticle deployed successfully: {}", id)
-                )
+        retriever.getConfig()
+                .compose(config -> deploy(vertx, config))
                 .onFailure(err ->
                         log.error("Verticle deployment failed ", err)
                 );
     }
+
+    private static Future<Void> deploy(Vertx vertx, JsonObject config) {
+        JsonObject server = config.getJsonObject("server", new JsonObject());
+        // 0 (or absent) means one instance per core
+        int configured = server.getInteger("instances", 0);
+        int instances = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        int port = server.getInteger("port", 8080);
+
+        // One pool for the whole process: every MainVerticle instance borrows it instead of building its own
+        DatabaseService dbService = new DatabaseService(vertx, config.getJsonObject("database", new JsonObject()));
+        List<MainVerticle> deployed = new CopyOnWriteArrayList<>();
+
+        return dbService.initialize()
+                .compose(v -> vertx.deployVerticle(() -> {
+                    MainVerticle verticle = new MainVerticle(dbService);
+                    deployed.add(verticle);
+                    return verticle;
+                }, new DeploymentOptions().setInstances(instances)))
+                .compose(id -> {
+                    log.info("MainVerticle deployed successfully: {} ({} instances)", id, instances);
+                    if (Boolean.getBoolean("airline.cdsTraining")) {
+                        // Exercise every route, then exit so -XX:ArchiveClassesAtExit writes the archive
+                        return CdsTraining.run(vertx, port)
+                                .onComplete(ar -> vertx.close().onComplete(closed -> System.exit(ar.succeeded() ? 0 : 1)));
+                    }
+                    return timeToFirstResponse(vertx, port)
+                            .compose(v -> server.getBoolean("startupCheck", true)
+                                    ? startupCheck(vertx, port, instances * 4, deployed)
+                                    : Future.succeededFuture());
+                });
+    }
+
+    /**
+     * Logs how long after JVM start the first request was answered; the number to compare when
+     * checking whether the AppCDS archive (-XX:SharedArchiveFile) is being picked up.
+     */
+    private static Future<Void> timeToFirstResponse(Vertx vertx, int port) {
+        WebClient client = WebClient.create(vertx);
+        return client.get(port, "localhost", "/airlines").send()
+                .onComplete(ar -> client.close())
+                .onSuccess(response -> log.info("First response ({}) {} ms after JVM start", response.statusCode(),
+                        System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()))
+                .mapEmpty();
+    }
+
+    /**
+     * Fires a handful of requests over fresh connections and logs which event loops served them,
+     * so a misconfigured deployment (everything pinned to one loop) shows up at boot.
+     */
+    private static Future<Void> startupCheck(Vertx vertx, int port, int requests, List<MainVerticle> deployed) {
+        WebClient client = WebClient.create(vertx, new WebClientOptions().setKeepAlive(false));
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            calls.add(client.get(port, "localhost", "/airlines").send());
+        }
+
+        return Future.join(calls).<Void>transform(ar -> {
+            client.close();
+            Map<String, Long> perLoop = new TreeMap<>();
+            for (MainVerticle verticle : deployed) {
+                perLoop.merge(verticle.eventLoopName(), verticle.requestsServed(), Long::sum);
+            }
+            long active = perLoop.values().stream().filter(count -> count > 0).count();
+            if (active > 1 || deployed.size() == 1) {
+                log.info("Startup check: {} requests served by {}/{} event loops {}",
+                        requests, active, perLoop.size(), perLoop);
+            } else {
+                log.warn("Startup check: all {} requests landed on one event loop {}", requests, perLoop);
+            }
+            return Future.succeededFuture();
+        });
+    }
 }
@@ -0,0 +1,111 @@
+package com.airline.booking;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+
+/**
+ * Training run for the AppCDS archive ({@code -Dairline.cdsTraining=true}, see the {@code cds} Maven
+ * profile and the Dockerfile). Calls every route once so the classes behind each handler, the SQL
+ * client, Jackson and the failure path are loaded before the JVM exits and dumps the archive.
+ */
+final class CdsTraining {
+
+    private static final Logger log = LoggerFactory.getLogger(com.airline.booking.CdsTraining.class);
+
+    private final WebClient client;
+    private final int port;
+    private int calls;
+
+    private CdsTraining(Vertx vertx, int port) {
+        this.client = WebClient.create(vertx);
+        this.port = port;
+    }
+
+    static Future<Void> run(Vertx vertx, int port) {
+        CdsTraining training = new CdsTraining(vertx, port);
+        return training.exercise()
+                .onComplete(ar -> training.client.close())
+                .onSuccess(v -> log.info("CDS training run finished: {} requests", training.calls));
+    }
+
+    private Future<Void> exercise() {
+        String day = LocalDate.now().plusDays(200).toString();
+        JsonObject flight = new JsonObject()
+                .put("flightNumber", "CDS1")
+                .put("airlineId", 1)
+                .put("from", "CDA")
+                .put("to", "CDB")
+                .put("departureTime", day + "T08:00:00")
+                .put("arrivalTime", day + "T10:00:00")
+                .put("seatsAvailable", 10)
+                .put("price", 100.0);
+        JsonObject passenger = new JsonObject()
+                .put("name", "Cds Trainer")
+                .put("email", "cds.trainer@example.com")
+                .put("passportNumber", "CDS000001");
+
+        return post("/airlines", new JsonObject().put("name", "Training Air").put("code", "CDS").put("country", "Nowhere"))
+                .compose(v -> get("/airlines"))
+                .compose(v -> get("/airlines?limit=5&stream=true"))
+                .compose(v -> get("/airlines/search?name=air"))
+                .compose(v -> get("/airlines/autocomplete?q=air"))
+                .compose(v -> post("/flights", flight))
+                .compose(created -> get("/flights/" + created.bodyAsJsonObject().getLong("id")).map(created))
+                .compose(created -> get("/flights/search?from=CDA&to=CDB&departure=" + day)
+                        .compose(v -> get("/flights/search?from=CDA&to=CDB&limit=10"))
+                        .compose(v -> get("/flights/itineraries?from=CDA&to=CDB&departure=" + day))
+                        .compose(v -> get("/flights/calendar?from=CDA&to=CDB&month=" + day.substring(0, 7)))
+                        .compose(v -> post("/passengers", passenger))
+                        .compose(p -> get("/passengers/search?email=cds.trainer@example.com").map(p))
+                        .compose(p -> {
+                            long passengerId = p.bodyAsJsonObject().getLong("id");
+                            long flightId = created.bodyAsJsonObject().getLong("id");
+                            return post("/bookings", new JsonObject()
+                                    .put("flightId", flightId).put("passengerId", passengerId).put("seatNumber", "1A"))
+                                    .compose(b -> get("/bookings/" + b.bodyAsJsonObject().getLong("id")).map(b))
+                                    .compose(b -> get("/passengers/" + passengerId + "/bookings").map(b))
+                                    .compose(b -> delete("/bookings/" + b.bodyAsJsonObject().getLong("id")))
+                                    .compose(v -> post("/bookings/batch", new JsonObject()
+                                            .put("flightId", flightId)
+                                            .put("bookings", new JsonArray().add(new JsonObject()
+                                                    .put("passengerId", passengerId).put("seatNumber", "2A")))));
+                        }))
+                .compose(v -> postLines("/flights/bulk", flight.copy().put("flightNumber", "CDS2").encode() + "\n"))
+                // Failure path: 400 and 404 through GlobalFailureHandler
+                .compose(v -> get("/flights/not-a-number"))
+                .compose(v -> get("/bookings/999999"))
+                .compose(v -> get("/metrics"))
+                .mapEmpty();
+    }
+
+    private Future<HttpResponse<Buffer>> get(String uri) {
+        calls++;
+        return client.get(port, "localhost", uri).send();
+    }
+
+    private Future<HttpResponse<Buffer>> post(String uri, JsonObject body) {
+        calls++;
+        return client.post(port, "localhost", uri).sendJsonObject(body);
+    }
+
+    private Future<HttpResponse<Buffer>> postLines(String uri, String ndjson) {
+        calls++;
+        return client.post(port, "localhost", uri)
+                .putHeader("Content-Type", "application/x-ndjson")
+                .sendBuffer(Buffer.buffer(ndjson));
+    }
+
+    private Future<HttpResponse<Buffer>> delete(String uri) {
+        calls++;
+        return client.delete(port, "localhost", uri).send();
+    }
+}
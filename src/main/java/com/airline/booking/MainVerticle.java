@@ -3,20 +3,49 @@ package com.airline.booking;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.airline.booking.handler.*;
+import com.airline.booking.service.AdmissionController.Priority;
 import com.airline.booking.service.DatabaseService;
 import io.vertx.config.ConfigRetriever;
 import io.vertx.config.ConfigRetrieverOptions;
 import io.vertx.config.ConfigStoreOptions;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class MainVerticle extends AbstractVerticle {
 
     private static final Logger log = LoggerFactory.getLogger(com.airline.booking.MainVerticle.class);
     private DatabaseService dbService;
+    // True when this instance built the DatabaseService itself and is responsible for closing it
+    private final boolean ownsDbService;
+    private final LongAdder requestsServed = new LongAdder();
+    private volatile String eventLoopName = "unassigned";
+
+    public MainVerticle() {
+        this(null);
+    }
+
+    /**
+     * Deploys against an already initialized DatabaseService shared by every instance
+     * (see AppLauncher). A null service makes this instance build and own its own pool.
+     */
+    public MainVerticle(DatabaseService sharedDbService) {
+        this.dbService = sharedDbService;
+        this.ownsDbService = sharedDbService == null;
+    }
+
+    public long requestsServed() {
+        return requestsServed.sum();
+    }
+
+    public String eventLoopName() {
+        return eventLoopName;
+    }
 
     @Override
     public void start(Promise<Void> startPromise) {
@@ -46,47 +75,81 @@ public class MainVerticle extends AbstractVerticle {
     }
 
     private void startApp(JsonObject config, int port, Promise<Void> startPromise) {
-        dbService = new DatabaseService(vertx, config.getJsonObject("database"));
+        eventLoopName = Thread.currentThread().getName();
+        Future<Void> ready;
+        if (ownsDbService) {
+            dbService = new DatabaseService(vertx, config.getJsonObject("database", new JsonObject()));
+            ready = dbService.initialize();
+        } else {
+            ready = Future.succeededFuture();
+        }
 
-        dbService.initialize().onFailure(startPromise::fail).onSuccess(v -> {
+        ready.onFailure(startPromise::fail).onSuccess(v -> {
             Router router = Router.router(vertx);
 
             // 1. Global Handlers (Failure handler should be first or last, but BodyHandler must be before POSTs)
+            router.route().handler(rc -> {
+                requestsServed.increment();
+                rc.next();
+            });
+            var metrics = dbService.metrics();
+            var flightHandler = new FlightHandler(dbService);
+            // Bulk import reads its body as a stream, so it has to be matched before BodyHandler buffers it
+            router.post("/flights/bulk").handler(metrics.route("POST", "/flights/bulk")).handler(flightHandler::importFlights);
             router.route().handler(BodyHandler.create());
             router.route().failureHandler(GlobalFailureHandler::handle);
 
+            // Admission control: over-limit requests get a fast 503, searches are shed before bookings.
+            // Only requests that reach the database are gated: routes answered from the in-memory
+            // indexes cost no connection, and bulk import holds a request open for the whole upload.
+            var bookingSlot = AdmissionHandler.of(dbService.admission(), Priority.BOOKING);
+            var standardSlot = AdmissionHandler.of(dbService.admission(), Priority.STANDARD);
+            var searchSlot = AdmissionHandler.of(dbService.admission(), Priority.SEARCH);
+
             // 2. Resource Handlers
             var airlineHandler = new AirlineHandler(dbService);
-            var flightHandler = new FlightHandler(dbService);
             var passengerHandler = new PassengerHandler(dbService);
             var bookingHandler = new BookingHandler(dbService);
 
+            // Metrics scrape endpoint (Prometheus text format); deliberately not timed itself
+            router.get("/metrics").handler(new MetricsHandler(metrics));
+
             // 3. Airline Routes
-            router.post("/airlines").handler(airlineHandler::addAirline);
-            router.get("/airlines").handler(airlineHandler::listAllAirlines);
-            router.get("/airlines/search").handler(airlineHandler::searchAirlines);
+            router.post("/airlines").handler(metrics.route("POST", "/airlines")).handler(standardSlot).handler(airlineHandler::addAirline);
+            router.get("/airlines").handler(metrics.route("GET", "/airlines")).handler(searchSlot).handler(airlineHandler::listAllAirlines);
+            // Search and autocomplete are answered from the in-memory airline index
+            router.get("/airlines/search").handler(metrics.route("GET", "/airlines/search")).handler(airlineHandler::searchAirlines);
+            router.get("/airlines/autocomplete").handler(metrics.route("GET", "/airlines/autocomplete")).handler(airlineHandler::autocompleteAirlines);
 
             // 4. Flight Routes (The ones that were missing!)
-            router.post("/flights").handler(flightHandler::addFlight);
-            router.get("/flights/search").handler(flightHandler::searchFlights);
-            router.get("/flights/:id").handler(flightHandler::getFlight);
+            router.post("/flights").handler(metrics.route("POST", "/flights")).handler(standardSlot).handler(flightHandler::addFlight);
+            // With a departure date the search is served by the route index, the calendar and itineraries
+            // by their own in-memory structures
+            router.get("/flights/search").handler(metrics.route("GET", "/flights/search"))
+                    .handler(searchSlot.unless(rc -> rc.queryParams().contains("departure")))
+                    .handler(flightHandler::searchFlights);
+            router.get("/flights/calendar").handler(metrics.route("GET", "/flights/calendar")).handler(flightHandler::fareCalendar);
+            router.get("/flights/itineraries").handler(metrics.route("GET", "/flights/itineraries")).handler(flightHandler::searchItineraries);
+            router.get("/flights/:id").handler(metrics.route("GET", "/flights/:id")).handler(standardSlot).handler(flightHandler::getFlight);
             // Note: If your test hits GET /flights (without search), you might need:
             // router.get("/flights").handler(flightHandler::listAllFlights);
 
             // 5. Passenger & Booking Routes
-            router.post("/passengers").handler(passengerHandler::addPassenger);
-            router.get("/passengers/search").handler(passengerHandler::searchPassengers);
-            router.post("/bookings").handler(bookingHandler::bookTicket);
-            router.get("/bookings/:id").handler(bookingHandler::retrieveBookingDetails);
-            router.delete("/bookings/:id").handler(bookingHandler::cancelBooking);
-            router.get("/passengers/:id/bookings").handler(bookingHandler::listPassengerBookings);
+            router.post("/passengers").handler(metrics.route("POST", "/passengers")).handler(standardSlot).handler(passengerHandler::addPassenger);
+            // Answered from the passenger identity index
+            router.get("/passengers/search").handler(metrics.route("GET", "/passengers/search")).handler(passengerHandler::searchPassengers);
+            router.post("/bookings").handler(metrics.route("POST", "/bookings")).handler(bookingSlot).handler(bookingHandler::bookTicket);
+            router.post("/bookings/batch").handler(metrics.route("POST", "/bookings/batch")).handler(bookingSlot).handler(bookingHandler::bookBatch);
+            router.get("/bookings/:id").handler(metrics.route("GET", "/bookings/:id")).handler(standardSlot).handler(bookingHandler::retrieveBookingDetails);
+            router.delete("/bookings/:id").handler(metrics.route("DELETE", "/bookings/:id")).handler(bookingSlot).handler(bookingHandler::cancelBooking);
+            router.get("/passengers/:id/bookings").handler(metrics.route("GET", "/passengers/:id/bookings")).handler(searchSlot).handler(bookingHandler::listPassengerBookings);
 
             // 6. Start Server
             vertx.createHttpServer()
                     .requestHandler(router)
                     .listen(port)
                     .onSuccess(server -> {
-                        log.info("HTTP server started on port {}", port);
+                        log.info("HTTP server started on port {} ({})", port, eventLoopName);
                         startPromise.complete();
                     })
                     .onFailure(err -> {
@@ -98,7 +161,7 @@ public class MainVerticle extends AbstractVerticle {
 
     @Override
     public void stop() {
-        if (dbService != null) {
+        if (ownsDbService && dbService != null) {
             dbService.close();
         }
     }
@@ -0,0 +1,63 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.service.AdmissionController;
+import com.airline.booking.service.AdmissionController.Priority;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.function.Predicate;
+
+/**
+ * Route-level gate in front of {@link AdmissionController}: admitted requests hold their slot until
+ * the response ends (or the connection drops), everything else fails straight away with
+ * {@link Overloaded}, which GlobalFailureHandler turns into a 503 with Retry-After.
+ */
+public final class AdmissionHandler implements Handler<RoutingContext> {
+
+    static final int RETRY_AFTER_SECONDS = 1;
+
+    private final AdmissionController controller;
+    private final Priority priority;
+    private final Predicate<RoutingContext> bypass;
+
+    private AdmissionHandler(AdmissionController controller, Priority priority, Predicate<RoutingContext> bypass) {
+        this.controller = controller;
+        this.priority = priority;
+        this.bypass = bypass;
+    }
+
+    public static AdmissionHandler of(AdmissionController controller, Priority priority) {
+        return new AdmissionHandler(controller, priority, rc -> false);
+    }
+
+    /** The same gate, except that requests matching {@code bypass} (e.g. answered from memory) pass straight through. */
+    public AdmissionHandler unless(Predicate<RoutingContext> bypass) {
+        return new AdmissionHandler(controller, priority, bypass);
+    }
+
+    @Override
+    public void handle(RoutingContext rc) {
+        if (bypass.test(rc)) {
+            rc.next();
+            return;
+        }
+        long start = controller.tryAcquire(priority);
+        if (start < 0) {
+            rc.fail(new Overloaded());
+            return;
+        }
+        rc.addEndHandler(v -> controller.release(start));
+        rc.next();
+    }
+
+    /** A request refused because the service is at capacity; the client should retry shortly. */
+    static final class Overloaded extends RuntimeException {
+        Overloaded() {
+            super("Service is at capacity, retry shortly", null, false, false);
+        }
+
+        int retryAfterSeconds() {
+            return RETRY_AFTER_SECONDS;
+        }
+    }
+}
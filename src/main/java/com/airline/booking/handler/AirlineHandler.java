@@ -2,22 +2,20 @@ package com.airline.booking.handler;
 
 import com.airline.booking.model.Airline;
 import com.airline.booking.service.DatabaseService;
+import com.airline.booking.service.TableVersions.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
-import io.vertx.jdbcclient.JDBCPool;
-import io.vertx.sqlclient.Tuple;
-
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 public class AirlineHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(com.airline.booking.handler.AirlineHandler.class);
 
+    static final int AUTOCOMPLETE_LIMIT = 10;
+    static final int AUTOCOMPLETE_MAX_LIMIT = 50;
+
     private final DatabaseService dbService;
 
     public AirlineHandler(DatabaseService dbService) {
@@ -38,16 +36,12 @@ public class AirlineHandler {
                 body.getString("country", "Unknown"));
 
         // 3. Insert into DB
-        dbService.getPool().preparedQuery("INSERT INTO airlines (name, code, country) VALUES (?, ?, ?)")
-                .execute(Tuple.of(airline.name(), airline.code(), airline.country())).onSuccess(rows -> {
-                    Long generatedId = rows.property(JDBCPool.GENERATED_KEYS).getLong(0);
-
-                    // 4. Create NEW Airline with ID
-                    Airline saved = new Airline(generatedId, airline.name(), airline.code(), airline.country());
-                    LOG.info("Successfully added new airline: {} (Code: {}) with ID: {}",
-                            saved.name(), saved.code(), generatedId);
-                    rc.response().setStatusCode(201).putHeader("Content-Type", "application/json")
-                            .end(Json.encodePrettily(saved));
+        dbService.airlines().insert(airline).onSuccess(saved -> {
+                    dbService.airlineSearchIndex().add(saved);
+                    dbService.tableVersions().changed(Table.AIRLINES);
+                    LOG.debug("Successfully added new airline: {} (Code: {}) with ID: {}",
+                            saved.name(), saved.code(), saved.id());
+                    JsonResponse.created(rc, saved);
                 }).onFailure(err -> {
                     LOG.error("Failed to create airline [{}]: {}", airline.code(), err.getMessage());
                     rc.fail(new HttpException(409, "Failed to create airline"));
@@ -55,17 +49,35 @@ public class AirlineHandler {
     }
 
     public void listAllAirlines(RoutingContext rc) {
-        String sql = "SELECT id, name, code, country FROM airlines ORDER BY name";
+        if (ConditionalGet.notModified(rc, dbService.tableVersions().current(Table.AIRLINES), ConditionalGet.CATALOG)) {
+            return;
+        }
+
+        Page page;
+        try {
+            page = Page.from(rc);
+        } catch (HttpException e) {
+            rc.fail(e);
+            return;
+        }
+
+        // Unpaginated keeps the original name ordering; pages are keyset-ordered by id
+        if (Page.streaming(rc)) {
+            RowStreamWriter.writeArray(rc, dbService.airlines().cursor(page == null ? null : page.keyset()),
+                    "Failed to retrieve airlines");
+            return;
+        }
 
-        dbService.getPool().query(sql).execute()
-                .map(rows -> StreamSupport.stream(rows.spliterator(), false).map(Airline::fromRow)
-                        .collect(Collectors.toList())).onSuccess(
+        dbService.airlines().list(page == null ? null : page.keyset()).onSuccess(
                         list -> {
-                            LOG.info("Successfully retrieved {} airlines", list.size());
-                            rc.response().putHeader("Content-Type", "application/json").end(Json.encodePrettily(list));
+                            LOG.debug("Successfully retrieved {} airlines", list.size());
+                            if (page != null) {
+                                page.markNext(rc, list, Airline::id);
+                            }
+                            JsonResponse.ok(rc, list);
                         })
                 .onFailure(err -> {
-                    rc.fail(new HttpException(500, "Failed to retrieve airlines"));
+                    rc.fail(GlobalFailureHandler.internalError(err, "Failed to retrieve airlines"));
                 });
     }
 
@@ -76,48 +88,60 @@ public class AirlineHandler {
         String code = rc.request().getParam("code");
         String country = rc.request().getParam("country");
 
-        StringBuilder sql = new StringBuilder("SELECT id, name, code, country FROM airlines WHERE 1=1");
-
-        Tuple params = Tuple.tuple();
-
+        Long airlineId = null;
         if (id != null) {
             try {
-                params.addLong(Long.parseLong(id));
-                sql.append(" AND id = ?");
+                airlineId = Long.parseLong(id);
             } catch (NumberFormatException e) {
                 rc.fail(new HttpException(400, "Invalid ID format: must be a number"));
                 return;
             }
         }
-        if (name != null && !name.isBlank()) {
-            sql.append(" AND LOWER(name) LIKE ?");
-            params.addString("%" + name.trim().toLowerCase() + "%");
-        }
-
-        if (code != null && !code.isBlank()) {
-            sql.append(" AND LOWER(code) LIKE ?");
-            params.addString("%" + code.trim().toLowerCase() + "%");
-        }
-
-        if (country != null && !country.isBlank()) {
-            sql.append(" AND LOWER(country) LIKE ?");
-            params.addString("%" + country.trim().toLowerCase() + "%");
+        if (ConditionalGet.notModified(rc, dbService.tableVersions().current(Table.AIRLINES), ConditionalGet.CATALOG)) {
+            return;
         }
 
-        sql.append(" ORDER BY name");
-
-        dbService.getPool().preparedQuery(sql.toString()).execute(params)
-                .map(rows -> StreamSupport.stream(rows.spliterator(), false).map(Airline::fromRow)
-                        .collect(Collectors.toList())).onSuccess(
+        dbService.airlineSearchIndex().search(airlineId, criterion(name), criterion(code), criterion(country)).onSuccess(
                         list -> {
-                            LOG.info("Search query successful. Found {} airlines matching criteria.", list.size());
-                            rc.response().putHeader("Content-Type", "application/json").end(Json.encodePrettily(list));
+                            LOG.debug("Search query successful. Found {} airlines matching criteria.", list.size());
+                            JsonResponse.ok(rc, list);
                         })
                 .onFailure(err -> {
                     LOG.error("Search failed: {}", err.getMessage());
-                    rc.fail(new HttpException(500, "Failed to search airlines"));
+                    rc.fail(GlobalFailureHandler.internalError(err, "Failed to search airlines"));
                 });
     }
 
-}
+    public void autocompleteAirlines(RoutingContext rc) {
+        String query = criterion(rc.request().getParam("q"));
+        if (query == null) {
+            rc.fail(new HttpException(400, "Missing query parameter: q"));
+            return;
+        }
+        int limit;
+        try {
+            String param = rc.request().getParam("limit");
+            limit = param == null ? AUTOCOMPLETE_LIMIT : Integer.parseInt(param);
+        } catch (NumberFormatException e) {
+            limit = -1;
+        }
+        if (limit < 1 || limit > AUTOCOMPLETE_MAX_LIMIT) {
+            rc.fail(new HttpException(400, "'limit' must be a number between 1 and " + AUTOCOMPLETE_MAX_LIMIT));
+            return;
+        }
+        if (ConditionalGet.notModified(rc, dbService.tableVersions().current(Table.AIRLINES), ConditionalGet.CATALOG)) {
+            return;
+        }
+
+        dbService.airlineSearchIndex().autocomplete(query, limit)
+                .onSuccess(list -> JsonResponse.ok(rc, list))
+                .onFailure(err -> {
+                    LOG.error("Autocomplete failed: {}", err.getMessage());
+                    rc.fail(GlobalFailureHandler.internalError(err, "Failed to search airlines"));
+                });
+    }
 
+    private static String criterion(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,24 +1,34 @@
 package com.airline.booking.handler;
 
+import com.airline.booking.model.BatchBookingResult;
 import com.airline.booking.model.Booking;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.NewBooking;
 import com.airline.booking.service.DatabaseService;
+import com.airline.booking.service.IdempotencyCache;
+import com.airline.booking.service.SeatInventory;
+import com.airline.booking.service.SeatInventory.FlightInventory;
+import com.airline.booking.service.TableVersions.Table;
+import com.airline.booking.service.TableVersions.Version;
 import io.vertx.core.Future;
-import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
-import io.vertx.jdbcclient.JDBCPool;
-import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 public class BookingHandler {
     private static final Logger log = LoggerFactory.getLogger(com.airline.booking.handler.BookingHandler.class);
+    private static final int MAX_BATCH_SIZE = 100;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
     private final DatabaseService dbService;
 
     public BookingHandler(DatabaseService dbService) {
@@ -31,109 +41,239 @@ public class BookingHandler {
             rc.fail(new HttpException(400, "Missing flightId or passengerId"));
             return;
         }
+        if (!(body.getValue("flightId") instanceof Integer) || !(body.getValue("passengerId") instanceof Integer)) {
+            rc.fail(new HttpException(400, "flightId and passengerId must be integers"));
+            return;
+        }
 
         Integer flightId = body.getInteger("flightId");
         Integer passengerId = body.getInteger("passengerId");
         String seatNumber = body.getString("seatNumber");
-        String bookingRef = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-
-        dbService.getPool().withTransaction(conn ->
-                // 1. VALIDATE PASSENGER EXISTS (Reviewer Improvement)
-                conn.preparedQuery("SELECT id FROM passengers WHERE id = ?")
-                        .execute(Tuple.of(passengerId))
-                        .compose(pRows -> {
-                            if (!pRows.iterator().hasNext()) {
-                                return Future.failedFuture(new HttpException(404, "Passenger not found"));
-                            }
-                            // 2. CHECK IF DUPLICATE BOOKING EXISTS
-                            return conn.preparedQuery("SELECT 1 FROM bookings WHERE passenger_id = ? AND flight_id = ? AND status = 'CONFIRMED'")
-                                    .execute(Tuple.of(passengerId, flightId));
-                        })
-                        .compose(rows -> {
-                            if (rows.iterator().hasNext()) {
-                                return Future.failedFuture(new HttpException(409, "Passenger already booked this flight"));
-                            }
-                            // 3. FETCH FLIGHT DETAILS (Price and Availability)
-                            return conn.preparedQuery("SELECT id, flight_number, available_seats, price FROM flights WHERE id = ?")
-                                    .execute(Tuple.of(flightId));
-                        })
-                        .compose(rows -> {
-                            if (!rows.iterator().hasNext()) {
-                                return Future.failedFuture(new HttpException(404, "Flight not found"));
-                            }
-
-                            Row flightRow = rows.iterator().next();
-                            // Use UPPERCASE to avoid NoSuchElementException in H2
-                            int available = flightRow.getInteger("AVAILABLE_SEATS");
-                            double price = flightRow.getDouble("PRICE");
-
-                            if (available <= 0) {
-                                return Future.failedFuture(new HttpException(409, "Flight is full"));
-                            }
-
-                            // 4. CHECK IF SEAT IS TAKEN
-                            return conn.preparedQuery("SELECT 1 FROM bookings WHERE flight_id = ? AND seat_number = ? AND status = 'CONFIRMED'")
-                                    .execute(Tuple.of(flightId, seatNumber))
-                                    .compose(seatRows -> {
-                                        if (seatRows.iterator().hasNext()) {
-                                            return Future.failedFuture(new HttpException(409, "Seat already booked"));
-                                        }
-                                        return Future.succeededFuture(price);
-                                    });
-                        })
-                        .compose(price ->
-                                // 5. DECREMENT INVENTORY
-                                conn.preparedQuery("UPDATE flights SET available_seats = available_seats - 1 WHERE id = ?")
-                                        .execute(Tuple.of(flightId))
-                                        .map(price)
-                        )
-                        .compose(price -> {
-                            // 6. CREATE BOOKING
-                            String sql = "INSERT INTO bookings (booking_reference, passenger_id, flight_id, seat_number, status, total_amount) VALUES (?, ?, ?, ?, 'CONFIRMED', ?)";
-                            return conn.preparedQuery(sql)
-                                    .execute(Tuple.of(bookingRef, passengerId, flightId, seatNumber, price));
-                        })
-                        .compose(result -> {
-                            Long generatedId = result.property(JDBCPool.GENERATED_KEYS).getLong(0);
-                            return conn.preparedQuery("SELECT * FROM bookings WHERE id = ?")
-                                    .execute(Tuple.of(generatedId));
-                        })
-                        .map(rows -> rows.iterator().hasNext() ? Booking.fromRow(rows.iterator().next()) : null)
-        ).onSuccess(booking -> {
-            log.info("Booking successful: Ref [{}] for Passenger ID [{}] on Flight ID [{}]",
-                    booking.bookingReference(), booking.passengerId(), booking.flightId());
-
-            rc.response()
-                    .setStatusCode(201)
-                    .putHeader("Content-Type", "application/json")
-                    .end(Json.encodePrettily(booking));
-        }).onFailure(rc::fail);
+
+        String idempotencyKey = rc.request().getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey == null) {
+            book(flightId, passengerId, seatNumber)
+                    .onSuccess(booking -> JsonResponse.created(rc, booking))
+                    .onFailure(rc::fail);
+            return;
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            rc.fail(new HttpException(400, IDEMPOTENCY_KEY + " must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+            return;
+        }
+
+        // Retries with the same key share the first request's outcome, including one still in flight.
+        // 4xx rejections are final and replayed; anything else is forgotten so the retry books for real.
+        String fingerprint = flightId + "|" + passengerId + "|" + seatNumber;
+        IdempotencyCache.Attempt<Booking> attempt = dbService.idempotentBookings().attempt(
+                idempotencyKey, fingerprint,
+                () -> book(flightId, passengerId, seatNumber),
+                err -> err instanceof HttpException e && e.getStatusCode() < 500);
+        attempt.result()
+                .onSuccess(booking -> {
+                    if (attempt.replayed()) {
+                        rc.response().putHeader(IDEMPOTENT_REPLAYED, "true");
+                    }
+                    JsonResponse.created(rc, booking);
+                })
+                .onFailure(err -> rc.fail(err instanceof IdempotencyCache.KeyReusedException
+                        ? new HttpException(422, err.getMessage())
+                        : err));
+    }
+
+    private Future<Booking> book(Integer flightId, Integer passengerId, String seatNumber) {
+        SeatInventory inventory = dbService.seatInventory();
+
+        // 1. RESERVE IN MEMORY: rejects unknown/full flights, taken seats and duplicates without SQL
+        return inventory.forFlight(flightId)
+                .compose(flight -> {
+                    if (flight == null) {
+                        return Future.failedFuture(new HttpException(404, "Flight not found"));
+                    }
+                    return switch (flight.reserve(passengerId, seatNumber)) {
+                        case ALREADY_BOOKED -> Future.failedFuture(new HttpException(409, "Passenger already booked this flight"));
+                        case FULL -> Future.failedFuture(new HttpException(409, "Flight is full"));
+                        case SEAT_TAKEN -> Future.failedFuture(new HttpException(409, "Seat already booked"));
+                        case RESERVED -> persistBooking(passengerId, flight, seatNumber)
+                                .onFailure(err -> flight.release(passengerId, seatNumber));
+                    };
+                })
+                .onSuccess(booking -> {
+                    dbService.seatsChanged(booking.flightId(), -1);
+                    dbService.tableVersions().changed(Table.BOOKINGS, Table.FLIGHTS);
+                    log.debug("Booking successful: Ref [{}] for Passenger ID [{}] on Flight ID [{}]",
+                            booking.bookingReference(), booking.passengerId(), booking.flightId());
+                });
+    }
+
+    private Future<Booking> persistBooking(long passengerId, FlightInventory flight, String seatNumber) {
+        long flightId = flight.flightId();
+        double price = flight.price();
+
+        // 2. DECREMENT INVENTORY AND CREATE BOOKING (guarded in case the flight was changed outside this service).
+        // The passenger is checked by the bookings foreign key inside the same transaction, so a booking
+        // never waits on a pool shared with searches
+        return dbService.bookingReferences().next()
+                .compose(bookingRef -> dbService.bookings()
+                        .insert(new NewBooking(bookingRef, passengerId, flightId, seatNumber, price)))
+                .recover(err -> Future.failedFuture(unknownPassenger(err)
+                        ? new HttpException(404, "Passenger not found")
+                        : err instanceof BookingRepository.AlreadyBookedException
+                        ? new HttpException(409, "Passenger or seat already booked on this flight")
+                        : err))
+                .compose(booking -> booking != null
+                        ? Future.succeededFuture(booking)
+                        : Future.failedFuture(new HttpException(409, "Flight is full")));
+    }
+
+    private static boolean unknownPassenger(Throwable err) {
+        return err.getMessage() != null && err.getMessage().contains("FOREIGN KEY(PASSENGER_ID)");
+    }
+
+    /**
+     * POST /bookings/batch: books a group onto one flight in a single all-or-nothing transaction.
+     * Seats are claimed together in memory, passengers are checked with one lookup and the storage
+     * takes the seats and writes every booking as one unit. Rejections come back as 404/409 with
+     * the per-item statuses rather than through the failure handler, since the client needs them.
+     */
+    public void bookBatch(RoutingContext rc) {
+        JsonObject body = rc.body().asJsonObject();
+        JsonArray items = body != null ? body.getJsonArray("bookings") : null;
+        if (body == null || body.getLong("flightId") == null || items == null || items.isEmpty()) {
+            rc.fail(new HttpException(400, "Missing flightId or bookings"));
+            return;
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            rc.fail(new HttpException(400, "A batch may contain at most " + MAX_BATCH_SIZE + " bookings"));
+            return;
+        }
+
+        long flightId = body.getLong("flightId");
+        List<Long> passengerIds = new ArrayList<>(items.size());
+        List<String> seatNumbers = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            JsonObject item = items.getValue(i) instanceof JsonObject o ? o : null;
+            Long passengerId = item != null ? item.getLong("passengerId") : null;
+            if (passengerId == null) {
+                rc.fail(new HttpException(400, "bookings[" + i + "] is missing passengerId"));
+                return;
+            }
+            String seatNumber = item.getString("seatNumber");
+            if (passengerIds.contains(passengerId) || (seatNumber != null && seatNumbers.contains(seatNumber))) {
+                rc.fail(new HttpException(400, "bookings[" + i + "] repeats a passenger or seat from the same batch"));
+                return;
+            }
+            passengerIds.add(passengerId);
+            seatNumbers.add(seatNumber);
+        }
+
+        dbService.seatInventory().forFlight(flightId)
+                .compose(flight -> {
+                    if (flight == null) {
+                        return Future.failedFuture(new HttpException(404, "Flight not found"));
+                    }
+                    List<SeatInventory.Outcome> outcomes = flight.reserveAll(passengerIds, seatNumbers);
+                    if (outcomes.stream().anyMatch(o -> o != SeatInventory.Outcome.RESERVED)) {
+                        List<String> statuses = outcomes.stream()
+                                .map(o -> o == SeatInventory.Outcome.RESERVED ? "VALID" : o.name())
+                                .collect(Collectors.toList());
+                        return Future.failedFuture(new BatchRejected(409,
+                                rejection(flightId, passengerIds, seatNumbers, statuses)));
+                    }
+                    return persistBatch(flight, passengerIds, seatNumbers)
+                            .onFailure(err -> flight.releaseAll(passengerIds, seatNumbers));
+                })
+                .onSuccess(bookings -> {
+                    dbService.seatsChanged(flightId, -bookings.size());
+                    dbService.tableVersions().changed(Table.BOOKINGS, Table.FLIGHTS);
+                    log.debug("Batch booking successful: {} passengers on Flight ID [{}]", bookings.size(), flightId);
+
+                    List<BatchBookingResult.Item> results = new ArrayList<>(bookings.size());
+                    for (int i = 0; i < bookings.size(); i++) {
+                        results.add(new BatchBookingResult.Item(i, passengerIds.get(i), seatNumbers.get(i),
+                                "CONFIRMED", bookings.get(i)));
+                    }
+                    JsonResponse.created(rc, new BatchBookingResult(flightId, "CONFIRMED", results));
+                })
+                .onFailure(err -> {
+                    if (err instanceof BatchRejected rejected) {
+                        log.warn("Batch booking rejected for Flight ID [{}] ({})", flightId, rejected.status);
+                        JsonResponse.send(rc, rejected.status, rejected.result);
+                    } else {
+                        rc.fail(err);
+                    }
+                });
+    }
+
+    private Future<List<Booking>> persistBatch(FlightInventory flight, List<Long> passengerIds, List<String> seatNumbers) {
+        long flightId = flight.flightId();
+        double price = flight.price();
+        int count = passengerIds.size();
+
+        // 1. VALIDATE ALL PASSENGERS AT ONCE
+        return dbService.passengers().existing(passengerIds)
+                .compose(found -> {
+                    if (found.size() < count) {
+                        List<String> statuses = passengerIds.stream()
+                                .map(id -> found.contains(id) ? "VALID" : "PASSENGER_NOT_FOUND")
+                                .collect(Collectors.toList());
+                        return Future.failedFuture(new BatchRejected(404,
+                                rejection(flightId, passengerIds, seatNumbers, statuses)));
+                    }
+                    return dbService.bookingReferences().next(count);
+                })
+                // 2. TAKE THE SEATS AND INSERT EVERY BOOKING, ALL OR NOTHING
+                .compose(refs -> {
+                    List<NewBooking> bookings = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        bookings.add(new NewBooking(refs.get(i), passengerIds.get(i), flightId, seatNumbers.get(i), price));
+                    }
+                    return dbService.bookings().insertAll(flightId, bookings)
+                            .recover(err -> Future.failedFuture(err instanceof BookingRepository.AlreadyBookedException
+                                    ? new BatchRejected(409, rejection(flightId, passengerIds, seatNumbers,
+                                            Collections.nCopies(count, SeatInventory.Outcome.ALREADY_BOOKED.name())))
+                                    : err));
+                })
+                .compose(inserted -> inserted != null
+                        ? Future.succeededFuture(inserted)
+                        : Future.failedFuture(new BatchRejected(409, rejection(flightId, passengerIds, seatNumbers,
+                                Collections.nCopies(count, SeatInventory.Outcome.FULL.name())))));
+    }
+
+    private static BatchBookingResult rejection(long flightId, List<Long> passengerIds, List<String> seatNumbers,
+                                                List<String> statuses) {
+        List<BatchBookingResult.Item> items = new ArrayList<>(statuses.size());
+        for (int i = 0; i < statuses.size(); i++) {
+            items.add(new BatchBookingResult.Item(i, passengerIds.get(i), seatNumbers.get(i), statuses.get(i), null));
+        }
+        return new BatchBookingResult(flightId, "REJECTED", items);
+    }
+
+    /** Carries a per-item rejection out of the future chain so the client still gets the details. */
+    private static final class BatchRejected extends RuntimeException {
+        private final int status;
+        private final BatchBookingResult result;
+
+        BatchRejected(int status, BatchBookingResult result) {
+            super(null, null, false, false);
+            this.status = status;
+            this.result = result;
+        }
     }
 
-    // Other methods updated with uppercase column strings for H2 safety
     public void cancelBooking(RoutingContext rc) {
         long bookingId = Long.parseLong(rc.pathParam("id"));
 
-        dbService.getPool().withTransaction(conn ->
-                        conn.preparedQuery("SELECT flight_id FROM bookings WHERE id = ? AND status = 'CONFIRMED'")
-                                .execute(Tuple.of(bookingId))
-                                .compose(rows -> {
-                                    if (!rows.iterator().hasNext()) {
-                                        return Future.failedFuture(new HttpException(404, "Booking not found or already cancelled."));
-                                    }
-                                    // FIXED: Use uppercase "FLIGHT_ID"
-                                    return Future.succeededFuture(rows.iterator().next().getLong("FLIGHT_ID"));
-                                })
-                                .compose(flightId ->
-                                        conn.preparedQuery("UPDATE bookings SET status = 'CANCELLED' WHERE id = ?")
-                                                .execute(Tuple.of(bookingId))
-                                                .map(v -> flightId)
-                                )
-                                .compose(flightId ->
-                                        conn.preparedQuery("UPDATE flights SET available_seats = available_seats + 1 WHERE id = ?")
-                                                .execute(Tuple.of(flightId)))
-                ).onSuccess(v -> {
-                    log.info("Successfully cancelled booking ID: {}", bookingId);
+        dbService.bookings().cancel(bookingId)
+                .compose(booking -> booking != null
+                        ? Future.succeededFuture(booking)
+                        : Future.<Booking>failedFuture(new HttpException(404, "Booking not found or already cancelled.")))
+                .onSuccess(booking -> {
+                    // Committed: hand the seat back to the in-memory inventory
+                    dbService.seatInventory().cancelled(booking.flightId(), booking.passengerId(), booking.seatNumber());
+                    dbService.seatsChanged(booking.flightId(), 1);
+                    dbService.tableVersions().changed(Table.BOOKINGS, Table.FLIGHTS);
+                    log.debug("Successfully cancelled booking ID: {}", bookingId);
                     rc.response()
                             .setStatusCode(204)
                             .end();
@@ -155,34 +295,56 @@ public class BookingHandler {
             rc.fail(new HttpException(400, "Invalid booking ID format: " + idParam));
             return;
         }
+        Version version = dbService.tableVersions().current(Table.BOOKINGS);
+        if (ConditionalGet.notModified(rc, version, ConditionalGet.PRIVATE)) {
+            return;
+        }
 
-        dbService.getPool().preparedQuery("SELECT * FROM Bookings WHERE id = ?")
-                .execute(Tuple.of(id))
-                .map(rows -> rows.iterator().hasNext() ? Booking.fromRow(rows.iterator().next()) : null)
+        dbService.bookingReads().load(id + version.etag(), () -> dbService.bookings().findById(id))
                 .onSuccess(b -> {
                     if (b == null) {
                         log.warn("Booking search: ID [{}] not found", id);
                         rc.fail(new HttpException(404, "Booking not found."));
                     } else {
-                        log.info("Successfully retrieved booking: Ref [{}] for Passenger ID [{}]",
+                        log.debug("Successfully retrieved booking: Ref [{}] for Passenger ID [{}]",
                                 b.bookingReference(), b.passengerId());
-                        rc.response()
-                                .putHeader("Content-Type", "application/json")
-                                .end(Json.encodePrettily(b));
+                        JsonResponse.ok(rc, b);
                     }
                 })
                 .onFailure(rc::fail);
     }
 
     public void listPassengerBookings(RoutingContext rc) {
-        int pid = Integer.parseInt(rc.pathParam("id"));
-        dbService.getPool().preparedQuery("SELECT * FROM Bookings WHERE passenger_id = ?").execute(Tuple.of(pid))
-                .map(rows -> StreamSupport.stream(rows.spliterator(), false).map(Booking::fromRow)
-                        .collect(Collectors.toList()))
-                .onSuccess(list ->{log.info("Retrieved {} bookings for Passenger ID: {}", list.size(), pid); rc.response().putHeader("Content-Type", "application/json").end(Json.encodePrettily(list));})
+        int pid;
+        Page page;
+        try {
+            pid = Integer.parseInt(rc.pathParam("id"));
+            page = Page.from(rc);
+        } catch (NumberFormatException e) {
+            rc.fail(new HttpException(400, "Invalid passenger ID format: " + rc.pathParam("id")));
+            return;
+        } catch (HttpException e) {
+            rc.fail(e);
+            return;
+        }
+
+        if (Page.streaming(rc)) {
+            RowStreamWriter.writeArray(rc, dbService.bookings().cursorByPassenger(pid, page == null ? null : page.keyset()),
+                    "Failed to list bookings");
+            return;
+        }
+
+        dbService.bookings().findByPassenger(pid, page == null ? null : page.keyset())
+                .onSuccess(list -> {
+                    log.debug("Retrieved {} bookings for Passenger ID: {}", list.size(), pid);
+                    if (page != null) {
+                        page.markNext(rc, list, Booking::id);
+                    }
+                    JsonResponse.ok(rc, list);
+                })
                 .onFailure(err -> {
                     log.error("Failed to list bookings for Passenger ID [{}]: {}", pid, err.getMessage());
                     rc.fail(err);
                 });
     }
-}
\ No newline at end of file
+}
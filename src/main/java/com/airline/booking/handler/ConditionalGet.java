@@ -0,0 +1,88 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.service.TableVersions.Version;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Validators for catalog reads. {@link #notModified} runs before any query: a matching
+ * {@code If-None-Match} (or, without one, an {@code If-Modified-Since} after the last change) ends
+ * the request with 304 straight away. Otherwise the validators and Cache-Control go out with the
+ * response if it turns out to be a 200, so clients and the CDN can revalidate next time; errors
+ * are never tagged or made cacheable.
+ */
+final class ConditionalGet {
+
+    /** Airlines barely change; a shared cache may serve them for a minute before revalidating. */
+    static final String CATALOG = "public, max-age=60";
+    /** Flights carry live seat counts, so caches keep them briefly and revalidate. */
+    static final String FLIGHTS = "public, max-age=5";
+    /** Bookings are personal: browsers may keep them, but must revalidate and shared caches must not. */
+    static final String PRIVATE = "private, no-cache";
+
+    private ConditionalGet() {
+    }
+
+    /** Ends the request with 304 and returns true when the client's copy is current. */
+    static boolean notModified(RoutingContext rc, Version version, String cacheControl) {
+        if (!isFresh(rc.request(), version)) {
+            rc.addHeadersEndHandler(v -> {
+                if (rc.response().getStatusCode() == 200) {
+                    tag(rc, version, cacheControl);
+                }
+            });
+            return false;
+        }
+        tag(rc, version, cacheControl);
+        rc.response().setStatusCode(304).end();
+        return true;
+    }
+
+    private static void tag(RoutingContext rc, Version version, String cacheControl) {
+        rc.response()
+                .putHeader(HttpHeaders.ETAG, version.etag())
+                .putHeader(HttpHeaders.LAST_MODIFIED, httpDate(version.lastModifiedMillis()))
+                .putHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+
+    private static boolean isFresh(HttpServerRequest request, Version version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Weak comparison, as required for If-None-Match
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.strip();
+                if (candidate.equals("*") || stripWeak(candidate).equals(version.etag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            // HTTP dates have whole seconds; a change later in the same second must still count as modified
+            return version.lastModifiedMillis() / 1000 < since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -1,18 +1,24 @@
 package com.airline.booking.handler;
 
 import com.airline.booking.model.Flight;
+import com.airline.booking.repository.NewFlight;
 import com.airline.booking.service.DatabaseService;
-import io.vertx.core.json.Json;
+import com.airline.booking.service.ItineraryEngine;
+import com.airline.booking.service.TableVersions.Table;
+import com.airline.booking.service.TableVersions.Version;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
-import io.vertx.sqlclient.Tuple;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,10 +48,7 @@ public class FlightHandler {
             return;
         }
 
-        String sql = "INSERT INTO flights (flight_number, airline_id, departure_airport, arrival_airport, " +
-                "departure_time, arrival_time, available_seats, total_seats, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        Tuple params = Tuple.of(
+        NewFlight flight = new NewFlight(
                 body.getString("flightNumber"),
                 body.getLong("airlineId"),
                 body.getString("from"),
@@ -57,11 +60,12 @@ public class FlightHandler {
                 body.getDouble("price", 0.0)
         );
 
-        dbService.getPool().preparedQuery(sql).execute(params)
-                .onSuccess(rows -> {
-                    Long generatedId = rows.property(io.vertx.jdbcclient.JDBCPool.GENERATED_KEYS).getLong(0);
-                    log.info("Flight successfully inserted into database. Generated ID: {}", generatedId);
-                    fetchAndSendFlight(Math.toIntExact(generatedId), rc);
+        dbService.flights().insert(flight)
+                .onSuccess(saved -> {
+                    log.debug("Flight successfully inserted into database. Generated ID: {}", saved.id());
+                    dbService.flightAdded(saved);
+                    dbService.tableVersions().changed(Table.FLIGHTS);
+                    JsonResponse.created(rc, saved);
                 })
                 .onFailure(err -> {
                     log.error("Flight insertion failed", err);
@@ -70,6 +74,14 @@ public class FlightHandler {
                 });
     }
 
+    /**
+     * POST /flights/bulk: streams an NDJSON or CSV schedule into the flights table in batches.
+     * Must be routed ahead of the global BodyHandler so the body is never buffered whole.
+     */
+    public void importFlights(RoutingContext rc) {
+        FlightImport.start(rc, dbService);
+    }
+
     public void getFlight(RoutingContext rc) {
         // Tightened ID Parsing
         int id;
@@ -79,40 +91,137 @@ public class FlightHandler {
             rc.fail(new HttpException(400, "Invalid flight ID format."));
             return;
         }
+        Version version = dbService.tableVersions().current(Table.FLIGHTS);
+        if (ConditionalGet.notModified(rc, version, ConditionalGet.FLIGHTS)) {
+            return;
+        }
 
-        dbService.getPool().preparedQuery("SELECT * FROM Flights WHERE id = ?").execute(Tuple.of(id))
-                .map(rows -> rows.iterator().hasNext() ? Flight.fromRow(rows.iterator().next()) : null)
+        // Polling for the same flight during a sale shares one query per burst
+        dbService.flightReads().load(id + version.etag(), () -> dbService.flights().findById(id))
                 .onSuccess(f -> {
                     if (f == null) {
                         log.warn("Flight fetch failed: ID {} not found", id);
                         rc.fail(new HttpException(404, "Flight not found."));
                     }else {
-                        log.info("Successfully retrieved flight details for ID: {}", id);
-                        rc.response().putHeader("Content-Type", "application/json").end(Json.encodePrettily(f));
+                        log.debug("Successfully retrieved flight details for ID: {}", id);
+                        JsonResponse.ok(rc, f);
                     }})
                 .onFailure(err -> {
                     log.error("Fetch flight failed", err);
                     log.error("Fetch flight failed for ID {}: {}", id, err.getMessage());
-                    rc.fail(new HttpException(500, "Internal server error while fetching flight."));
+                    rc.fail(GlobalFailureHandler.internalError(err, "Internal server error while fetching flight."));
                 });
     }
 
-    private void fetchAndSendFlight(Integer id, RoutingContext rc) {
-        dbService.getPool().preparedQuery("SELECT * FROM Flights WHERE id = ?")
-                .execute(Tuple.of(id))
-                .onSuccess(rows -> {
-                    if (rows.iterator().hasNext()) {
-                        rc.response()
-                                .setStatusCode(201)
-                                .putHeader("Content-Type", "application/json")
-                                .end(Json.encodePrettily(Flight.fromRow(rows.iterator().next())));
-                    } else {
-                        rc.fail(404);
+    /**
+     * GET /flights/calendar?from=&to=&month=YYYY-MM: lowest fare and seats left for every day of the
+     * month, from the fare calendar instead of one search per day.
+     */
+    public void fareCalendar(RoutingContext rc) {
+        String from = rc.queryParam("from").stream().findFirst().orElse(null);
+        String to = rc.queryParam("to").stream().findFirst().orElse(null);
+        String monthParam = rc.queryParam("month").stream().findFirst().orElse(null);
+
+        if (from == null || to == null || monthParam == null) {
+            rc.fail(new HttpException(400, "Origin ('from'), destination ('to') and 'month' query parameters are required."));
+            return;
+        }
+        YearMonth month;
+        try {
+            month = YearMonth.parse(monthParam);
+        } catch (DateTimeParseException e) {
+            rc.fail(new HttpException(400, "Invalid month format. Expected YYYY-MM."));
+            return;
+        }
+        if (ConditionalGet.notModified(rc, dbService.tableVersions().current(Table.FLIGHTS), ConditionalGet.FLIGHTS)) {
+            return;
+        }
+
+        dbService.fareCalendar().month(from, to, month)
+                .onSuccess(days -> JsonResponse.ok(rc, new JsonObject()
+                        .put("from", from)
+                        .put("to", to)
+                        .put("month", month.toString())
+                        .put("days", new JsonArray(days.stream().map(JsonObject::mapFrom).toList()))))
+                .onFailure(err -> {
+                    log.error("Fare calendar failed for {} -> {} in {}: {}", from, to, month, err.getMessage());
+                    rc.fail(GlobalFailureHandler.internalError(err, "Internal server error while building the fare calendar."));
+                });
+    }
+
+    /**
+     * GET /flights/itineraries?from=&to=&departure=YYYY-MM-DD: the best direct and connecting itineraries,
+     * with optional maxStops (0-2, default 2), minConnection/maxConnection in minutes, sort=duration|price
+     * and limit.
+     */
+    public void searchItineraries(RoutingContext rc) {
+        String from = rc.queryParam("from").stream().findFirst().orElse(null);
+        String to = rc.queryParam("to").stream().findFirst().orElse(null);
+        String depDate = rc.queryParam("departure").stream().findFirst().orElse(null);
+
+        if (from == null || to == null || depDate == null) {
+            rc.fail(new HttpException(400, "Origin ('from'), destination ('to') and 'departure' query parameters are required."));
+            return;
+        }
+        if (from.equals(to)) {
+            rc.fail(new HttpException(400, "Origin and destination must differ."));
+            return;
+        }
+
+        ItineraryEngine.Query query;
+        try {
+            String sort = rc.queryParam("sort").stream().findFirst().orElse("duration");
+            if (!sort.equals("duration") && !sort.equals("price")) {
+                throw new IllegalArgumentException("'sort' must be duration or price");
+            }
+            query = new ItineraryEngine.Query(from, to, LocalDate.parse(depDate),
+                    intParam(rc, "maxStops", 2, 0, 2),
+                    intParam(rc, "minConnection", 45, 0, 24 * 60),
+                    intParam(rc, "maxConnection", 6 * 60, 0, 48 * 60),
+                    ItineraryEngine.Sort.valueOf(sort.toUpperCase(Locale.ROOT)),
+                    intParam(rc, "limit", 10, 1, 50));
+        } catch (DateTimeParseException e) {
+            rc.fail(new HttpException(400, "Invalid date format. Expected YYYY-MM-DD."));
+            return;
+        } catch (IllegalArgumentException e) {
+            rc.fail(new HttpException(400, e.getMessage()));
+            return;
+        }
+        if (query.minConnectionMinutes() > query.maxConnectionMinutes()) {
+            rc.fail(new HttpException(400, "'minConnection' must not exceed 'maxConnection'."));
+            return;
+        }
+        if (ConditionalGet.notModified(rc, dbService.tableVersions().current(Table.FLIGHTS), ConditionalGet.FLIGHTS)) {
+            return;
+        }
+
+        dbService.itineraries().search(query)
+                .onSuccess(list -> JsonResponse.ok(rc, list))
+                .onFailure(err -> {
+                    if (err instanceof ItineraryEngine.OutsideWindowException) {
+                        rc.fail(new HttpException(400, err.getMessage()));
+                        return;
                     }
-                })
-                .onFailure(rc::fail);
+                    log.error("Itinerary search failed for {} -> {} on {}: {}", from, to, depDate, err.getMessage());
+                    rc.fail(GlobalFailureHandler.internalError(err, "Internal server error while searching itineraries."));
+                });
     }
 
+    private static int intParam(RoutingContext rc, String name, int fallback, int min, int max) {
+        String value = rc.queryParam(name).stream().findFirst().orElse(null);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the range error
+        }
+        throw new IllegalArgumentException("'" + name + "' must be a number between " + min + " and " + max);
+    }
 
     public void searchFlights(RoutingContext rc) {
         String from = rc.queryParam("from").stream().findFirst().orElse(null);
@@ -126,36 +235,59 @@ public class FlightHandler {
         }
 
         // Validate dates without leaking internal stack traces
+        LocalDate departure;
+        LocalDate arrival;
+        Page page;
         try {
-            if (depDate != null) LocalDate.parse(depDate);
-            if (arrDate != null) LocalDate.parse(arrDate);
+            departure = depDate != null ? LocalDate.parse(depDate) : null;
+            arrival = arrDate != null ? LocalDate.parse(arrDate) : null;
+            page = Page.from(rc);
         } catch (DateTimeParseException e) {
             rc.fail(new HttpException(400, "Invalid date format. Expected YYYY-MM-DD."));
             return;
+        } catch (HttpException e) {
+            rc.fail(e);
+            return;
         }
 
-        StringBuilder sql = new StringBuilder("SELECT * FROM flights WHERE departure_airport = ? AND arrival_airport = ?");
-        Tuple params = Tuple.of(from, to);
-
-        if (depDate != null) {
-            sql.append(" AND CAST(departure_time AS DATE) = ?");
-            params.addString(depDate);
+        Version version = dbService.tableVersions().current(Table.FLIGHTS);
+        if (ConditionalGet.notModified(rc, version, ConditionalGet.FLIGHTS)) {
+            return;
         }
-        if (arrDate != null) {
-            sql.append(" AND CAST(arrival_time AS DATE) = ?");
-            params.addString(arrDate);
+
+        if (Page.streaming(rc) && departure == null) {
+            RowStreamWriter.writeArray(rc, dbService.flights().cursor(from, to, arrival, page == null ? null : page.keyset()),
+                    "An error occurred while searching for flights.");
+            return;
         }
 
-        dbService.getPool().preparedQuery(sql.toString()).execute(params)
-                .map(rows -> StreamSupport.stream(rows.spliterator(), false)
-                        .map(Flight::fromRow)
-                        .collect(Collectors.toList()))
-                .onSuccess(list -> rc.response()
-                        .putHeader("Content-Type", "application/json")
-                        .end(Json.encodePrettily(list)))
+        // Identical searches in flight at the same time share one result; the key is built from the
+        // parsed values so equivalent spellings of the same query coalesce too
+        String key = "from=" + from + "&to=" + to + "&departure=" + departure + "&arrival=" + arrival
+                + (page == null ? "" : "&after=" + page.after() + "&limit=" + page.limit()) + "&version=" + version.etag();
+        dbService.flightSearches().load(key, () -> search(from, to, departure, arrival, page))
+                .onSuccess(list -> {
+                    if (page != null) {
+                        page.markNext(rc, list, Flight::id);
+                    }
+                    JsonResponse.ok(rc, list);
+                })
                 .onFailure(err -> {
                     log.error("Search flights failed", err);
-                    rc.fail(new HttpException(500, "An error occurred while searching for flights."));
+                    rc.fail(GlobalFailureHandler.internalError(err, "An error occurred while searching for flights."));
                 });
     }
+
+    private Future<List<Flight>> search(String from, String to, LocalDate departure, LocalDate arrival, Page page) {
+        if (departure == null) {
+            return dbService.flights().search(from, to, arrival, page == null ? null : page.keyset());
+        }
+        // Served from the route/date index; storage is only hit when the route is cold.
+        // The result is already in memory, so ?stream=true has nothing to stream here.
+        return dbService.flightSearchIndex().search(from, to, departure)
+                .map(flights -> arrival == null ? flights : flights.stream()
+                        .filter(f -> LocalDateTime.parse(f.arrival()).toLocalDate().equals(arrival))
+                        .collect(Collectors.toList()))
+                .map(flights -> page == null ? flights : page.slice(flights, Flight::id));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.repository.NewFlight;
+import com.airline.booking.service.DatabaseService;
+import com.airline.booking.service.FlightSearchIndex.RouteKey;
+import com.airline.booking.service.TableVersions.Table;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.HttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One {@code POST /flights/bulk} upload. The body is read line by line straight off the request
+ * (the route sits in front of the global BodyHandler) as NDJSON, or as CSV with a header row when the
+ * Content-Type says so. Valid rows are inserted {@value #BATCH_SIZE} at a time with one atomic
+ * {@code insertAll} while the request is paused, so memory stays bounded by one batch regardless of upload size.
+ *
+ * The response is NDJSON: one {@code {"line":n,"error":"..."}} object per rejected line as it is found,
+ * followed by a {@code {"received":..,"inserted":..,"failed":..}} summary. If a batch fails (usually a
+ * duplicate flight) it is rolled back and replayed row by row to pin the error to its line.
+ */
+final class FlightImport {
+
+    private static final Logger log = LoggerFactory.getLogger(com.airline.booking.handler.FlightImport.class);
+
+    static final int BATCH_SIZE = 1000;
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private record ParsedRow(int line, NewFlight flight, RouteKey route) {}
+
+    private final RoutingContext rc;
+    private final DatabaseService dbService;
+    private final HttpServerResponse response;
+    private final boolean csv;
+
+    private RecordParser parser;
+    private String[] csvHeader;
+    private List<ParsedRow> batch = new ArrayList<>(BATCH_SIZE);
+    private int lineNumber;
+    private int received;
+    private int inserted;
+    private int failed;
+    // Reasons the request is currently paused: a batch in flight and/or a full response write queue
+    private int holds;
+    private boolean flushing;
+    // Waiting for the response to drain; at most one hold is taken for it however many writes fill the queue
+    private boolean draining;
+    private boolean ended;
+    private boolean done;
+
+    private FlightImport(RoutingContext rc, DatabaseService dbService) {
+        this.rc = rc;
+        this.dbService = dbService;
+        this.response = rc.response();
+        String contentType = rc.request().getHeader("Content-Type");
+        this.csv = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv");
+    }
+
+    static void start(RoutingContext rc, DatabaseService dbService) {
+        new FlightImport(rc, dbService).run();
+    }
+
+    private void run() {
+        HttpServerRequest request = rc.request();
+        response.setChunked(true).putHeader("Content-Type", "application/x-ndjson");
+
+        parser = RecordParser.newDelimited("\n", request).maxRecordSize(MAX_LINE_BYTES);
+        parser.exceptionHandler(this::abort);
+        parser.handler(this::onLine);
+        parser.endHandler(v -> {
+            ended = true;
+            flush();
+        });
+        request.resume();
+    }
+
+    private void onLine(Buffer buffer) {
+        lineNumber++;
+        String line = buffer.toString().strip();
+        if (line.isEmpty()) {
+            return;
+        }
+        if (csv && csvHeader == null) {
+            csvHeader = line.split(",");
+            return;
+        }
+
+        received++;
+        ParsedRow row;
+        try {
+            row = parse(csv ? fromCsv(line) : new JsonObject(line));
+        } catch (DecodeException e) {
+            reject(lineNumber, "Line is not a JSON object");
+            return;
+        } catch (IllegalArgumentException e) {
+            reject(lineNumber, e.getMessage());
+            return;
+        }
+
+        batch.add(row);
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private JsonObject fromCsv(String line) {
+        // Plain comma-separated values; quoted fields are not supported
+        String[] values = line.split(",", -1);
+        if (values.length != csvHeader.length) {
+            throw new IllegalArgumentException("Expected " + csvHeader.length + " columns but found " + values.length);
+        }
+        JsonObject row = new JsonObject();
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i].strip();
+            if (!value.isEmpty()) {
+                row.put(csvHeader[i].strip(), value);
+            }
+        }
+        return row;
+    }
+
+    private ParsedRow parse(JsonObject body) {
+        String flightNumber = text(body, "flightNumber");
+        String from = text(body, "from");
+        String to = text(body, "to");
+        if (flightNumber == null || body.getValue("airlineId") == null || from == null || to == null) {
+            throw new IllegalArgumentException("Missing required flight fields: airlineId, flightNumber, from, to");
+        }
+
+        LocalDateTime departure;
+        LocalDateTime arrival;
+        try {
+            departure = LocalDateTime.parse(text(body, "departureTime"));
+            arrival = LocalDateTime.parse(text(body, "arrivalTime"));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid date format. Use ISO-8601 (e.g., 2025-12-25T10:30:00)");
+        }
+
+        NewFlight flight = new NewFlight(
+                flightNumber,
+                number(body, "airlineId", null).longValue(),
+                from,
+                to,
+                departure,
+                arrival,
+                number(body, "seatsAvailable", 0).intValue(),
+                number(body, "totalSeats", 100).intValue(),
+                number(body, "price", 0.0).doubleValue()
+        );
+        return new ParsedRow(lineNumber, flight, new RouteKey(from, to, departure.toLocalDate()));
+    }
+
+    private static String text(JsonObject body, String field) {
+        Object value = body.getValue(field);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Number number(JsonObject body, String field, Number fallback) {
+        Object value = body.getValue(field);
+        if (value == null) {
+            return fallback;
+        }
+        if (value instanceof Number n) {
+            return n;
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + field + ": " + value);
+        }
+    }
+
+    private void flush() {
+        if (flushing) {
+            return;
+        }
+        if (batch.isEmpty()) {
+            if (ended) {
+                finish();
+            }
+            return;
+        }
+
+        List<ParsedRow> rows = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        flushing = true;
+        hold();
+
+        List<NewFlight> flights = new ArrayList<>(rows.size());
+        rows.forEach(row -> flights.add(row.flight()));
+
+        dbService.flights().insertAll(flights)
+                .recover(err -> {
+                    log.warn("Bulk flight batch failed ({}), retrying {} rows individually", err.getMessage(), rows.size());
+                    return insertOneByOne(rows, 0, 0);
+                })
+                .onComplete(ar -> {
+                    flushing = false;
+                    if (ar.failed()) {
+                        abort(ar.cause());
+                        return;
+                    }
+                    inserted += ar.result();
+                    invalidateRoutes(rows);
+                    release();
+                    if (ended || batch.size() >= BATCH_SIZE) {
+                        flush();
+                    }
+                });
+    }
+
+    private Future<Integer> insertOneByOne(List<ParsedRow> rows, int index, int ok) {
+        if (index == rows.size()) {
+            return Future.succeededFuture(ok);
+        }
+        ParsedRow row = rows.get(index);
+        return dbService.flights().insert(row.flight())
+                .map(v -> 1)
+                .recover(err -> {
+                    reject(row.line(), describe(err));
+                    return Future.succeededFuture(0);
+                })
+                .compose(count -> insertOneByOne(rows, index + 1, ok + count));
+    }
+
+    private static String describe(Throwable err) {
+        String message = String.valueOf(err.getMessage()).toUpperCase(Locale.ROOT);
+        if (message.contains("UNIQUE_FLIGHT")) {
+            return "Duplicate flight: flight number and departure time already exist";
+        }
+        if (message.contains("AIRLINE")) {
+            return "Unknown airlineId";
+        }
+        return "Could not insert flight";
+    }
+
+    private void invalidateRoutes(List<ParsedRow> rows) {
+        rows.stream()
+                .map(ParsedRow::route)
+                .distinct()
+                .forEach(route -> dbService.routeChanged(route.from(), route.to(), route.date()));
+        dbService.tableVersions().changed(Table.FLIGHTS);
+    }
+
+    private void reject(int line, String error) {
+        failed++;
+        write(new JsonObject().put("line", line).put("error", error));
+    }
+
+    private void write(JsonObject json) {
+        if (done) {
+            return;
+        }
+        response.write(json.toBuffer().appendString("\n"));
+        if (!draining && response.writeQueueFull()) {
+            draining = true;
+            hold();
+            response.drainHandler(v -> {
+                draining = false;
+                release();
+            });
+        }
+    }
+
+    private void hold() {
+        if (holds++ == 0 && !ended) {
+            parser.pause();
+        }
+    }
+
+    private void release() {
+        if (--holds == 0 && !ended) {
+            parser.resume();
+        }
+    }
+
+    private void finish() {
+        if (done) {
+            return;
+        }
+        log.info("Bulk flight import finished: {} received, {} inserted, {} rejected", received, inserted, failed);
+        response.end(new JsonObject()
+                .put("received", received)
+                .put("inserted", inserted)
+                .put("failed", failed)
+                .toBuffer().appendString("\n"));
+        done = true;
+    }
+
+    private void abort(Throwable err) {
+        if (done) {
+            return;
+        }
+        done = true;
+        log.error("Bulk flight import aborted after {} lines: {}", lineNumber, err.getMessage());
+        if (!response.headWritten()) {
+            rc.fail(new HttpException(err instanceof IllegalStateException ? 413 : 500,
+                    "Bulk flight import failed at line " + (lineNumber + 1)));
+        } else {
+            // Results are already on the wire, so the only honest signal left is a broken response
+            response.reset();
+        }
+    }
+}
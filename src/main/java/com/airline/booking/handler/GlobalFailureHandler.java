@@ -3,6 +3,7 @@ package com.airline.booking.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.airline.booking.error.ErrorResponse;
+import io.vertx.core.http.ConnectionPoolTooBusyException;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
@@ -12,8 +13,29 @@ public class GlobalFailureHandler {
     private static final Logger log = LoggerFactory.getLogger(
             com.airline.booking.handler.GlobalFailureHandler.class);
 
+    /**
+     * What a handler should fail with when a query goes wrong: a 500 carrying {@code message}, unless the
+     * cause is overload, which passes through so it still becomes a 503 with Retry-After below.
+     */
+    static Throwable internalError(Throwable cause, String message) {
+        if (cause instanceof ConnectionPoolTooBusyException || cause instanceof AdmissionHandler.Overloaded) {
+            return cause;
+        }
+        return new HttpException(500, message);
+    }
+
     public static void handle(RoutingContext rc) {
         Throwable failure = rc.failure();
+        if (failure instanceof ConnectionPoolTooBusyException) {
+            // The pool's wait queue is full: same answer as admission control shedding the request
+            failure = new AdmissionHandler.Overloaded();
+        }
+        if (failure instanceof AdmissionHandler.Overloaded overloaded) {
+            // Expected under load, so no stack trace; the shed count is in /metrics
+            log.debug("Shed {} {}", rc.request().method(), rc.request().path());
+            send(rc, 503, overloaded.getMessage(), String.valueOf(overloaded.retryAfterSeconds()));
+            return;
+        }
         // Default to 500 if no status code is set
         int statusCode = rc.statusCode() > 0 ? rc.statusCode() : 500;
 
@@ -39,10 +61,17 @@ public class GlobalFailureHandler {
             log.warn("Client Error: {} {} -> {}", rc.request().method(), rc.request().path(), clientMessage);
         }
 
+        send(rc, statusCode, clientMessage, null);
+    }
+
+    private static void send(RoutingContext rc, int statusCode, String clientMessage, String retryAfter) {
         // Use your ErrorResponse record for consistency
         ErrorResponse error = new ErrorResponse(statusCode, clientMessage, rc.request().path());
 
         if (!rc.response().ended()) {
+            if (retryAfter != null) {
+                rc.response().putHeader("Retry-After", retryAfter);
+            }
             rc.response()
                     .setStatusCode(statusCode)
                     .putHeader("Content-Type", "application/json")
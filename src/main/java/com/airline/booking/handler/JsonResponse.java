@@ -0,0 +1,98 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Flight;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared JSON writer for all handlers. Bodies are encoded compactly straight into a Buffer;
+ * {@code ?pretty=true} opts back into indented output for humans.
+ *
+ * Airline and Flight records are immutable snapshots, so their compact encoding is cached
+ * and list responses are stitched together from the cached bytes.
+ */
+public final class JsonResponse {
+
+    private static final int MAX_CACHED_RECORDS = 20_000;
+    private static final ConcurrentHashMap<Record, Buffer> ENCODED = new ConcurrentHashMap<>();
+
+    private static final Buffer OPEN = Buffer.buffer("[");
+    private static final Buffer COMMA = Buffer.buffer(",");
+    private static final Buffer CLOSE = Buffer.buffer("]");
+
+    private JsonResponse() {
+    }
+
+    public static void ok(RoutingContext rc, Object body) {
+        send(rc, 200, body);
+    }
+
+    public static void created(RoutingContext rc, Object body) {
+        send(rc, 201, body);
+    }
+
+    public static void send(RoutingContext rc, int status, Object body) {
+        rc.response()
+                .setStatusCode(status)
+                .putHeader("Content-Type", "application/json")
+                .end(encode(body, isPretty(rc)));
+    }
+
+    public static Buffer encode(Object body, boolean pretty) {
+        if (pretty) {
+            return Json.CODEC.toBuffer(body, true);
+        }
+        if (body instanceof List<?> list) {
+            return encodeList(list, true);
+        }
+        return encodeCompact(body, true);
+    }
+
+    /** The compact encoding of {@link #encode}, bypassing the record cache, e.g. to measure the encoder itself. */
+    public static Buffer encodeUncached(Object body) {
+        if (body instanceof List<?> list) {
+            return encodeList(list, false);
+        }
+        return encodeCompact(body, false);
+    }
+
+    private static Buffer encodeList(List<?> list, boolean cached) {
+        if (list.isEmpty()) {
+            return Buffer.buffer("[]");
+        }
+        Buffer first = encodeCompact(list.get(0), cached);
+        Buffer out = Buffer.buffer(2 + list.size() * (first.length() + 1));
+        out.appendBuffer(OPEN).appendBuffer(first);
+        for (int i = 1; i < list.size(); i++) {
+            out.appendBuffer(COMMA).appendBuffer(encodeCompact(list.get(i), cached));
+        }
+        return out.appendBuffer(CLOSE);
+    }
+
+    private static Buffer encodeCompact(Object value, boolean useCache) {
+        if (useCache && (value instanceof Airline || value instanceof Flight)) {
+            Record snapshot = (Record) value;
+            Buffer cached = ENCODED.get(snapshot);
+            if (cached == null) {
+                cached = Json.CODEC.toBuffer(snapshot, false);
+                if (ENCODED.size() >= MAX_CACHED_RECORDS) {
+                    // Stale seat counts produce new keys, so just start over instead of tracking recency
+                    ENCODED.clear();
+                }
+                ENCODED.put(snapshot, cached);
+            }
+            return cached;
+        }
+        return Json.CODEC.toBuffer(value, false);
+    }
+
+    private static boolean isPretty(RoutingContext rc) {
+        List<String> pretty = rc.queryParam("pretty");
+        return pretty != null && !pretty.isEmpty() && Boolean.parseBoolean(pretty.get(0));
+    }
+}
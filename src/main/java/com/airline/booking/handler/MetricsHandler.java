@@ -0,0 +1,24 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/** Serves GET /metrics in the Prometheus text exposition format. */
+public class MetricsHandler implements Handler<RoutingContext> {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metrics;
+
+    public MetricsHandler(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handle(RoutingContext rc) {
+        rc.response()
+                .putHeader("Content-Type", CONTENT_TYPE)
+                .end(metrics.scrape());
+    }
+}
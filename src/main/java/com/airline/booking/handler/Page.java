@@ -0,0 +1,67 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.repository.Keyset;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.HttpException;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset page requested with {@code ?after=<id>&limit=<n>}: rows with an id greater than
+ * {@code after}, ordered by id. When a page comes back full, the id to continue from is
+ * returned in the {@code X-Next-After} header.
+ */
+record Page(long after, int limit) {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final String NEXT_HEADER = "X-Next-After";
+
+    /** Returns null when the request asked for neither parameter, i.e. the full unpaginated list. */
+    static Page from(RoutingContext rc) {
+        String after = first(rc.queryParam("after"));
+        String limit = first(rc.queryParam("limit"));
+        if (after == null && limit == null) {
+            return null;
+        }
+
+        try {
+            long afterId = after != null ? Long.parseLong(after) : 0L;
+            int size = limit != null ? Integer.parseInt(limit) : DEFAULT_LIMIT;
+            if (afterId < 0 || size <= 0 || size > MAX_LIMIT) {
+                throw new HttpException(400, "'after' must be >= 0 and 'limit' between 1 and " + MAX_LIMIT);
+            }
+            return new Page(afterId, size);
+        } catch (NumberFormatException e) {
+            throw new HttpException(400, "Invalid pagination parameters: 'after' and 'limit' must be numbers");
+        }
+    }
+
+    static boolean streaming(RoutingContext rc) {
+        return Boolean.parseBoolean(first(rc.queryParam("stream")));
+    }
+
+    Keyset keyset() {
+        return new Keyset(after, limit);
+    }
+
+    /** Applies the page to an in-memory list, e.g. results served from an index instead of SQL. */
+    <T> List<T> slice(List<T> items, ToLongFunction<T> id) {
+        return items.stream()
+                .filter(item -> id.applyAsLong(item) > after)
+                .sorted((a, b) -> Long.compare(id.applyAsLong(a), id.applyAsLong(b)))
+                .limit(limit)
+                .toList();
+    }
+
+    <T> void markNext(RoutingContext rc, List<T> page, ToLongFunction<T> id) {
+        if (page.size() == limit) {
+            rc.response().putHeader(NEXT_HEADER, Long.toString(id.applyAsLong(page.get(page.size() - 1))));
+        }
+    }
+
+    private static String first(List<String> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -4,15 +4,10 @@
   import org.slf4j.LoggerFactory;
   import com.airline.booking.model.Passenger;
   import com.airline.booking.service.DatabaseService;
-  import io.vertx.core.Future;
-  import io.vertx.core.json.Json;
+  import com.airline.booking.service.PassengerIdentityIndex;
   import io.vertx.core.json.JsonObject;
   import io.vertx.ext.web.RoutingContext;
   import io.vertx.ext.web.handler.HttpException;
-  import io.vertx.sqlclient.Tuple;
-
-  import java.util.ArrayList;
-  import java.util.List;
 
   public class PassengerHandler {
 
@@ -39,38 +34,24 @@
       String firstName = parts[0];
       String lastName = (parts.length > 1) ? parts[1] : "";
 
-      dbService.getPool().preparedQuery("SELECT id FROM Passengers WHERE passport_number = ?")
-              .execute(Tuple.of(passport))
-              .compose(rows -> {
-                if (rows.iterator().hasNext()) {
-                  return Future.failedFuture(new HttpException(409, "Passenger with this passport already exists."));
-                }
-                String sql = "INSERT INTO Passengers (first_name, last_name, email, passport_number) VALUES (?, ?, ?, ?)";
-                return dbService.getPool().preparedQuery(sql)
-                        .execute(Tuple.of(firstName, lastName, email, passport));
-              })
-              .compose(result -> {
-                // TIGHTENED: Safe extraction of generated key
-                try {
-                  Long generatedId = result.property(io.vertx.jdbcclient.JDBCPool.GENERATED_KEYS).getLong(0);
-                  return dbService.getPool().preparedQuery("SELECT * FROM Passengers WHERE id = ?")
-                          .execute(Tuple.of(generatedId));
-                } catch (Exception e) {
-                  return Future.failedFuture(new HttpException(500, "Failed to retrieve saved passenger record."));
-                }
-              })
-              .map(rows -> rows.iterator().hasNext() ? Passenger.fromRow(rows.iterator().next()) : null)
+      // Duplicate check and insert are one atomic step in the identity index
+      dbService.passengerIdentities().register(firstName, lastName, email, passport)
               .onSuccess(p -> {
                 if (p == null) {
                   log.error("Passenger record not found after save.");
                   rc.fail(new HttpException(500, "Passenger record not found after save."));
                 }else {
-                  log.info("Successfully added new passenger: {} {} (ID: {})",
+                  log.debug("Successfully added new passenger: {} {} (ID: {})",
                           p.firstName(), p.lastName(), p.id());
-                  rc.response().setStatusCode(201).putHeader("Content-Type", "application/json")
-                          .end(Json.encodePrettily(p));
+                  JsonResponse.created(rc, p);
                 }})
-              .onFailure(rc::fail);
+              .onFailure(err -> {
+                if (err instanceof PassengerIdentityIndex.DuplicateIdentityException duplicate) {
+                  rc.fail(new HttpException(409, duplicate.getMessage()));
+                } else {
+                  rc.fail(err);
+                }
+              });
     }
 
     public void searchPassengers(RoutingContext rc) {
@@ -83,33 +64,18 @@
         return;
       }
 
-      StringBuilder sql = new StringBuilder("SELECT * FROM Passengers WHERE 1=1");
-      List<Object> paramsList = new ArrayList<>();
-
-      if (passport != null && !passport.isBlank()) {
-        sql.append(" AND passport_number = ?");
-        paramsList.add(passport.trim());
-      }
-      if (email != null && !email.isBlank()) {
-        sql.append(" AND email = ?");
-        paramsList.add(email.trim());
-      }
+      String byPassport = passport != null && !passport.isBlank() ? passport.trim() : null;
+      String byEmail = email != null && !email.isBlank() ? email.trim() : null;
 
-      dbService.getPool().preparedQuery(sql.toString())
-              .execute(Tuple.from(paramsList))
-              .map(rows -> {
-                List<Passenger> list = new ArrayList<>();
-                rows.forEach(row -> list.add(Passenger.fromRow(row)));
-                return list;
-              })
+      dbService.passengerIdentities().search(byPassport, byEmail)
               .onSuccess(list -> {
-                log.info("Passenger search successful. Found {} results.", list.size());
-                rc.response().putHeader("Content-Type", "application/json").end(Json.encodePrettily(list));
+                log.debug("Passenger search successful. Found {} results.", list.size());
+                JsonResponse.ok(rc, list);
               })
               .onFailure(err -> {
                 log.error("Passenger search failed", err);
-                log.error("Passenger search failed for query: {}", sql, err);
-                rc.fail(new HttpException(500, "Internal error during passenger search."));
+                log.error("Passenger search failed for passport={} email={}", byPassport, byEmail, err);
+                rc.fail(GlobalFailureHandler.internalError(err, "Internal error during passenger search."));
               });
     }
 
@@ -0,0 +1,111 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.repository.Cursor;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams a result as a chunked JSON array ({@code ?stream=true}). Rows are pulled from a repository
+ * {@link Cursor} {@value #FETCH_SIZE} at a time and written as they arrive; the next chunk is only read
+ * once the response write queue has drained, so a slow client never makes the whole result set pile up
+ * in memory.
+ */
+final class RowStreamWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(com.airline.booking.handler.RowStreamWriter.class);
+    private static final int FETCH_SIZE = 128;
+
+    private RowStreamWriter() {
+    }
+
+    static <T> void writeArray(RoutingContext rc, Future<Cursor<T>> opened, String errorMessage) {
+        opened
+                .onFailure(err -> {
+                    log.error("Could not open a cursor for streaming: {}", err.getMessage());
+                    rc.fail(GlobalFailureHandler.internalError(err, errorMessage));
+                })
+                .onSuccess(cursor -> new Pump<>(rc, cursor, errorMessage).start());
+    }
+
+    private static final class Pump<T> {
+
+        private final RoutingContext rc;
+        private final HttpServerResponse response;
+        private final Cursor<T> cursor;
+        private final String errorMessage;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean first = true;
+
+        Pump(RoutingContext rc, Cursor<T> cursor, String errorMessage) {
+            this.rc = rc;
+            this.response = rc.response();
+            this.cursor = cursor;
+            this.errorMessage = errorMessage;
+        }
+
+        void start() {
+            response.setChunked(true).putHeader("Content-Type", "application/json");
+            response.closeHandler(v -> release());
+            next();
+        }
+
+        private void next() {
+            if (closed.get()) {
+                return;
+            }
+            cursor.read(FETCH_SIZE).onComplete(ar -> {
+                if (ar.failed()) {
+                    fail(ar.cause());
+                } else {
+                    write(ar.result());
+                }
+            });
+        }
+
+        private void write(List<T> items) {
+            if (closed.get()) {
+                return;
+            }
+            if (!items.isEmpty()) {
+                Buffer chunk = Buffer.buffer();
+                for (T item : items) {
+                    chunk.appendString(first ? "[" : ",").appendBuffer(JsonResponse.encode(item, false));
+                    first = false;
+                }
+                response.write(chunk);
+            }
+            if (!cursor.hasMore()) {
+                release();
+                response.end(first ? "[]" : "]");
+            } else if (response.writeQueueFull()) {
+                response.drainHandler(drained -> next());
+            } else {
+                next();
+            }
+        }
+
+        private void fail(Throwable err) {
+            log.error("Streaming query failed: {}", err.getMessage());
+            release();
+            if (!response.headWritten()) {
+                rc.fail(GlobalFailureHandler.internalError(err, errorMessage));
+            } else {
+                // Half the array is already on the wire, so the only honest signal left is a broken response
+                response.reset();
+            }
+        }
+
+        private void release() {
+            if (closed.compareAndSet(false, true)) {
+                cursor.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Structured access log that keeps formatting and file I/O off the event loop. Request threads only
+ * copy a fixed-shape entry (route, status, latency, DB time) into a preallocated ring of slots; a
+ * single background thread drains the ring and writes one line per entry to the
+ * {@code com.airline.booking.metrics.AccessLog} logger (its own file in logback.xml).
+ *
+ * Successful requests are sampled per route; 4xx/5xx are always recorded. When the writer falls a
+ * whole ring behind, new entries are dropped and counted rather than blocking a request.
+ *
+ * The ring is a bounded multi-producer queue in the style of Vyukov's: each slot carries a sequence
+ * number that tells producers whether it is free and the writer whether it is published.
+ */
+public final class AccessLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(com.airline.booking.metrics.AccessLog.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final class Slot {
+        volatile long sequence;
+        long epochMillis;
+        String method;
+        String route;
+        int status;
+        long latencyNanos;
+        long dbNanos;
+    }
+
+    private final boolean enabled;
+    private final double defaultSampleRate;
+    private final Map<String, Double> routeSampleRates;
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    // Only the writer thread reads and advances the tail
+    private long tail;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private Thread writer;
+    private volatile boolean running = true;
+
+    /** Without a writer thread; {@link #fromConfig} starts one, tests call {@link #drain} themselves. */
+    AccessLog(boolean enabled, int capacity, double defaultSampleRate, Map<String, Double> routeSampleRates) {
+        this.enabled = enabled;
+        this.defaultSampleRate = defaultSampleRate;
+        this.routeSampleRates = routeSampleRates;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+            ring[i].sequence = i;
+        }
+    }
+
+    private AccessLog start() {
+        if (enabled) {
+            writer = new Thread(this::drainLoop, "access-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        return this;
+    }
+
+    /**
+     * Reads ACCESS_LOG_ENABLED, ACCESS_LOG_BUFFER_SIZE, ACCESS_LOG_SAMPLE_RATE and
+     * ACCESS_LOG_ROUTE_SAMPLE_RATES (e.g. {@code {"GET /flights/search": 0.05}}).
+     */
+    public static AccessLog fromConfig(JsonObject config) {
+        Map<String, Double> routeRates = new HashMap<>();
+        config.getJsonObject("ACCESS_LOG_ROUTE_SAMPLE_RATES", new JsonObject())
+                .forEach(entry -> routeRates.put(entry.getKey(), ((Number) entry.getValue()).doubleValue()));
+        return new AccessLog(
+                config.getBoolean("ACCESS_LOG_ENABLED", true),
+                config.getInteger("ACCESS_LOG_BUFFER_SIZE", 8192),
+                config.getDouble("ACCESS_LOG_SAMPLE_RATE", 1.0),
+                routeRates).start();
+    }
+
+    /** Sampling rate for successful requests on {@code "METHOD /route"}. */
+    double sampleRate(String routeKey) {
+        return routeSampleRates.getOrDefault(routeKey, defaultSampleRate);
+    }
+
+    /** Called on the event loop when a response ends; never blocks and never formats. */
+    void record(String method, String route, int status, long latencyNanos, long dbNanos, double sampleRate) {
+        if (!enabled) {
+            return;
+        }
+        if (status < 400 && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+
+        Slot slot;
+        long position;
+        while (true) {
+            position = head.get();
+            slot = ring[(int) (position & mask)];
+            long lag = slot.sequence - position;
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // The writer has not freed this slot yet: the ring is full
+                dropped.increment();
+                return;
+            }
+        }
+        slot.epochMillis = System.currentTimeMillis();
+        slot.method = method;
+        slot.route = route;
+        slot.status = status;
+        slot.latencyNanos = latencyNanos;
+        slot.dbNanos = dbNanos;
+        slot.sequence = position + 1;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(160);
+        while (running) {
+            if (drain(line) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain(line);
+    }
+
+    /** Writes every published entry; returns how many there were. */
+    int drain(StringBuilder line) {
+        return drain(line, entry -> log.info(entry));
+    }
+
+    int drain(StringBuilder line, Consumer<String> sink) {
+        int written = 0;
+        while (true) {
+            Slot slot = ring[(int) (tail & mask)];
+            if (slot.sequence != tail + 1) {
+                return written;
+            }
+            line.setLength(0);
+            line.append(Instant.ofEpochMilli(slot.epochMillis))
+                    .append(' ').append(slot.method)
+                    .append(' ').append(slot.route)
+                    .append(" status=").append(slot.status)
+                    .append(" latency_ms=").append(millis(slot.latencyNanos))
+                    .append(" db_ms=").append(millis(slot.dbNanos));
+            slot.method = null;
+            slot.route = null;
+            slot.sequence = tail + ring.length;
+            tail++;
+            written++;
+            sink.accept(line.toString());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
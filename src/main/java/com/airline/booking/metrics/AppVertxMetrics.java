@@ -0,0 +1,25 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+
+/** Vert.x metrics SPI hook; only SQL pools are instrumented, everything else keeps the no-op defaults. */
+public class AppVertxMetrics implements VertxMetrics {
+
+    // One per Vert.x instance, so pools of the same name in another instance never overwrite these
+    private final ConnectionPoolMetrics.Pools pools = new ConnectionPoolMetrics.Pools();
+
+    @Override
+    public void vertxCreated(Vertx vertx) {
+        pools.publish(vertx);
+    }
+
+    @Override
+    public PoolMetrics<?, ?> createPoolMetrics(String poolType, String poolName, int maxPoolSize) {
+        if ("sql".equals(poolType) && poolName != null) {
+            return pools.register(poolName);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.core.spi.metrics.PoolMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vert.x pool SPI callbacks for one SQL pool: wait-queue depth, connections in use and time spent
+ * waiting for a connection. Instances are created by {@link AppVertxMetrics} when the pool is built
+ * and looked up by Vert.x instance and pool name, since the Vert.x instance exists before the
+ * DatabaseService does.
+ */
+public final class ConnectionPoolMetrics implements PoolMetrics<Long, Long> {
+
+    private static final String LOCAL_MAP = "airline.metrics";
+    private static final String POOLS_KEY = "pools";
+
+    /** The pools of one Vert.x instance, published in its local shared data by {@link AppVertxMetrics}. */
+    static final class Pools implements Shareable {
+        private final ConcurrentHashMap<String, ConnectionPoolMetrics> byName = new ConcurrentHashMap<>();
+
+        ConnectionPoolMetrics register(String name) {
+            ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(this, name);
+            byName.put(name, metrics);
+            return metrics;
+        }
+
+        void publish(Vertx vertx) {
+            vertx.sharedData().getLocalMap(LOCAL_MAP).put(POOLS_KEY, this);
+        }
+    }
+
+    private final Pools owner;
+    private final String name;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+
+    private ConnectionPoolMetrics(Pools owner, String name) {
+        this.owner = owner;
+        this.name = name;
+    }
+
+    /** Returns null when the Vert.x instance was started without metrics (e.g. in tests). */
+    public static ConnectionPoolMetrics forPool(Vertx vertx, String name) {
+        Object pools = vertx.sharedData().getLocalMap(LOCAL_MAP).get(POOLS_KEY);
+        return pools instanceof Pools p ? p.byName.get(name) : null;
+    }
+
+    @Override
+    public Long enqueue() {
+        queued.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void dequeue(Long enqueuedAt) {
+        queued.decrementAndGet();
+        waitTime.recordNanos(System.nanoTime() - enqueuedAt);
+    }
+
+    @Override
+    public Long begin() {
+        inUse.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void end(Long ignored) {
+        inUse.decrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        owner.byName.remove(name, this);
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public int inUse() {
+        return inUse.get();
+    }
+
+    public LatencyHistogram waitTime() {
+        return waitTime;
+    }
+}
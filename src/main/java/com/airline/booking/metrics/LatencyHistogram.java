@@ -0,0 +1,130 @@
+package com.airline.booking.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, HDR-style latency histogram in microseconds: linear buckets below 16us, then
+ * eight sub-buckets per power of two (~12% relative precision) up to several days.
+ * {@link #record} only touches preallocated atomics, so it never allocates.
+ *
+ * The Prometheus {@code le} buckets in {@link #EXPORT_BOUNDS_SECONDS} are counted separately and
+ * exactly, against the nanosecond value, since they do not line up with the HDR bucket edges.
+ */
+public final class LatencyHistogram {
+
+    /** Upper bounds, inclusive, of the exported cumulative buckets. */
+    static final double[] EXPORT_BOUNDS_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] EXPORT_BOUNDS_NANOS = new long[EXPORT_BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < EXPORT_BOUNDS_SECONDS.length; i++) {
+            EXPORT_BOUNDS_NANOS[i] = Math.round(EXPORT_BOUNDS_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    private static final int LINEAR = 16;
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = LINEAR + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    // Non-cumulative; the last slot holds samples above every export bound
+    private final AtomicLongArray exported = new AtomicLongArray(EXPORT_BOUNDS_NANOS.length + 1);
+
+    public void recordNanos(long nanos) {
+        long value = Math.max(0, nanos);
+        exported.incrementAndGet(exportIndexOf(value));
+        record(value / 1_000);
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        exported.incrementAndGet(exportIndexOf(value * 1_000));
+        record(value);
+    }
+
+    private void record(long micros) {
+        counts.incrementAndGet(indexOf(micros));
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long sumMicros() {
+        return sumMicros.get();
+    }
+
+    /** Exact number of samples at or below {@code EXPORT_BOUNDS_SECONDS[bound]}. */
+    public long countAtOrBelowExportBound(int bound) {
+        long total = 0;
+        for (int i = 0; i <= bound; i++) {
+            total += exported.get(i);
+        }
+        return total;
+    }
+
+    /** Number of samples at or below the given bound, resolved to bucket precision. */
+    public long countAtOrBelow(long micros) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= micros + 1; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /** Upper bound (in microseconds) of the bucket holding the given percentile, 0 when empty. */
+    public long percentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i) - 1;
+            }
+        }
+        return upperBound(BUCKETS - 1) - 1;
+    }
+
+    private static int exportIndexOf(long nanos) {
+        int i = 0;
+        while (i < EXPORT_BOUNDS_NANOS.length && nanos > EXPORT_BOUNDS_NANOS[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /** Exclusive upper bound of a bucket, in microseconds. */
+    static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index + 1;
+        }
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,150 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry for route latency, per-query SQL timings, connection pool state and
+ * simple gauges, rendered in the Prometheus text exposition format by {@link #scrape()}.
+ */
+public class MetricsRegistry {
+
+    private record Gauge(String help, LongSupplier value) {}
+
+    private record PoolRegistration(Vertx vertx, Pool pool, int maxSize) {}
+
+    private final Map<String, RouteTimer> routes = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> queries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> queryErrors = new ConcurrentHashMap<>();
+    private final Map<String, PoolRegistration> pools = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final AccessLog accessLog;
+
+    public MetricsRegistry(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    /** Returns the shared timer for a route; every verticle instance registering the route gets the same one. */
+    public RouteTimer route(String method, String path) {
+        return routes.computeIfAbsent(method + " " + path, key -> new RouteTimer(method, path, accessLog));
+    }
+
+    /** Returns the histogram for a named query; look it up once and keep the reference on hot paths. */
+    public LatencyHistogram query(String name) {
+        LatencyHistogram histogram = queries.get(name);
+        return histogram != null ? histogram : queries.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Records how long a query issued at {@code startNanos} takes to complete under {@code queryName};
+     * failed executions are timed as well and also counted in {@code db_query_errors_total}. The time is
+     * also added to the DB time of the request whose context the query completes on, for the access log.
+     *
+     * The completion callback is the only allocation; recording itself only touches preallocated atomics.
+     */
+    public <T> Future<T> timed(String queryName, long startNanos, Future<T> query) {
+        LatencyHistogram histogram = query(queryName);
+        return query.andThen(ar -> {
+            long nanos = System.nanoTime() - startNanos;
+            histogram.recordNanos(nanos);
+            RequestTiming.addDb(nanos);
+            if (ar.failed()) {
+                queryErrors.computeIfAbsent(queryName, key -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    public AccessLog accessLog() {
+        return accessLog;
+    }
+
+    /** Registers a pool built on {@code vertx}, whose metrics SPI (if any) reports the pool's live state. */
+    public void registerPool(Vertx vertx, String name, Pool pool, int maxSize) {
+        pools.put(name, new PoolRegistration(vertx, pool, maxSize));
+    }
+
+    public void gauge(String name, String help, LongSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "http_server_requests_seconds", "histogram", "HTTP request latency per route and status");
+        for (RouteTimer timer : routes.values()) {
+            for (int status = 0; status < RouteTimer.statuses(); status++) {
+                LatencyHistogram histogram = timer.histogram(status);
+                if (histogram != null) {
+                    histogram(out, "http_server_requests_seconds", "method=\"" + timer.method()
+                            + "\",route=\"" + timer.route() + "\",status=\"" + status + "\"", histogram);
+                }
+            }
+        }
+
+        header(out, "db_query_seconds", "histogram", "SQL execution time per named query");
+        queries.forEach((name, histogram) ->
+                histogram(out, "db_query_seconds", "query=\"" + name + "\"", histogram));
+
+        header(out, "db_query_errors_total", "counter", "Failed SQL executions per named query");
+        queryErrors.forEach((name, errors) ->
+                sample(out, "db_query_errors_total", "query=\"" + name + "\"", errors.sum()));
+
+        header(out, "db_pool_connections", "gauge", "Connections per pool by state");
+        header(out, "db_pool_max_connections", "gauge", "Configured maximum pool size");
+        header(out, "db_pool_wait_queue_depth", "gauge", "Requests waiting for a connection");
+        header(out, "db_pool_wait_seconds", "histogram", "Time spent waiting for a connection");
+        pools.forEach((name, registration) -> {
+            String label = "pool=\"" + name + "\"";
+            int size = registration.pool().size();
+            ConnectionPoolMetrics stats = ConnectionPoolMetrics.forPool(registration.vertx(), name);
+            sample(out, "db_pool_max_connections", label, registration.maxSize());
+            if (stats != null) {
+                int active = stats.inUse();
+                sample(out, "db_pool_connections", label + ",state=\"active\"", active);
+                sample(out, "db_pool_connections", label + ",state=\"idle\"", Math.max(0, size - active));
+                sample(out, "db_pool_wait_queue_depth", label, stats.queued());
+                histogram(out, "db_pool_wait_seconds", label, stats.waitTime());
+            } else {
+                sample(out, "db_pool_connections", label + ",state=\"open\"", size);
+            }
+        });
+
+        gauges.forEach((name, gauge) -> {
+            header(out, name, "gauge", gauge.help());
+            sample(out, name, null, gauge.value().getAsLong());
+        });
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        double[] bounds = LatencyHistogram.EXPORT_BOUNDS_SECONDS;
+        for (int i = 0; i < bounds.length; i++) {
+            out.append(name).append("_bucket{").append(labels).append(",le=\"").append(bounds[i]).append("\"} ")
+                    .append(histogram.countAtOrBelowExportBound(i)).append('\n');
+        }
+        long count = histogram.count();
+        out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum{").append(labels).append("} ")
+                .append(histogram.sumMicros() / 1_000_000.0).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+}
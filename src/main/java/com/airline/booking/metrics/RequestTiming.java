@@ -0,0 +1,79 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.ArrayDeque;
+
+/**
+ * Timing of one request on a {@link RouteTimer} route: its start, the time spent in SQL and the end
+ * handler that records both. Kept in the data of the request's (duplicated) context, through the
+ * public {@link Context#put} API, so that {@link MetricsRegistry#timed} can add to it without the
+ * repositories knowing about requests.
+ *
+ * Finished timings are recycled through a small per-thread free list, so once warm a timed request
+ * allocates nothing here. The context entry is dropped when the response ends, so a query completing
+ * after that is not attributed to whichever request reuses the object. Only touched from the request's
+ * event loop, so plain fields are enough.
+ */
+final class RequestTiming implements Handler<AsyncResult<Void>> {
+
+    private static final int MAX_FREE = 256;
+    // Identity key in the context data; private, so nothing else can collide with it
+    private static final Object KEY = new Object();
+    private static final ThreadLocal<ArrayDeque<RequestTiming>> FREE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private RouteTimer timer;
+    private RoutingContext rc;
+    private Context context;
+    private long start;
+    private long dbNanos;
+
+    /** Starts timing the request; {@code timer} is told about it once the response has ended. */
+    static void begin(RouteTimer timer, RoutingContext rc) {
+        RequestTiming timing = FREE.get().poll();
+        if (timing == null) {
+            timing = new RequestTiming();
+        }
+        timing.timer = timer;
+        timing.rc = rc;
+        timing.start = System.nanoTime();
+        timing.dbNanos = 0;
+        Context context = Vertx.currentContext();
+        if (context != null) {
+            timing.context = context;
+            context.put(KEY, timing);
+        }
+        rc.addEndHandler(timing);
+    }
+
+    /** Adds SQL time to the request being handled on this thread, if any. */
+    static void addDb(long nanos) {
+        Context context = Vertx.currentContext();
+        if (context != null) {
+            RequestTiming timing = context.get(KEY);
+            if (timing != null) {
+                timing.dbNanos += nanos;
+            }
+        }
+    }
+
+    @Override
+    public void handle(AsyncResult<Void> ended) {
+        if (context != null) {
+            context.remove(KEY);
+        }
+        timer.finished(rc.response().getStatusCode(), System.nanoTime() - start, dbNanos);
+
+        timer = null;
+        rc = null;
+        context = null;
+        ArrayDeque<RequestTiming> free = FREE.get();
+        if (free.size() < MAX_FREE) {
+            free.push(this);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Route-level handler that times the request until the response ends, with one histogram per
+ * status code. Histograms are created the first time a status is seen and reused afterwards.
+ * Per-request state lives in a recycled {@link RequestTiming}, so timing a warm route adds no allocation of its own.
+ * Each finished request is also handed to the {@link AccessLog}, with the SQL time it accumulated.
+ */
+public final class RouteTimer implements Handler<RoutingContext> {
+
+    private static final int STATUSES = 600;
+
+    private final String method;
+    private final String route;
+    private final AtomicReferenceArray<LatencyHistogram> byStatus = new AtomicReferenceArray<>(STATUSES);
+    private final AccessLog accessLog;
+    private final double sampleRate;
+
+    RouteTimer(String method, String route, AccessLog accessLog) {
+        this.method = method;
+        this.route = route;
+        this.accessLog = accessLog;
+        this.sampleRate = accessLog.sampleRate(method + " " + route);
+    }
+
+    @Override
+    public void handle(RoutingContext rc) {
+        RequestTiming.begin(this, rc);
+        rc.next();
+    }
+
+    /** Called by the request's {@link RequestTiming} once the response has ended. */
+    void finished(int status, long nanos, long dbNanos) {
+        record(status, nanos);
+        accessLog.record(method, route, status, nanos, dbNanos, sampleRate);
+    }
+
+    void record(int status, long nanos) {
+        int slot = status >= 0 && status < STATUSES ? status : 0;
+        LatencyHistogram histogram = byStatus.get(slot);
+        if (histogram == null) {
+            byStatus.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = byStatus.get(slot);
+        }
+        histogram.recordNanos(nanos);
+    }
+
+    String method() {
+        return method;
+    }
+
+    String route() {
+        return route;
+    }
+
+    LatencyHistogram histogram(int status) {
+        return byStatus.get(status);
+    }
+
+    static int statuses() {
+        return STATUSES;
+    }
+}
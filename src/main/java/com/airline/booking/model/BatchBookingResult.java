@@ -0,0 +1,22 @@
+package com.airline.booking.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a group booking. The batch is all-or-nothing, so either every item is
+ * {@code CONFIRMED} or none were written and the item statuses explain which ones blocked it.
+ */
+public record BatchBookingResult(
+        Long flightId,
+        String status,
+        List<Item> items
+) {
+  public record Item(
+          int index,
+          Long passengerId,
+          String seatNumber,
+          String status,
+          Booking booking
+  ) {
+  }
+}
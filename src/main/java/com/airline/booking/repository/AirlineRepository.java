@@ -0,0 +1,21 @@
+package com.airline.booking.repository;
+
+import com.airline.booking.model.Airline;
+import io.vertx.core.Future;
+
+import java.util.List;
+
+public interface AirlineRepository {
+
+  /** Stores the airline and returns it with its generated id; fails if the code is already taken. */
+  Future<Airline> insert(Airline airline);
+
+  /** All airlines ordered by name when {@code page} is null, otherwise one keyset page ordered by id. */
+  Future<List<Airline>> list(Keyset page);
+
+  /** Same rows as {@link #list}, read incrementally. */
+  Future<Cursor<Airline>> cursor(Keyset page);
+
+  /** Case-insensitive substring match on every non-null criterion, ordered by name. */
+  Future<List<Airline>> search(Long id, String name, String code, String country);
+}
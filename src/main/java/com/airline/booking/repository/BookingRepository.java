@@ -0,0 +1,55 @@
+package com.airline.booking.repository;
+
+import com.airline.booking.model.Booking;
+import io.vertx.core.Future;
+
+import java.util.List;
+
+/**
+ * Bookings and the seat counter they consume. Writes take the seats off {@code flights} in the same
+ * unit of work, guarded so the counter never goes negative.
+ */
+public interface BookingRepository {
+
+  /** Raised when the passenger or the seat already has a confirmed booking on the flight. */
+  final class AlreadyBookedException extends RuntimeException {
+    public AlreadyBookedException(long flightId) {
+      super("Passenger or seat already booked on flight " + flightId, null, false, false);
+    }
+  }
+
+  /**
+   * Books one seat; completes with null (and changes nothing) when the flight has no seats left, and
+   * fails on the bookings-to-passengers foreign key when the passenger does not exist, or with
+   * {@link AlreadyBookedException} when the passenger or seat is already confirmed on the flight.
+   */
+  Future<Booking> insert(NewBooking booking);
+
+  /**
+   * Books every entry on one flight, all or nothing. Completes with the bookings in input order,
+   * or with null (and changes nothing) when the flight has fewer seats left than entries. Fails like
+   * {@link #insert} when any entry is already booked.
+   */
+  Future<List<Booking>> insertAll(long flightId, List<NewBooking> bookings);
+
+  /** Cancels a confirmed booking and returns its seat; completes with null if there was nothing to cancel. */
+  Future<Booking> cancel(long id);
+
+  /** Completes with null when the booking does not exist. */
+  Future<Booking> findById(long id);
+
+  /** A passenger's bookings, optionally as a keyset page. */
+  Future<List<Booking>> findByPassenger(long passengerId, Keyset page);
+
+  /** Same rows as {@link #findByPassenger}, read incrementally. */
+  Future<Cursor<Booking>> cursorByPassenger(long passengerId, Keyset page);
+
+  /**
+   * Reserves the next block of booking reference numbers. Block ids never repeat for the lifetime of
+   * the store, including across restarts for persistent storage.
+   */
+  Future<Long> nextReferenceBlock();
+
+  /** Confirmed bookings on a flight, used to rebuild its seat inventory. */
+  Future<List<Booking>> confirmedForFlight(long flightId);
+}
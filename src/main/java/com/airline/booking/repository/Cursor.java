@@ -0,0 +1,18 @@
+package com.airline.booking.repository;
+
+import io.vertx.core.Future;
+
+import java.util.List;
+
+/**
+ * Pull-based result stream for large reads. Callers read chunks until {@link #hasMore()} is false and
+ * must always {@link #close()} it, since a backend may hold a connection open for the duration.
+ */
+public interface Cursor<T> {
+
+  Future<List<T>> read(int count);
+
+  boolean hasMore();
+
+  Future<Void> close();
+}
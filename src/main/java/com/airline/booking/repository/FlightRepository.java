@@ -0,0 +1,41 @@
+package com.airline.booking.repository;
+
+import com.airline.booking.model.Flight;
+import io.vertx.core.Future;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FlightRepository {
+
+  /** Stores the flight and returns it as read back; fails on an unknown airline or a duplicate unique_flight. */
+  Future<Flight> insert(NewFlight flight);
+
+  /**
+   * Stores all flights atomically and completes with the number inserted. If any row is rejected
+   * nothing is stored, so callers can retry row by row to find the culprit.
+   */
+  Future<Integer> insertAll(List<NewFlight> flights);
+
+  /**
+   * Completes with null when the flight does not exist. Always sees the latest commit, since the
+   * insert read-back and the seat inventory are built on it.
+   */
+  Future<Flight> findById(long id);
+
+  /** Flights on the route departing on the given date, ordered by departure time. */
+  Future<List<Flight>> findByRoute(String from, String to, LocalDate departureDate);
+
+  /** Flights on the route departing on or after {@code firstDay} and before {@code endDay}, ordered by departure time. */
+  Future<List<Flight>> findByRoute(String from, String to, LocalDate firstDay, LocalDate endDay);
+
+  /** Flights on every route departing on or after {@code start} and before {@code end}, ordered by departure time. */
+  Future<List<Flight>> departingBetween(LocalDateTime start, LocalDateTime end);
+
+  /** Flights on the route, optionally arriving on {@code arrivalDate}, optionally as a keyset page. */
+  Future<List<Flight>> search(String from, String to, LocalDate arrivalDate, Keyset page);
+
+  /** Same rows as {@link #search}, read incrementally. */
+  Future<Cursor<Flight>> cursor(String from, String to, LocalDate arrivalDate, Keyset page);
+}
@@ -0,0 +1,5 @@
+package com.airline.booking.repository;
+
+/** A keyset page: rows with an id greater than {@code after}, ordered by id, at most {@code limit} of them. */
+public record Keyset(long after, int limit) {
+}
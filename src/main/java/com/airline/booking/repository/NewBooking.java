@@ -0,0 +1,11 @@
+package com.airline.booking.repository;
+
+/** A confirmed booking to insert; the id is assigned by the store. */
+public record NewBooking(
+        String bookingReference,
+        long passengerId,
+        long flightId,
+        String seatNumber,
+        double price
+) {
+}
@@ -0,0 +1,17 @@
+package com.airline.booking.repository;
+
+import java.time.LocalDateTime;
+
+/** A flight to insert; the id is assigned by the store. */
+public record NewFlight(
+        String flightNumber,
+        long airlineId,
+        String from,
+        String to,
+        LocalDateTime departure,
+        LocalDateTime arrival,
+        int seatsAvailable,
+        int totalSeats,
+        double price
+) {
+}
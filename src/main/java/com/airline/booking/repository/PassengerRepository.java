@@ -0,0 +1,23 @@
+package com.airline.booking.repository;
+
+import com.airline.booking.model.Passenger;
+import io.vertx.core.Future;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface PassengerRepository {
+
+  /** Stores the passenger and returns it with its generated id; fails if the email is already taken. */
+  Future<Passenger> insert(String firstName, String lastName, String email, String passportNumber);
+
+  /** Completes with null when the passenger does not exist. */
+  Future<Passenger> findById(long id);
+
+  /** Every passenger ordered by id, for warming in-memory indexes. */
+  Future<List<Passenger>> all();
+
+  /** The subset of {@code ids} that belong to existing passengers. */
+  Future<Set<Long>> existing(Collection<Long> ids);
+}
@@ -0,0 +1,59 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.model.Airline;
+import com.airline.booking.repository.AirlineRepository;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.Keyset;
+import io.vertx.core.Future;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.airline.booking.repository.jdbc.SqlStatement.*;
+
+public class JdbcAirlineRepository extends JdbcRepository implements AirlineRepository {
+
+  public JdbcAirlineRepository(Pool writePool, Pool primaryReadPool, Pool readPool, MetricsRegistry metrics) {
+    super(writePool, primaryReadPool, readPool, metrics);
+  }
+
+  @Override
+  public Future<Airline> insert(Airline airline) {
+    return execute(AIRLINE_INSERT, Tuple.of(airline.name(), airline.code(), airline.country()))
+            .map(rows -> new Airline(rows.property(JDBCPool.GENERATED_KEYS).getLong(0),
+                    airline.name(), airline.code(), airline.country()));
+  }
+
+  @Override
+  public Future<List<Airline>> list(Keyset page) {
+    return page == null
+            ? list(AIRLINE_LIST, Tuple.tuple(), Airline::fromRow)
+            : list(AIRLINE_LIST_PAGE, Tuple.of(page.after(), page.limit()), Airline::fromRow);
+  }
+
+  @Override
+  public Future<Cursor<Airline>> cursor(Keyset page) {
+    return page == null
+            ? cursor(AIRLINE_LIST, Tuple.tuple(), Airline::fromRow)
+            : cursor(AIRLINE_LIST_PAGE, Tuple.of(page.after(), page.limit()), Airline::fromRow);
+  }
+
+  @Override
+  public Future<List<Airline>> search(Long id, String name, String code, String country) {
+    Tuple params = Tuple.of(
+            id != null ? id : Long.MIN_VALUE,
+            id != null ? id : Long.MAX_VALUE,
+            like(name),
+            like(code),
+            like(country));
+    return list(AIRLINE_SEARCH, params, Airline::fromRow);
+  }
+
+  private static String like(String fragment) {
+    return fragment == null ? "%" : "%" + fragment.toLowerCase(Locale.ROOT) + "%";
+  }
+}
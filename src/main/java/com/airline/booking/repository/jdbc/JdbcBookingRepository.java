@@ -0,0 +1,133 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.model.Booking;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.Keyset;
+import com.airline.booking.repository.NewBooking;
+import io.vertx.core.Future;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.airline.booking.repository.jdbc.SqlStatement.*;
+
+public class JdbcBookingRepository extends JdbcRepository implements BookingRepository {
+
+  public JdbcBookingRepository(Pool writePool, Pool primaryReadPool, Pool readPool, MetricsRegistry metrics) {
+    super(writePool, primaryReadPool, readPool, metrics);
+  }
+
+  @Override
+  public Future<Booking> insert(NewBooking booking) {
+    return writePool.withTransaction(conn ->
+            // Guarded in case the row was changed outside this service
+            execute(conn, BOOKING_DECREMENT_SEATS, Tuple.of(1, booking.flightId(), 1))
+                    .compose(updated -> {
+                      if (updated.rowCount() == 0) {
+                        return Future.succeededFuture(null);
+                      }
+                      return execute(conn, BOOKING_INSERT, params(booking))
+                              .compose(rows -> rows.rowCount() == 0
+                                      // Failing rolls the seat back with the rest of the transaction
+                                      ? Future.failedFuture(new AlreadyBookedException(booking.flightId()))
+                                      : Future.succeededFuture(rows))
+                              .map(rows -> new Booking(rows.property(JDBCPool.GENERATED_KEYS).getLong(0),
+                                      booking.bookingReference(), booking.passengerId(), booking.flightId(),
+                                      booking.seatNumber(), "CONFIRMED", booking.price()));
+                    }));
+  }
+
+  @Override
+  public Future<List<Booking>> insertAll(long flightId, List<NewBooking> bookings) {
+    int count = bookings.size();
+    List<Tuple> inserts = new ArrayList<>(count);
+    String[] refs = new String[count];
+    for (int i = 0; i < count; i++) {
+      inserts.add(params(bookings.get(i)));
+      refs[i] = bookings.get(i).bookingReference();
+    }
+
+    return writePool.withTransaction(conn ->
+            // Reserve the whole group with one UPDATE
+            execute(conn, BOOKING_BATCH_DECREMENT_SEATS, Tuple.of(count, flightId, count))
+                    .compose(updated -> {
+                      if (updated.rowCount() == 0) {
+                        return Future.succeededFuture(null);
+                      }
+                      return executeBatch(conn, BOOKING_BATCH_INSERT, inserts)
+                              // Read the generated ids back by reference
+                              .compose(inserted -> execute(conn, BOOKING_BY_REFERENCES, Tuple.of((Object) refs)))
+                              .compose(rows -> rows.size() < count
+                                      ? Future.failedFuture(new AlreadyBookedException(flightId))
+                                      : Future.succeededFuture(rows))
+                              .map(rows -> {
+                                Map<String, Booking> byRef = new HashMap<>();
+                                rows.forEach(row -> {
+                                  Booking booking = Booking.fromRow(row);
+                                  byRef.put(booking.bookingReference(), booking);
+                                });
+                                List<Booking> ordered = new ArrayList<>(count);
+                                bookings.forEach(booking -> ordered.add(byRef.get(booking.bookingReference())));
+                                return ordered;
+                              });
+                    }));
+  }
+
+  @Override
+  public Future<Booking> cancel(long id) {
+    return writePool.withTransaction(conn ->
+            execute(conn, BOOKING_LOAD_CANCEL, Tuple.of(id))
+                    .compose(rows -> {
+                      if (!rows.iterator().hasNext()) {
+                        return Future.succeededFuture(null);
+                      }
+                      Booking booking = Booking.fromRow(rows.iterator().next());
+                      return execute(conn, BOOKING_CANCEL, Tuple.of(id))
+                              .compose(v -> execute(conn, BOOKING_INCREMENT_SEATS, Tuple.of(booking.flightId())))
+                              .map(v -> new Booking(booking.id(), booking.bookingReference(), booking.passengerId(),
+                                      booking.flightId(), booking.seatNumber(), "CANCELLED", booking.totalAmount()));
+                    }));
+  }
+
+  @Override
+  public Future<Booking> findById(long id) {
+    return first(BOOKING_BY_ID, Tuple.of(id), Booking::fromRow);
+  }
+
+  @Override
+  public Future<List<Booking>> findByPassenger(long passengerId, Keyset page) {
+    return page == null
+            ? list(BOOKING_BY_PASSENGER, Tuple.of(passengerId), Booking::fromRow)
+            : list(BOOKING_BY_PASSENGER_PAGE, Tuple.of(passengerId, page.after(), page.limit()), Booking::fromRow);
+  }
+
+  @Override
+  public Future<Cursor<Booking>> cursorByPassenger(long passengerId, Keyset page) {
+    return page == null
+            ? cursor(BOOKING_BY_PASSENGER, Tuple.of(passengerId), Booking::fromRow)
+            : cursor(BOOKING_BY_PASSENGER_PAGE, Tuple.of(passengerId, page.after(), page.limit()), Booking::fromRow);
+  }
+
+  @Override
+  public Future<Long> nextReferenceBlock() {
+    return execute(BOOKING_REFERENCE_BLOCK, Tuple.tuple()).map(rows -> rows.iterator().next().getLong(0));
+  }
+
+  @Override
+  public Future<List<Booking>> confirmedForFlight(long flightId) {
+    return list(INVENTORY_LOAD, Tuple.of(flightId), Booking::fromRow);
+  }
+
+  private static Tuple params(NewBooking booking) {
+    return Tuple.of(booking.bookingReference(), booking.passengerId(), booking.flightId(),
+            booking.seatNumber(), booking.price(),
+            booking.flightId(), booking.passengerId(), booking.seatNumber());
+  }
+}
@@ -0,0 +1,63 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.repository.Cursor;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Wraps a SQL cursor on a dedicated connection from one of the read pools. No transaction is begun:
+ * the query runs in autocommit like any other read, so a slow client downloading the rows holds a
+ * connection but never an open transaction. The JDBC client has no command to close a cursor part-way,
+ * so closing releases the connection, and with it whatever the cursor still held.
+ */
+final class JdbcCursor<T> implements Cursor<T> {
+
+  private final SqlConnection conn;
+  private final io.vertx.sqlclient.Cursor cursor;
+  private final Function<Row, T> mapper;
+  private boolean closed;
+
+  private JdbcCursor(SqlConnection conn, io.vertx.sqlclient.Cursor cursor, Function<Row, T> mapper) {
+    this.conn = conn;
+    this.cursor = cursor;
+    this.mapper = mapper;
+  }
+
+  static <T> Future<Cursor<T>> open(Pool pool, String sql, Tuple params, Function<Row, T> mapper) {
+    return pool.getConnection().compose(conn -> conn.prepare(sql)
+            .<Cursor<T>>map(ps -> new JdbcCursor<>(conn, ps.cursor(params), mapper))
+            .onFailure(err -> conn.close()));
+  }
+
+  @Override
+  public Future<List<T>> read(int count) {
+    return cursor.read(count).map(rows -> {
+      List<T> items = new ArrayList<>(rows.size());
+      for (Row row : rows) {
+        items.add(mapper.apply(row));
+      }
+      return items;
+    });
+  }
+
+  @Override
+  public boolean hasMore() {
+    return cursor.hasMore();
+  }
+
+  @Override
+  public Future<Void> close() {
+    if (closed) {
+      return Future.succeededFuture();
+    }
+    closed = true;
+    return conn.close();
+  }
+}
@@ -0,0 +1,104 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.FlightRepository;
+import com.airline.booking.repository.Keyset;
+import com.airline.booking.repository.NewFlight;
+import io.vertx.core.Future;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.airline.booking.repository.jdbc.SqlStatement.*;
+
+public class JdbcFlightRepository extends JdbcRepository implements FlightRepository {
+
+  // Arrival bounds used when the search has no arrival date; both fit H2's TIMESTAMP range
+  private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+  private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+  public JdbcFlightRepository(Pool writePool, Pool primaryReadPool, Pool readPool, MetricsRegistry metrics) {
+    super(writePool, primaryReadPool, readPool, metrics);
+  }
+
+  @Override
+  public Future<Flight> insert(NewFlight flight) {
+    return execute(FLIGHT_INSERT, params(flight))
+            .compose(rows -> findById(rows.property(JDBCPool.GENERATED_KEYS).getLong(0)));
+  }
+
+  @Override
+  public Future<Integer> insertAll(List<NewFlight> flights) {
+    List<Tuple> batch = new ArrayList<>(flights.size());
+    flights.forEach(flight -> batch.add(params(flight)));
+    return writePool.withTransaction(conn -> executeBatch(conn, FLIGHT_BULK_INSERT, batch))
+            .map(v -> flights.size());
+  }
+
+  @Override
+  public Future<Flight> findById(long id) {
+    return first(FLIGHT_BY_ID, Tuple.of(id), Flight::fromRow);
+  }
+
+  @Override
+  public Future<List<Flight>> findByRoute(String from, String to, LocalDate departureDate) {
+    return list(FLIGHT_BY_ROUTE,
+            Tuple.of(from, to, departureDate.atStartOfDay(), departureDate.plusDays(1).atStartOfDay()),
+            Flight::fromRow);
+  }
+
+  @Override
+  public Future<List<Flight>> findByRoute(String from, String to, LocalDate firstDay, LocalDate endDay) {
+    return list(FLIGHT_BY_ROUTE_RANGE, Tuple.of(from, to, firstDay.atStartOfDay(), endDay.atStartOfDay()),
+            Flight::fromRow);
+  }
+
+  @Override
+  public Future<List<Flight>> departingBetween(LocalDateTime start, LocalDateTime end) {
+    return list(FLIGHT_DEPARTING_BETWEEN, Tuple.of(start, end), Flight::fromRow);
+  }
+
+  @Override
+  public Future<List<Flight>> search(String from, String to, LocalDate arrivalDate, Keyset page) {
+    return list(page == null ? FLIGHT_SEARCH : FLIGHT_SEARCH_PAGE, searchParams(from, to, arrivalDate, page),
+            Flight::fromRow);
+  }
+
+  @Override
+  public Future<Cursor<Flight>> cursor(String from, String to, LocalDate arrivalDate, Keyset page) {
+    return cursor(page == null ? FLIGHT_SEARCH : FLIGHT_SEARCH_PAGE, searchParams(from, to, arrivalDate, page),
+            Flight::fromRow);
+  }
+
+  private static Tuple searchParams(String from, String to, LocalDate arrivalDate, Keyset page) {
+    Tuple params = Tuple.of(from, to,
+            arrivalDate != null ? arrivalDate.atStartOfDay() : EARLIEST,
+            arrivalDate != null ? arrivalDate.plusDays(1).atStartOfDay() : LATEST);
+    if (page != null) {
+      params.addLong(page.after());
+      params.addInteger(page.limit());
+    }
+    return params;
+  }
+
+  private static Tuple params(NewFlight flight) {
+    return Tuple.of(
+            flight.flightNumber(),
+            flight.airlineId(),
+            flight.from(),
+            flight.to(),
+            flight.departure(),
+            flight.arrival(),
+            flight.seatsAvailable(),
+            flight.totalSeats(),
+            flight.price()
+    );
+  }
+}
@@ -0,0 +1,48 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.model.Passenger;
+import com.airline.booking.repository.PassengerRepository;
+import io.vertx.core.Future;
+import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.airline.booking.repository.jdbc.SqlStatement.*;
+
+public class JdbcPassengerRepository extends JdbcRepository implements PassengerRepository {
+
+  public JdbcPassengerRepository(Pool writePool, Pool primaryReadPool, Pool readPool, MetricsRegistry metrics) {
+    super(writePool, primaryReadPool, readPool, metrics);
+  }
+
+  @Override
+  public Future<Passenger> insert(String firstName, String lastName, String email, String passportNumber) {
+    return execute(PASSENGER_INSERT, Tuple.of(firstName, lastName, email, passportNumber))
+            .compose(rows -> findById(rows.property(JDBCPool.GENERATED_KEYS).getLong(0)));
+  }
+
+  @Override
+  public Future<Passenger> findById(long id) {
+    return first(PASSENGER_BY_ID, Tuple.of(id), Passenger::fromRow);
+  }
+
+  @Override
+  public Future<List<Passenger>> all() {
+    return list(PASSENGER_ALL, Tuple.tuple(), Passenger::fromRow);
+  }
+
+  @Override
+  public Future<Set<Long>> existing(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Future.succeededFuture(Set.of());
+    }
+    return list(PASSENGER_EXISTING, Tuple.of(ids.toArray(new Long[0])), row -> row.getLong("ID"))
+            .map(HashSet::new);
+  }
+}
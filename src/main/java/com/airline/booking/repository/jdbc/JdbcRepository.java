@@ -0,0 +1,81 @@
+package com.airline.booking.repository.jdbc;
+
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.repository.Cursor;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared plumbing for the JDBC repositories: statements come only from {@link SqlStatement} and every
+ * execution is timed under the statement's name. Standalone statements run on the pool their declared
+ * {@link SqlStatement.Intent} asks for; transactions always take a connection from {@link #writePool}.
+ */
+abstract class JdbcRepository {
+
+  protected final Pool writePool;
+  private final Pool primaryReadPool;
+  private final Pool readPool;
+  private final MetricsRegistry metrics;
+
+  JdbcRepository(Pool writePool, Pool primaryReadPool, Pool readPool, MetricsRegistry metrics) {
+    this.writePool = writePool;
+    this.primaryReadPool = primaryReadPool;
+    this.readPool = readPool;
+    this.metrics = metrics;
+  }
+
+  /** Runs the statement on {@code client}, either the pool or a connection inside a transaction. */
+  protected Future<RowSet<Row>> execute(SqlClient client, SqlStatement statement, Tuple params) {
+    long start = System.nanoTime();
+    return metrics.timed(statement.statementName(), start, client.preparedQuery(statement.sql()).execute(params));
+  }
+
+  /**
+   * Runs a standalone statement on the pool its intent asks for. Reads are single autocommit
+   * statements. Writes get their own transaction: a JDBCPool connection comes back from
+   * withTransaction with autocommit still off, so a bare statement on it would stay uncommitted (and
+   * invisible to the other pools) until that connection happened to run another transaction. That is
+   * also why no read ever runs on the write pool.
+   */
+  protected Future<RowSet<Row>> execute(SqlStatement statement, Tuple params) {
+    return switch (statement.intent()) {
+      case READ -> execute(readPool, statement, params);
+      case PRIMARY_READ -> execute(primaryReadPool, statement, params);
+      case WRITE -> writePool.withTransaction(conn -> execute(conn, statement, params));
+    };
+  }
+
+  protected Future<RowSet<Row>> executeBatch(SqlClient client, SqlStatement statement, List<Tuple> batch) {
+    long start = System.nanoTime();
+    return metrics.timed(statement.statementName(), start, client.preparedQuery(statement.sql()).executeBatch(batch));
+  }
+
+  protected <T> Future<List<T>> list(SqlStatement statement, Tuple params, Function<Row, T> mapper) {
+    return execute(statement, params).map(rows -> {
+      List<T> items = new ArrayList<>(rows.size());
+      for (Row row : rows) {
+        items.add(mapper.apply(row));
+      }
+      return items;
+    });
+  }
+
+  /** First row mapped, or null when the query returns nothing. */
+  protected <T> Future<T> first(SqlStatement statement, Tuple params, Function<Row, T> mapper) {
+    return execute(statement, params)
+            .map(rows -> rows.iterator().hasNext() ? mapper.apply(rows.iterator().next()) : null);
+  }
+
+  protected <T> Future<Cursor<T>> cursor(SqlStatement statement, Tuple params, Function<Row, T> mapper) {
+    return JdbcCursor.open(statement.intent() == SqlStatement.Intent.READ ? readPool : primaryReadPool,
+            statement.sql(), params, mapper);
+  }
+}
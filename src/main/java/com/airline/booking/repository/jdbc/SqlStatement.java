@@ -0,0 +1,120 @@
+package com.airline.booking.repository.jdbc;
+
+import java.util.Arrays;
+
+/**
+ * Every statement the JDBC repositories issue, under a stable name used for its metrics. The SQL is
+ * fixed text, never assembled per request: optional filters are bound as wide ranges or LIKE '%' and
+ * IN lists as one array parameter, so each statement is parsed once per connection and then served
+ * from H2's per-session statement cache (sized from this registry by DatabaseService).
+ *
+ * Each statement also declares its {@link Intent}, which decides the pool it runs on when executed on
+ * its own; inside a transaction every statement runs on the transaction's connection.
+ */
+public enum SqlStatement {
+
+  AIRLINE_INSERT("airline.insert", Intent.WRITE, "INSERT INTO airlines (name, code, country) VALUES (?, ?, ?)"),
+  AIRLINE_LIST("airline.list", Intent.PRIMARY_READ, "SELECT id, name, code, country FROM airlines ORDER BY name"),
+  AIRLINE_LIST_PAGE("airline.listPage", Intent.PRIMARY_READ, "SELECT id, name, code, country FROM airlines WHERE id > ? ORDER BY id LIMIT ?"),
+  // id BETWEEN (lo, hi) and LIKE '%' stand in for absent criteria
+  AIRLINE_SEARCH("airline.search", Intent.PRIMARY_READ, "SELECT id, name, code, country FROM airlines WHERE id BETWEEN ? AND ? " +
+          "AND LOWER(name) LIKE ? AND LOWER(code) LIKE ? AND LOWER(COALESCE(country, '')) LIKE ? ORDER BY name"),
+
+  FLIGHT_INSERT("flight.insert", Intent.WRITE, Sql.FLIGHT_INSERT),
+  FLIGHT_BULK_INSERT("flight.bulkInsert", Intent.WRITE, Sql.FLIGHT_INSERT),
+  // Reads back a just-inserted flight and loads the seat inventory, neither of which may lag
+  FLIGHT_BY_ID("flight.byId", Intent.PRIMARY_READ, "SELECT * FROM flights WHERE id = ?"),
+  FLIGHT_BY_ROUTE("flight.searchRoute", Intent.PRIMARY_READ, Sql.FLIGHT_BY_ROUTE),
+  // One day for the search index, a whole month for the fare calendar; timed separately
+  FLIGHT_BY_ROUTE_RANGE("flight.searchRouteRange", Intent.PRIMARY_READ, Sql.FLIGHT_BY_ROUTE),
+  FLIGHT_DEPARTING_BETWEEN("flight.departingBetween", Intent.PRIMARY_READ, "SELECT id, airline_id, flight_number, departure_airport, " +
+          "arrival_airport, departure_time, arrival_time, available_seats, price FROM flights " +
+          "WHERE departure_time >= ? AND departure_time < ? ORDER BY departure_time"),
+  // Without an arrival date the bounds are the whole supported range
+  FLIGHT_SEARCH("flight.search", Intent.PRIMARY_READ, "SELECT * FROM flights WHERE departure_airport = ? AND arrival_airport = ? " +
+          "AND arrival_time >= ? AND arrival_time < ?"),
+  FLIGHT_SEARCH_PAGE("flight.searchPage", Intent.PRIMARY_READ, "SELECT * FROM flights WHERE departure_airport = ? AND arrival_airport = ? " +
+          "AND arrival_time >= ? AND arrival_time < ? AND id > ? ORDER BY id LIMIT ?"),
+
+  PASSENGER_INSERT("passenger.insert", Intent.WRITE, "INSERT INTO passengers (first_name, last_name, email, passport_number) VALUES (?, ?, ?, ?)"),
+  PASSENGER_BY_ID("passenger.byId", Intent.PRIMARY_READ, "SELECT * FROM passengers WHERE id = ?"),
+  PASSENGER_ALL("passenger.all", Intent.PRIMARY_READ, "SELECT * FROM passengers ORDER BY id"),
+  PASSENGER_EXISTING("passenger.existing", Intent.PRIMARY_READ, "SELECT id FROM passengers WHERE id = ANY(?)"),
+
+  BOOKING_DECREMENT_SEATS("booking.decrementSeats", Intent.WRITE, Sql.TAKE_SEATS),
+  BOOKING_INSERT("booking.insert", Intent.WRITE, Sql.BOOKING_INSERT),
+  BOOKING_BATCH_DECREMENT_SEATS("booking.batch.decrementSeats", Intent.WRITE, Sql.TAKE_SEATS),
+  BOOKING_BATCH_INSERT("booking.batch.insert", Intent.WRITE, Sql.BOOKING_INSERT),
+  BOOKING_BY_REFERENCES("booking.batch.byReference", Intent.WRITE, "SELECT * FROM bookings WHERE booking_reference = ANY(?)"),
+  BOOKING_LOAD_CANCEL("booking.loadCancel", Intent.WRITE, "SELECT * FROM bookings WHERE id = ? AND status = 'CONFIRMED'"),
+  BOOKING_CANCEL("booking.cancel", Intent.WRITE, "UPDATE bookings SET status = 'CANCELLED' WHERE id = ?"),
+  BOOKING_INCREMENT_SEATS("booking.incrementSeats", Intent.WRITE, "UPDATE flights SET available_seats = available_seats + 1 WHERE id = ?"),
+  BOOKING_BY_ID("booking.byId", Intent.PRIMARY_READ, "SELECT * FROM bookings WHERE id = ?"),
+  BOOKING_BY_PASSENGER("booking.byPassenger", Intent.READ, "SELECT * FROM bookings WHERE passenger_id = ?"),
+  BOOKING_BY_PASSENGER_PAGE("booking.byPassengerPage", Intent.READ,
+          "SELECT * FROM bookings WHERE passenger_id = ? AND id > ? ORDER BY id LIMIT ?"),
+  BOOKING_REFERENCE_BLOCK("booking.referenceBlock", Intent.WRITE, "SELECT NEXT VALUE FOR booking_reference_blocks"),
+  INVENTORY_LOAD("inventory.load", Intent.PRIMARY_READ, "SELECT * FROM bookings WHERE flight_id = ? AND status = 'CONFIRMED'");
+
+  public enum Intent {
+    /**
+     * Plain reads served as they are: run on the read pool, which may point at a replica and lag behind.
+     * Nothing read this way may carry an ETag or feed an in-memory index.
+     */
+    READ,
+    /**
+     * Reads that must see the latest commit: run on the primary read pool, one autocommit statement at a
+     * time and never on the connections bookings write through. This covers every read behind a
+     * {@code TableVersions} tag or a {@code SingleFlight} key and every load into an in-memory index,
+     * since those take the version before querying, which only holds if the query cannot return
+     * anything older than that version.
+     */
+    PRIMARY_READ,
+    /** Writes: a transaction on the write pool, whether standalone or as part of a larger one. */
+    WRITE
+  }
+
+  private final String statementName;
+  private final Intent intent;
+  private final String sql;
+
+  SqlStatement(String statementName, Intent intent, String sql) {
+    this.statementName = statementName;
+    this.intent = intent;
+    this.sql = sql;
+  }
+
+  public String statementName() {
+    return statementName;
+  }
+
+  public Intent intent() {
+    return intent;
+  }
+
+  public String sql() {
+    return sql;
+  }
+
+  /** Number of distinct SQL texts, i.e. how many parsed statements a connection needs to cache. */
+  public static int distinctSqlCount() {
+    return (int) Arrays.stream(values()).map(SqlStatement::sql).distinct().count();
+  }
+
+  /** SQL shared by more than one named statement. */
+  private static final class Sql {
+    static final String FLIGHT_INSERT = "INSERT INTO flights (flight_number, airline_id, departure_airport, arrival_airport, " +
+            "departure_time, arrival_time, available_seats, total_seats, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String TAKE_SEATS = "UPDATE flights SET available_seats = available_seats - ? WHERE id = ? AND available_seats >= ?";
+    // Inserts nothing when the passenger or the seat is already confirmed on the flight. The seat
+    // UPDATE before it holds the flight row lock, so concurrent bookings of one flight see each other
+    static final String BOOKING_INSERT = "INSERT INTO bookings (booking_reference, passenger_id, flight_id, seat_number, status, total_amount) " +
+            "SELECT ?, ?, ?, ?, 'CONFIRMED', ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM bookings " +
+            "WHERE flight_id = ? AND status = 'CONFIRMED' AND (passenger_id = ? OR seat_number = ?))";
+    // Half-open departure_time range so the route index can be used; no CAST to DATE
+    static final String FLIGHT_BY_ROUTE = "SELECT id, airline_id, flight_number, departure_airport, arrival_airport, " +
+            "departure_time, arrival_time, available_seats, price FROM flights " +
+            "WHERE departure_airport = ? AND arrival_airport = ? AND departure_time >= ? AND departure_time < ? " +
+            "ORDER BY departure_time";
+  }
+}
@@ -0,0 +1,12 @@
+package com.airline.booking.repository.memory;
+
+/**
+ * Raised by the in-memory repositories where H2 would reject a write. Messages name the same
+ * constraint H2 would, so callers that inspect them behave the same on either backend.
+ */
+public class ConstraintViolationException extends RuntimeException {
+
+  public ConstraintViolationException(String message) {
+    super(message);
+  }
+}
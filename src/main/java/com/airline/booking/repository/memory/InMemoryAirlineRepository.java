@@ -0,0 +1,78 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.repository.AirlineRepository;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.Keyset;
+import io.vertx.core.Future;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryAirlineRepository implements AirlineRepository {
+
+  private final StripedLongMap<Airline> airlines = new StripedLongMap<>();
+  private final ConcurrentHashMap<String, Long> idByCode = new ConcurrentHashMap<>();
+  private final AtomicLong ids = new AtomicLong();
+
+  @Override
+  public Future<Airline> insert(Airline airline) {
+    long id = ids.incrementAndGet();
+    if (idByCode.putIfAbsent(airline.code(), id) != null) {
+      return Future.failedFuture(new ConstraintViolationException(
+              "Unique index or primary key violation: AIRLINES(CODE) " + airline.code()));
+    }
+    Airline saved = new Airline(id, airline.name(), airline.code(), airline.country());
+    airlines.put(id, saved);
+    return Future.succeededFuture(saved);
+  }
+
+  @Override
+  public Future<List<Airline>> list(Keyset page) {
+    return Future.succeededFuture(rows(page));
+  }
+
+  @Override
+  public Future<Cursor<Airline>> cursor(Keyset page) {
+    return Future.succeededFuture(new ListCursor<>(rows(page)));
+  }
+
+  @Override
+  public Future<List<Airline>> search(Long id, String name, String code, String country) {
+    return Future.succeededFuture(airlines.values().stream()
+            .filter(a -> id == null || a.id().equals(id))
+            .filter(a -> contains(a.name(), name) && contains(a.code(), code) && contains(a.country(), country))
+            .sorted(Comparator.comparing(Airline::name))
+            .toList());
+  }
+
+  boolean exists(long id) {
+    return airlines.get(id) != null;
+  }
+
+  /** Loads a row with its existing id, e.g. when seeding from data.sql. */
+  void restore(Airline airline) {
+    airlines.put(airline.id(), airline);
+    idByCode.put(airline.code(), airline.id());
+    ids.accumulateAndGet(airline.id(), Math::max);
+  }
+
+  private List<Airline> rows(Keyset page) {
+    if (page == null) {
+      return airlines.values().stream().sorted(Comparator.comparing(Airline::name)).toList();
+    }
+    return airlines.values().stream()
+            .filter(a -> a.id() > page.after())
+            .sorted(Comparator.comparing(Airline::id))
+            .limit(page.limit())
+            .toList();
+  }
+
+  private static boolean contains(String value, String fragment) {
+    return fragment == null || (value != null
+            && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT)));
+  }
+}
@@ -0,0 +1,182 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Booking;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.Keyset;
+import com.airline.booking.repository.NewBooking;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryBookingRepository implements BookingRepository {
+
+  private static final String CONFIRMED = "CONFIRMED";
+  private static final String CANCELLED = "CANCELLED";
+
+  private final InMemoryFlightRepository flights;
+  private final InMemoryPassengerRepository passengers;
+  private final StripedLongMap<Booking> bookings = new StripedLongMap<>();
+  // Secondary indexes: booking ids per passenger / flight, replaced copy-on-write under the stripe lock
+  private final StripedLongMap<List<Long>> byPassenger = new StripedLongMap<>();
+  private final StripedLongMap<List<Long>> byFlight = new StripedLongMap<>();
+  private final AtomicLong ids = new AtomicLong();
+  private final AtomicLong referenceBlocks = new AtomicLong();
+
+  public InMemoryBookingRepository(InMemoryFlightRepository flights, InMemoryPassengerRepository passengers) {
+    this.flights = flights;
+    this.passengers = passengers;
+  }
+
+  @Override
+  public Future<Booking> insert(NewBooking booking) {
+    if (!passengers.exists(booking.passengerId())) {
+      return Future.failedFuture(unknownPassenger(booking));
+    }
+    return storeOnFlight(booking.flightId(), List.of(booking))
+            .map(stored -> stored == null ? null : stored.get(0));
+  }
+
+  @Override
+  public Future<List<Booking>> insertAll(long flightId, List<NewBooking> batch) {
+    for (NewBooking booking : batch) {
+      if (!passengers.exists(booking.passengerId())) {
+        return Future.failedFuture(unknownPassenger(booking));
+      }
+    }
+    return storeOnFlight(flightId, batch);
+  }
+
+  @Override
+  public Future<Booking> cancel(long id) {
+    Booking[] cancelled = {null};
+    bookings.compute(id, b -> {
+      if (b == null || !CONFIRMED.equals(b.status())) {
+        return b;
+      }
+      cancelled[0] = withStatus(b, CANCELLED);
+      return cancelled[0];
+    });
+    if (cancelled[0] != null) {
+      flights.returnSeats(cancelled[0].flightId(), 1);
+    }
+    return Future.succeededFuture(cancelled[0]);
+  }
+
+  @Override
+  public Future<Booking> findById(long id) {
+    return Future.succeededFuture(bookings.get(id));
+  }
+
+  @Override
+  public Future<List<Booking>> findByPassenger(long passengerId, Keyset page) {
+    return Future.succeededFuture(forPassenger(passengerId, page));
+  }
+
+  @Override
+  public Future<Cursor<Booking>> cursorByPassenger(long passengerId, Keyset page) {
+    return Future.succeededFuture(new ListCursor<>(forPassenger(passengerId, page)));
+  }
+
+  @Override
+  public Future<Long> nextReferenceBlock() {
+    // Nothing survives a restart here, so a process-local counter is enough
+    return Future.succeededFuture(referenceBlocks.incrementAndGet());
+  }
+
+  @Override
+  public Future<List<Booking>> confirmedForFlight(long flightId) {
+    return Future.succeededFuture(resolve(byFlight.get(flightId)).stream()
+            .filter(b -> CONFIRMED.equals(b.status()))
+            .toList());
+  }
+
+  void restore(Booking booking) {
+    bookings.put(booking.id(), booking);
+    index(booking);
+    ids.accumulateAndGet(booking.id(), Math::max);
+  }
+
+  /**
+   * Mirrors the guarded SQL insert: the flight's index stripe is held from the duplicate check until
+   * the bookings are indexed, as the flight row lock is in the database.
+   */
+  private Future<List<Booking>> storeOnFlight(long flightId, List<NewBooking> batch) {
+    List<Booking> stored = new ArrayList<>(batch.size());
+    boolean[] duplicate = {false};
+    byFlight.compute(flightId, onFlight -> {
+      for (Booking existing : resolve(onFlight)) {
+        if (CONFIRMED.equals(existing.status()) && batch.stream().anyMatch(b -> b.passengerId() == existing.passengerId()
+                || (b.seatNumber() != null && b.seatNumber().equals(existing.seatNumber())))) {
+          duplicate[0] = true;
+          return onFlight;
+        }
+      }
+      if (!flights.takeSeats(flightId, batch.size())) {
+        return onFlight;
+      }
+      List<Long> next = onFlight == null ? new ArrayList<>(batch.size()) : new ArrayList<>(onFlight);
+      for (NewBooking booking : batch) {
+        Booking booked = new Booking(ids.incrementAndGet(), booking.bookingReference(), booking.passengerId(),
+                flightId, booking.seatNumber(), CONFIRMED, booking.price());
+        bookings.put(booked.id(), booked);
+        insertSorted(byPassenger, booked.passengerId(), booked.id());
+        next.add(booked.id());
+        stored.add(booked);
+      }
+      return next;
+    });
+    if (duplicate[0]) {
+      return Future.failedFuture(new AlreadyBookedException(flightId));
+    }
+    return Future.succeededFuture(stored.isEmpty() ? null : stored);
+  }
+
+  private void index(Booking booking) {
+    insertSorted(byPassenger, booking.passengerId(), booking.id());
+    insertSorted(byFlight, booking.flightId(), booking.id());
+  }
+
+  /**
+   * Adds the id in sorted position. Ids are allocated before this stripe lock is taken, so a concurrent
+   * booking for the same key can get here first with a higher id; keyset pages rely on the order.
+   */
+  private static void insertSorted(StripedLongMap<List<Long>> index, long key, long id) {
+    index.compute(key, ids -> {
+      List<Long> next = ids == null ? new ArrayList<>(4) : new ArrayList<>(ids);
+      int at = Collections.binarySearch(next, id);
+      next.add(at < 0 ? -at - 1 : at, id);
+      return next;
+    });
+  }
+
+  private List<Booking> forPassenger(long passengerId, Keyset page) {
+    List<Booking> all = resolve(byPassenger.get(passengerId));
+    if (page == null) {
+      return all;
+    }
+    // The index is kept sorted by id, so the page is the next run after the cursor
+    return all.stream().filter(b -> b.id() > page.after()).limit(page.limit()).toList();
+  }
+
+  private List<Booking> resolve(List<Long> ids) {
+    if (ids == null) {
+      return List.of();
+    }
+    return ids.stream().map(bookings::get).filter(Objects::nonNull).toList();
+  }
+
+  private static ConstraintViolationException unknownPassenger(NewBooking booking) {
+    return new ConstraintViolationException("Referential integrity constraint violation: " +
+            "BOOKINGS FOREIGN KEY(PASSENGER_ID) REFERENCES PASSENGERS(ID) (" + booking.passengerId() + ")");
+  }
+
+  private static Booking withStatus(Booking b, String status) {
+    return new Booking(b.id(), b.bookingReference(), b.passengerId(), b.flightId(), b.seatNumber(), status,
+            b.totalAmount());
+  }
+}
@@ -0,0 +1,199 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.Cursor;
+import com.airline.booking.repository.FlightRepository;
+import com.airline.booking.repository.Keyset;
+import com.airline.booking.repository.NewFlight;
+import io.vertx.core.Future;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Flights in a {@link StripedLongMap} by id, with departure-ordered secondary indexes per route and
+ * across all routes, so route and time-window lookups are range scans rather than full scans. The
+ * indexes hold only the immutable parts of a flight (departure, arrival day, id); rows are read back
+ * from the map so seat counts are always current.
+ *
+ * {@link #insertAll} checks and reserves every row before publishing any, so a rejected batch is never
+ * visible to readers.
+ */
+public class InMemoryFlightRepository implements FlightRepository {
+
+  /** Index entry, ordered by departure then id. */
+  private record Slot(LocalDateTime departure, long id, LocalDate arrivalDay) {}
+
+  private static final Comparator<Slot> BY_DEPARTURE = Comparator.comparing(Slot::departure)
+          .thenComparingLong(Slot::id);
+
+  private final InMemoryAirlineRepository airlines;
+  private final StripedLongMap<Flight> flights = new StripedLongMap<>();
+  // unique_flight (flight_number, departure_time)
+  private final ConcurrentHashMap<String, Long> idByFlightKey = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, NavigableSet<Slot>> byRoute = new ConcurrentHashMap<>();
+  private final NavigableSet<Slot> byDeparture = new ConcurrentSkipListSet<>(BY_DEPARTURE);
+  private final AtomicLong ids = new AtomicLong();
+
+  public InMemoryFlightRepository(InMemoryAirlineRepository airlines) {
+    this.airlines = airlines;
+  }
+
+  @Override
+  public Future<Flight> insert(NewFlight flight) {
+    try {
+      Flight stored = reserve(flight);
+      publish(stored);
+      return Future.succeededFuture(stored);
+    } catch (ConstraintViolationException e) {
+      return Future.failedFuture(e);
+    }
+  }
+
+  @Override
+  public Future<Integer> insertAll(List<NewFlight> batch) {
+    List<Flight> reserved = new ArrayList<>(batch.size());
+    try {
+      for (NewFlight flight : batch) {
+        reserved.add(reserve(flight));
+      }
+    } catch (ConstraintViolationException e) {
+      // All or nothing, like the JDBC batch in a transaction; nothing was published yet
+      reserved.forEach(f -> idByFlightKey.remove(key(f.flightNumber(), LocalDateTime.parse(f.departure())), f.id()));
+      return Future.failedFuture(e);
+    }
+    reserved.forEach(this::publish);
+    return Future.succeededFuture(reserved.size());
+  }
+
+  @Override
+  public Future<Flight> findById(long id) {
+    return Future.succeededFuture(flights.get(id));
+  }
+
+  @Override
+  public Future<List<Flight>> findByRoute(String from, String to, LocalDate departureDate) {
+    return findByRoute(from, to, departureDate, departureDate.plusDays(1));
+  }
+
+  @Override
+  public Future<List<Flight>> findByRoute(String from, String to, LocalDate firstDay, LocalDate endDay) {
+    return Future.succeededFuture(resolve(departing(byRoute.get(route(from, to)),
+            firstDay.atStartOfDay(), endDay.atStartOfDay())));
+  }
+
+  @Override
+  public Future<List<Flight>> departingBetween(LocalDateTime start, LocalDateTime end) {
+    return Future.succeededFuture(resolve(departing(byDeparture, start, end)));
+  }
+
+  @Override
+  public Future<List<Flight>> search(String from, String to, LocalDate arrivalDate, Keyset page) {
+    return Future.succeededFuture(rows(from, to, arrivalDate, page));
+  }
+
+  @Override
+  public Future<Cursor<Flight>> cursor(String from, String to, LocalDate arrivalDate, Keyset page) {
+    return Future.succeededFuture(new ListCursor<>(rows(from, to, arrivalDate, page)));
+  }
+
+  /** Takes {@code count} seats if that many are left; the in-memory equivalent of the guarded UPDATE. */
+  boolean takeSeats(long flightId, int count) {
+    boolean[] taken = {false};
+    flights.compute(flightId, f -> {
+      if (f == null || f.seatsAvailable() < count) {
+        return f;
+      }
+      taken[0] = true;
+      return withSeats(f, f.seatsAvailable() - count);
+    });
+    return taken[0];
+  }
+
+  void returnSeats(long flightId, int count) {
+    flights.compute(flightId, f -> f == null ? null : withSeats(f, f.seatsAvailable() + count));
+  }
+
+  void restore(Flight flight) {
+    idByFlightKey.put(key(flight.flightNumber(), LocalDateTime.parse(flight.departure())), flight.id());
+    ids.accumulateAndGet(flight.id(), Math::max);
+    publish(flight);
+  }
+
+  /** Checks constraints and claims the id and unique key, without making the flight visible. */
+  private Flight reserve(NewFlight flight) {
+    if (!airlines.exists(flight.airlineId())) {
+      throw new ConstraintViolationException("Referential integrity constraint violation: FLIGHTS(AIRLINE_ID) " +
+              "REFERENCES AIRLINES(ID) (" + flight.airlineId() + ")");
+    }
+    long id = ids.incrementAndGet();
+    if (idByFlightKey.putIfAbsent(key(flight.flightNumber(), flight.departure()), id) != null) {
+      throw new ConstraintViolationException("Unique index or primary key violation: UNIQUE_FLIGHT "
+              + flight.flightNumber() + " " + flight.departure());
+    }
+    return new Flight(id, flight.airlineId(), flight.flightNumber(), flight.from(), flight.to(),
+            flight.departure().toString(), flight.arrival().toString(), flight.seatsAvailable(), flight.price());
+  }
+
+  private void publish(Flight flight) {
+    flights.put(flight.id(), flight);
+    Slot slot = new Slot(LocalDateTime.parse(flight.departure()), flight.id(),
+            LocalDateTime.parse(flight.arrival()).toLocalDate());
+    byRoute.computeIfAbsent(route(flight.from(), flight.to()), k -> new ConcurrentSkipListSet<>(BY_DEPARTURE)).add(slot);
+    byDeparture.add(slot);
+  }
+
+  private List<Flight> rows(String from, String to, LocalDate arrivalDate, Keyset page) {
+    NavigableSet<Slot> route = byRoute.getOrDefault(route(from, to), Collections.emptyNavigableSet());
+    Stream<Slot> matches = route.stream()
+            .filter(slot -> arrivalDate == null || slot.arrivalDay().equals(arrivalDate));
+    if (page != null) {
+      matches = matches.filter(slot -> slot.id() > page.after())
+              .sorted(Comparator.comparingLong(Slot::id))
+              .limit(page.limit());
+    }
+    return resolve(matches.toList());
+  }
+
+  /** Slots departing in {@code [start, end)}. */
+  private static Collection<Slot> departing(NavigableSet<Slot> slots, LocalDateTime start, LocalDateTime end) {
+    if (slots == null || !start.isBefore(end)) {
+      return List.of();
+    }
+    return slots.subSet(new Slot(start, Long.MIN_VALUE, null), true, new Slot(end, Long.MIN_VALUE, null), false);
+  }
+
+  private List<Flight> resolve(Collection<Slot> slots) {
+    List<Flight> result = new ArrayList<>(slots.size());
+    for (Slot slot : slots) {
+      Flight flight = flights.get(slot.id());
+      if (flight != null) {
+        result.add(flight);
+      }
+    }
+    return result;
+  }
+
+  private static String route(String from, String to) {
+    return from + '|' + to;
+  }
+
+  private static String key(String flightNumber, LocalDateTime departure) {
+    return flightNumber + '|' + departure;
+  }
+
+  private static Flight withSeats(Flight f, int seats) {
+    return new Flight(f.id(), f.airlineId(), f.flightNumber(), f.from(), f.to(), f.departure(), f.arrival(),
+            seats, f.price());
+  }
+}
@@ -0,0 +1,74 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Passenger;
+import com.airline.booking.repository.PassengerRepository;
+import io.vertx.core.Future;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryPassengerRepository implements PassengerRepository {
+
+  private final StripedLongMap<Passenger> passengers = new StripedLongMap<>();
+  private final ConcurrentHashMap<String, Long> idByEmail = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Long> idByPassport = new ConcurrentHashMap<>();
+  private final AtomicLong ids = new AtomicLong();
+
+  @Override
+  public Future<Passenger> insert(String firstName, String lastName, String email, String passportNumber) {
+    long id = ids.incrementAndGet();
+    if (idByEmail.putIfAbsent(email, id) != null) {
+      return Future.failedFuture(new ConstraintViolationException(
+              "Unique index or primary key violation: PASSENGERS(EMAIL) " + email));
+    }
+    if (passportNumber != null && idByPassport.putIfAbsent(passportNumber, id) != null) {
+      idByEmail.remove(email, id);
+      return Future.failedFuture(new ConstraintViolationException(
+              "Unique index or primary key violation: PASSENGERS(PASSPORT_NUMBER) " + passportNumber));
+    }
+    Passenger saved = new Passenger(id, firstName, lastName, email, passportNumber);
+    passengers.put(id, saved);
+    return Future.succeededFuture(saved);
+  }
+
+  @Override
+  public Future<Passenger> findById(long id) {
+    return Future.succeededFuture(passengers.get(id));
+  }
+
+  @Override
+  public Future<List<Passenger>> all() {
+    return Future.succeededFuture(passengers.values().stream()
+            .sorted(Comparator.comparing(Passenger::id))
+            .toList());
+  }
+
+  @Override
+  public Future<Set<Long>> existing(Collection<Long> ids) {
+    Set<Long> found = new HashSet<>();
+    for (Long id : ids) {
+      if (passengers.get(id) != null) {
+        found.add(id);
+      }
+    }
+    return Future.succeededFuture(found);
+  }
+
+  boolean exists(long id) {
+    return passengers.get(id) != null;
+  }
+
+  void restore(Passenger passenger) {
+    passengers.put(passenger.id(), passenger);
+    idByEmail.put(passenger.email(), passenger.id());
+    if (passenger.passportNumber() != null) {
+      idByPassport.putIfAbsent(passenger.passportNumber(), passenger.id());
+    }
+    ids.accumulateAndGet(passenger.id(), Math::max);
+  }
+}
@@ -0,0 +1,50 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Booking;
+import com.airline.booking.model.Flight;
+import com.airline.booking.model.Passenger;
+
+/**
+ * The four in-memory repositories wired together, so bookings can take seats off flights and flights
+ * can check their airline. Nothing is persisted; {@code restore*} loads seed rows with their ids.
+ */
+public class InMemoryStorage {
+
+  private final InMemoryAirlineRepository airlines = new InMemoryAirlineRepository();
+  private final InMemoryFlightRepository flights = new InMemoryFlightRepository(airlines);
+  private final InMemoryPassengerRepository passengers = new InMemoryPassengerRepository();
+  private final InMemoryBookingRepository bookings = new InMemoryBookingRepository(flights, passengers);
+
+  public InMemoryAirlineRepository airlines() {
+    return airlines;
+  }
+
+  public InMemoryFlightRepository flights() {
+    return flights;
+  }
+
+  public InMemoryPassengerRepository passengers() {
+    return passengers;
+  }
+
+  public InMemoryBookingRepository bookings() {
+    return bookings;
+  }
+
+  public void restore(Airline airline) {
+    airlines.restore(airline);
+  }
+
+  public void restore(Flight flight) {
+    flights.restore(flight);
+  }
+
+  public void restore(Passenger passenger) {
+    passengers.restore(passenger);
+  }
+
+  public void restore(Booking booking) {
+    bookings.restore(booking);
+  }
+}
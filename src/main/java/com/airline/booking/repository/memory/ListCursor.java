@@ -0,0 +1,35 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.repository.Cursor;
+import io.vertx.core.Future;
+
+import java.util.List;
+
+/** Cursor over a snapshot that is already in memory. */
+final class ListCursor<T> implements Cursor<T> {
+
+  private final List<T> items;
+  private int position;
+
+  ListCursor(List<T> items) {
+    this.items = items;
+  }
+
+  @Override
+  public Future<List<T>> read(int count) {
+    int end = Math.min(items.size(), position + count);
+    List<T> chunk = items.subList(position, end);
+    position = end;
+    return Future.succeededFuture(chunk);
+  }
+
+  @Override
+  public boolean hasMore() {
+    return position < items.size();
+  }
+
+  @Override
+  public Future<Void> close() {
+    return Future.succeededFuture();
+  }
+}
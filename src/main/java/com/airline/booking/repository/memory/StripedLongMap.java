@@ -0,0 +1,105 @@
+package com.airline.booking.repository.memory;
+
+import io.netty.util.collection.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent long-keyed map split into lock stripes over Netty's primitive {@link LongObjectHashMap},
+ * so ids are never boxed and writers on different stripes never contend. Values are expected to be
+ * immutable; {@link #compute} is the only way to change one atomically.
+ */
+final class StripedLongMap<V> {
+
+  private static final int STRIPES = 64;
+
+  private final LongObjectHashMap<V>[] maps;
+  private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+
+  @SuppressWarnings("unchecked")
+  StripedLongMap() {
+    maps = new LongObjectHashMap[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      maps[i] = new LongObjectHashMap<>();
+      locks[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  V get(long key) {
+    int stripe = stripe(key);
+    ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+    lock.lock();
+    try {
+      return maps[stripe].get(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void put(long key, V value) {
+    int stripe = stripe(key);
+    ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+    lock.lock();
+    try {
+      maps[stripe].put(key, value);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void remove(long key) {
+    int stripe = stripe(key);
+    ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+    lock.lock();
+    try {
+      maps[stripe].remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replaces the value under the stripe lock. The function sees null for a missing key and may
+   * return null to remove it. Returns the new value.
+   */
+  V compute(long key, UnaryOperator<V> update) {
+    int stripe = stripe(key);
+    ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+    lock.lock();
+    try {
+      V next = update.apply(maps[stripe].get(key));
+      if (next == null) {
+        maps[stripe].remove(key);
+      } else {
+        maps[stripe].put(key, next);
+      }
+      return next;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Point-in-time copy of the values, consistent per stripe. */
+  List<V> values() {
+    List<V> values = new ArrayList<>();
+    for (int i = 0; i < STRIPES; i++) {
+      ReentrantReadWriteLock.ReadLock lock = locks[i].readLock();
+      lock.lock();
+      try {
+        values.addAll(maps[i].values());
+      } finally {
+        lock.unlock();
+      }
+    }
+    return values;
+  }
+
+  private static int stripe(long key) {
+    // Fibonacci hashing: the top bits of key * 2^64/phi scatter sequential ids evenly over the stripes
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h >>> 58);
+  }
+}
@@ -0,0 +1,116 @@
+package com.airline.booking.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit in front of the database, shared by every route and verticle instance.
+ * The limit follows AIMD on observed latency: each request that finishes under the target latency
+ * while the limit is at least half used grows it by {@code 1/limit} (about +1 per round of requests,
+ * and no growth while idle). It is cut by {@link #BACKOFF} only on congestion, i.e. when at least
+ * {@link #MIN_SLOW} requests, and {@link #SLOW_FRACTION} of those completing, in one target interval
+ * were over the target; at most once per interval, so one slow burst is one decrease and a lone
+ * outlier (GC pause, cold JIT, a big import) is none.
+ *
+ * Routes are admitted by priority: each class may only fill its share of the limit, so searches are
+ * shed first and bookings keep the headroom. Rejected requests are meant to fail fast (503) rather
+ * than queue; the pool's own bounded wait queue is only a backstop.
+ */
+public class AdmissionController {
+
+  public enum Priority {
+    /** Creating and cancelling bookings: may use the whole limit. */
+    BOOKING(1.0),
+    /** Lookups by id and catalog writes. */
+    STANDARD(0.9),
+    /** Searches and list endpoints that reach the database: shed first. */
+    SEARCH(0.75);
+
+    private final double share;
+
+    Priority(double share) {
+      this.share = share;
+    }
+  }
+
+  static final double BACKOFF = 0.9;
+  static final int MIN_SLOW = 3;
+  static final double SLOW_FRACTION = 0.1;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder shed = new LongAdder();
+  private volatile double limit;
+  private long lastDecrease;
+  // Completions in the current target interval, and how many of them were over the target
+  private long windowStart;
+  private int completed;
+  private int slow;
+
+  public AdmissionController(int initialLimit, int minLimit, int maxLimit, long targetLatency, TimeUnit unit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetNanos = unit.toNanos(targetLatency);
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.lastDecrease = System.nanoTime() - targetNanos;
+    this.windowStart = System.nanoTime();
+  }
+
+  /**
+   * Takes a slot if {@code priority} still has room under the current limit. Returns the start
+   * time to hand back to {@link #release}, or -1 when the request should be shed.
+   */
+  public long tryAcquire(Priority priority) {
+    int allowed = Math.max(1, (int) (limit * priority.share));
+    while (true) {
+      int current = inFlight.get();
+      if (current >= allowed) {
+        shed.increment();
+        return -1;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return System.nanoTime();
+      }
+    }
+  }
+
+  public void release(long startNanos) {
+    int busy = inFlight.getAndDecrement();
+    long now = System.nanoTime();
+    boolean overTarget = now - startNanos > targetNanos;
+    synchronized (this) {
+      if (now - windowStart >= targetNanos) {
+        windowStart = now;
+        completed = 0;
+        slow = 0;
+      }
+      completed++;
+      if (!overTarget) {
+        if (busy * 2 >= limit) {
+          limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        return;
+      }
+      slow++;
+      if (slow >= MIN_SLOW && slow >= completed * SLOW_FRACTION && now - lastDecrease >= targetNanos) {
+        lastDecrease = now;
+        limit = Math.max(minLimit, limit * BACKOFF);
+      }
+    }
+  }
+
+  public int limit() {
+    return (int) limit;
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  public long shed() {
+    return shed.sum();
+  }
+}
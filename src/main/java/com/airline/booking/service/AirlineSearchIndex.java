@@ -0,0 +1,253 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.repository.AirlineRepository;
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory n-gram index over airline name, code and country, so airline search and autocomplete never
+ * run {@code LIKE '%x%'} scans. The whole catalog is loaded once through {@link AirlineRepository#list};
+ * {@link #add} applies each committed insert.
+ *
+ * Every distinct 1-, 2- and 3-character substring of a (lower-cased) field maps to the airlines that
+ * contain it. A query of up to three characters is answered by one posting list; a longer one starts
+ * from its rarest trigram and confirms each candidate with {@code contains}. Postings hold positions in
+ * name order, so matches come out ordered by name like the SQL search.
+ *
+ * Readers see an immutable snapshot; an insert rebuilds it, which is fine for a catalog that changes
+ * a few times a day.
+ */
+public class AirlineSearchIndex {
+
+  public enum Field { NAME, CODE, COUNTRY }
+
+  static final int MAX_GRAM = 3;
+  private static final int[] NONE = new int[0];
+
+  private final AirlineRepository airlineStore;
+  private final LazyLoad<Snapshot> snapshot;
+
+  public AirlineSearchIndex(AirlineRepository airlineStore) {
+    this.airlineStore = airlineStore;
+    this.snapshot = new LazyLoad<>(() -> airlineStore.list(null).map(Snapshot::new));
+  }
+
+  /** Loads the catalog, see {@link LazyLoad#get()}. */
+  public Future<Void> load() {
+    return snapshot.get().mapEmpty();
+  }
+
+  /** Case-insensitive substring match on every non-null criterion, ordered by name. */
+  public Future<List<Airline>> search(Long id, String name, String code, String country) {
+    return snapshot.get().map(s -> s.search(id, name, code, country));
+  }
+
+  /**
+   * Up to {@code limit} airlines whose name, code or country contains {@code query}, best first:
+   * exact code, then name prefix, name word prefix, code prefix, name substring, country prefix and
+   * any other match. Ties are broken by name.
+   */
+  public Future<List<Airline>> autocomplete(String query, int limit) {
+    return snapshot.get().map(s -> s.autocomplete(query, limit));
+  }
+
+  /** Adds a committed airline. Applied after an ongoing load and ignored if the load already saw it. */
+  public void add(Airline airline) {
+    snapshot.get().onSuccess(loaded -> snapshot.update(current -> {
+      if (current.contains(airline.id())) {
+        return current;
+      }
+      List<Airline> airlines = new ArrayList<>(Arrays.asList(current.byName));
+      airlines.add(airline);
+      return new Snapshot(airlines);
+    }));
+  }
+
+  public int size() {
+    Future<Snapshot> current = snapshot.current();
+    return current != null && current.succeeded() ? current.result().byName.length : 0;
+  }
+
+  static String normalize(String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Snapshot {
+
+    private final Airline[] byName;
+    // Lower-cased field values, [field][position]; null where the airline has no value
+    private final String[][] values = new String[Field.values().length][];
+    private final List<Map<String, int[]>> grams = new ArrayList<>();
+    private final Set<Long> ids = new HashSet<>();
+
+    Snapshot(List<Airline> airlines) {
+      byName = airlines.stream()
+              .sorted(Comparator.comparing(Airline::name).thenComparing(Airline::id))
+              .toArray(Airline[]::new);
+      for (Field field : Field.values()) {
+        String[] column = new String[byName.length];
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int position = 0; position < byName.length; position++) {
+          String value = value(byName[position], field);
+          if (value == null) {
+            continue;
+          }
+          column[position] = normalize(value);
+          for (String gram : grams(column[position])) {
+            postings.computeIfAbsent(gram, g -> new ArrayList<>()).add(position);
+          }
+        }
+        Map<String, int[]> index = new HashMap<>(postings.size() * 2);
+        postings.forEach((gram, positions) -> index.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+        values[field.ordinal()] = column;
+        grams.add(index);
+      }
+      for (Airline airline : byName) {
+        ids.add(airline.id());
+      }
+    }
+
+    boolean contains(Long id) {
+      return ids.contains(id);
+    }
+
+    List<Airline> search(Long id, String name, String code, String country) {
+      BitSet matches = new BitSet(byName.length);
+      matches.set(0, byName.length);
+      narrow(matches, Field.NAME, name);
+      narrow(matches, Field.CODE, code);
+      narrow(matches, Field.COUNTRY, country);
+
+      List<Airline> result = new ArrayList<>();
+      for (int position = matches.nextSetBit(0); position >= 0; position = matches.nextSetBit(position + 1)) {
+        if (id == null || id.equals(byName[position].id())) {
+          result.add(byName[position]);
+        }
+      }
+      return result;
+    }
+
+    List<Airline> autocomplete(String query, int limit) {
+      String q = normalize(query);
+      BitSet candidates = new BitSet(byName.length);
+      for (Field field : Field.values()) {
+        for (int position : matches(field, q)) {
+          candidates.set(position);
+        }
+      }
+
+      // Rank in the high bits, name order in the low bits: sorting the longs sorts by both
+      long[] ranked = new long[candidates.cardinality()];
+      int n = 0;
+      for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+        ranked[n++] = ((long) rank(position, q) << 32) | position;
+      }
+      Arrays.sort(ranked);
+
+      List<Airline> result = new ArrayList<>(Math.min(limit, n));
+      for (int i = 0; i < n && i < limit; i++) {
+        result.add(byName[(int) ranked[i]]);
+      }
+      return result;
+    }
+
+    private int rank(int position, String q) {
+      String name = values[Field.NAME.ordinal()][position];
+      String code = values[Field.CODE.ordinal()][position];
+      String country = values[Field.COUNTRY.ordinal()][position];
+      if (q.equals(code)) {
+        return 0;
+      }
+      if (name.startsWith(q)) {
+        return 1;
+      }
+      if (name.contains(" " + q)) {
+        return 2;
+      }
+      if (code != null && code.startsWith(q)) {
+        return 3;
+      }
+      if (name.contains(q)) {
+        return 4;
+      }
+      if (country != null && country.startsWith(q)) {
+        return 5;
+      }
+      return 6;
+    }
+
+    private void narrow(BitSet matches, Field field, String criterion) {
+      if (criterion == null) {
+        return;
+      }
+      BitSet hits = new BitSet(byName.length);
+      for (int position : matches(field, normalize(criterion))) {
+        hits.set(position);
+      }
+      matches.and(hits);
+    }
+
+    /** Positions whose field contains {@code q}, ascending. */
+    private int[] matches(Field field, String q) {
+      Map<String, int[]> index = grams.get(field.ordinal());
+      if (q.isEmpty()) {
+        return allWith(field);
+      }
+      if (q.length() <= MAX_GRAM) {
+        return index.getOrDefault(q, NONE);
+      }
+
+      int[] rarest = null;
+      for (int i = 0; i + MAX_GRAM <= q.length(); i++) {
+        int[] postings = index.getOrDefault(q.substring(i, i + MAX_GRAM), NONE);
+        if (rarest == null || postings.length < rarest.length) {
+          rarest = postings;
+        }
+      }
+      String[] column = values[field.ordinal()];
+      return Arrays.stream(rarest).filter(position -> column[position].contains(q)).toArray();
+    }
+
+    private int[] allWith(Field field) {
+      String[] column = values[field.ordinal()];
+      int[] positions = new int[column.length];
+      int n = 0;
+      for (int position = 0; position < column.length; position++) {
+        if (column[position] != null) {
+          positions[n++] = position;
+        }
+      }
+      return Arrays.copyOf(positions, n);
+    }
+
+    private static String value(Airline airline, Field field) {
+      return switch (field) {
+        case NAME -> airline.name();
+        case CODE -> airline.code();
+        case COUNTRY -> airline.country();
+      };
+    }
+  }
+
+  /** Every distinct substring of 1 to {@value #MAX_GRAM} characters. */
+  static Set<String> grams(String value) {
+    Set<String> grams = new HashSet<>();
+    for (int length = 1; length <= MAX_GRAM; length++) {
+      for (int i = 0; i + length <= value.length(); i++) {
+        grams.add(value.substring(i, i + length));
+      }
+    }
+    return grams;
+  }
+}
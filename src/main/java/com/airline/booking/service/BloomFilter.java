@@ -0,0 +1,73 @@
+package com.airline.booking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over strings: {@link #mightContain} never misses an added value and is wrong
+ * about an absent one with roughly the configured probability while the filter holds no more than the
+ * expected number of values. Bits are only ever set, so concurrent adds and reads need no locking.
+ *
+ * The k probe positions come from one 64-bit FNV-1a hash split into two halves (Kirsch-Mitzenmacher).
+ */
+final class BloomFilter {
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+
+  BloomFilter(long expected, double falsePositiveRate) {
+    long n = Math.max(1, expected);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+    this.words = new AtomicLongArray(words);
+    this.bits = (long) words * 64;
+    this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+  }
+
+  void add(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashes; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = words.get(word);
+      while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+        current = words.get(word);
+      }
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashes; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash(String value) {
+    long hash = FNV_OFFSET;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= FNV_PRIME;
+    }
+    // FNV alone mixes the high bits poorly for short keys; finish with a murmur3 fmix64
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb53f2e42ca63L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
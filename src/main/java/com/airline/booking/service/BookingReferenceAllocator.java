@@ -0,0 +1,160 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Hands out booking references like {@code K7QX2MA9}: seven base-31 symbols plus a check symbol chosen
+ * so that the position-weighted sum of all eight is 0 mod 31. With a prime base and distinct weights
+ * that catches every single typo and every swap of two symbols. The alphabet drops 0/O, 1/I/L so references survive being read out over the phone.
+ *
+ * Uniqueness comes from numbers, not randomness. Each thread (in practice each event loop) owns a block
+ * of {@value #BLOCK_SIZE} numbers taken from a storage sequence, so the hot path is a field increment
+ * with no locks and no shared state, and blocks never overlap across threads or restarts. The number is
+ * scrambled with a bijection mod 31^7 before encoding, so consecutive bookings do not get adjacent
+ * references. 31^7 numbers last for about 27 billion bookings.
+ *
+ * Must be called from a thread that stays the same for the allocating caller, i.e. an event loop.
+ */
+public class BookingReferenceAllocator {
+
+  static final String ALPHABET = "23456789ABCDEFGHJKMNPQRSTUVWXYZ";
+  static final int BLOCK_SIZE = 1024;
+
+  private static final int BASE = ALPHABET.length();
+  private static final int LENGTH = 7;
+  private static final long SPACE = pow(BASE, LENGTH);
+  // Coprime with 31 and small enough that n * MULTIPLIER never overflows a long for n < SPACE
+  private static final long MULTIPLIER = 182_361_257L;
+  private static final long OFFSET = 9_876_543_210L;
+  // Inverse of the check symbol's weight (LENGTH + 1) mod BASE
+  private static final int CHECK_WEIGHT_INVERSE = inverse(LENGTH + 1);
+
+  private final Supplier<Future<Long>> nextBlock;
+  private final ThreadLocal<Blocks> blocks = ThreadLocal.withInitial(Blocks::new);
+
+  /** {@code nextBlock} returns a fresh block id from a sequence that never repeats. */
+  public BookingReferenceAllocator(Supplier<Future<Long>> nextBlock) {
+    this.nextBlock = nextBlock;
+  }
+
+  public Future<String> next() {
+    Blocks state = blocks.get();
+    if (state.remaining() > 0) {
+      return Future.succeededFuture(encode(state.take()));
+    }
+    return collect(state, new ArrayList<>(1), 1).map(refs -> refs.get(0));
+  }
+
+  /** {@code count} references, all from this thread's blocks. */
+  public Future<List<String>> next(int count) {
+    List<String> refs = new ArrayList<>(count);
+    return collect(blocks.get(), refs, count);
+  }
+
+  private Future<List<String>> collect(Blocks state, List<String> refs, int count) {
+    while (refs.size() < count && state.remaining() > 0) {
+      refs.add(encode(state.take()));
+    }
+    if (refs.size() == count) {
+      return Future.succeededFuture(refs);
+    }
+    return state.refill().compose(v -> collect(state, refs, count));
+  }
+
+  static String encode(long number) {
+    if (number < 0 || number >= SPACE) {
+      throw new IllegalStateException("Booking reference space exhausted at " + number);
+    }
+    long scrambled = Math.floorMod(number * MULTIPLIER + OFFSET, SPACE);
+    char[] chars = new char[LENGTH + 1];
+    for (int i = LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET.charAt((int) (scrambled % BASE));
+      scrambled /= BASE;
+    }
+    chars[LENGTH] = ALPHABET.charAt(checkValue(chars, LENGTH));
+    return new String(chars);
+  }
+
+  /** True for a well-formed reference whose check symbol matches. */
+  public static boolean isValid(String reference) {
+    if (reference == null || reference.length() != LENGTH + 1) {
+      return false;
+    }
+    char[] chars = reference.toCharArray();
+    for (char c : chars) {
+      if (ALPHABET.indexOf(c) < 0) {
+        return false;
+      }
+    }
+    return ALPHABET.charAt(checkValue(chars, LENGTH)) == chars[LENGTH];
+  }
+
+  /** The symbol value that brings sum((i + 1) * value[i]) over all eight positions to 0 mod BASE. */
+  private static int checkValue(char[] chars, int length) {
+    int sum = 0;
+    for (int i = 0; i < length; i++) {
+      sum += (i + 1) * ALPHABET.indexOf(chars[i]);
+    }
+    return Math.floorMod(-sum * CHECK_WEIGHT_INVERSE, BASE);
+  }
+
+  private static int inverse(int value) {
+    for (int k = 1; k < BASE; k++) {
+      if (value * k % BASE == 1) {
+        return k;
+      }
+    }
+    throw new IllegalArgumentException(value + " has no inverse mod " + BASE);
+  }
+
+  private static long pow(int base, int exponent) {
+    long result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= base;
+    }
+    return result;
+  }
+
+  /** One thread's current block, plus the next one fetched in the background once half is used. */
+  private final class Blocks {
+    private long next;
+    private long end;
+    private Future<Long> prefetched;
+
+    int remaining() {
+      return (int) (end - next);
+    }
+
+    long take() {
+      long number = next++;
+      if (prefetched == null && remaining() <= BLOCK_SIZE / 2) {
+        prefetched = nextBlock.get();
+      }
+      return number;
+    }
+
+    Future<Void> refill() {
+      Future<Long> block = prefetched != null ? prefetched : nextBlock.get();
+      prefetched = null;
+      Promise<Void> ready = Promise.promise();
+      block.onComplete(ar -> {
+        if (ar.succeeded()) {
+          // Another caller on this thread may have installed a block while this one was in flight
+          if (remaining() == 0) {
+            next = ar.result() * BLOCK_SIZE;
+            end = next + BLOCK_SIZE;
+          }
+          ready.complete();
+        } else {
+          ready.fail(ar.cause());
+        }
+      });
+      return ready.future();
+    }
+  }
+}
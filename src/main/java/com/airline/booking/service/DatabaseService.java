@@ -1,5 +1,21 @@
 package com.airline.booking.service;
 
+import com.airline.booking.metrics.AccessLog;
+import com.airline.booking.metrics.MetricsRegistry;
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Booking;
+import com.airline.booking.model.Flight;
+import com.airline.booking.model.Passenger;
+import com.airline.booking.repository.AirlineRepository;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.FlightRepository;
+import com.airline.booking.repository.PassengerRepository;
+import com.airline.booking.repository.jdbc.JdbcAirlineRepository;
+import com.airline.booking.repository.jdbc.JdbcBookingRepository;
+import com.airline.booking.repository.jdbc.JdbcFlightRepository;
+import com.airline.booking.repository.jdbc.JdbcPassengerRepository;
+import com.airline.booking.repository.jdbc.SqlStatement;
+import com.airline.booking.repository.memory.InMemoryStorage;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
@@ -7,74 +23,488 @@ import io.vertx.jdbcclient.JDBCConnectOptions;
 import io.vertx.jdbcclient.JDBCPool;
 import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class DatabaseService {
 
+  /** The write pool: transactions and statements with {@link SqlStatement.Intent#WRITE}. */
+  public static final String POOL_NAME = "airline-db";
+  /** Autocommit reads on the primary: statements with {@link SqlStatement.Intent#PRIMARY_READ}. */
+  public static final String PRIMARY_READ_POOL_NAME = "airline-db-primary-read";
+  /** The read pool, optionally on a replica: statements with {@link SqlStatement.Intent#READ}. */
+  public static final String READ_POOL_NAME = "airline-db-read";
+  /** Version of schema.sql; bump on every change and add the step that upgrades the previous version to MIGRATIONS. */
+  public static final int SCHEMA_VERSION = 3;
+
+  /**
+   * Upgrade steps for file-backed databases, keyed by the version they produce: each takes a database
+   * one version behind to that version without touching its rows. schema.sql always builds the latest
+   * version directly. v1 is the schema as it was before versions were recorded.
+   */
+  static final Map<Integer, List<String>> MIGRATIONS = Map.of(
+          2, List.of("CREATE SEQUENCE IF NOT EXISTS booking_reference_blocks START WITH 1"),
+          3, List.of("CREATE UNIQUE INDEX IF NOT EXISTS idx_passengers_passport ON passengers(passport_number)"));
+
+  /**
+   * Checks run before a migration, keyed like {@link #MIGRATIONS}: each row returned describes data the
+   * step cannot upgrade without losing it, and startup fails listing every row so it can be fixed by hand.
+   */
+  static final Map<Integer, String> MIGRATION_CONFLICTS = Map.of(
+          3, "SELECT 'passport ' || passport_number || ' is held by passengers ' || " +
+                  "LISTAGG(id, ', ') WITHIN GROUP (ORDER BY id) AS conflict FROM passengers " +
+                  "WHERE passport_number IS NOT NULL GROUP BY passport_number HAVING COUNT(*) > 1 ORDER BY passport_number");
+
+  private static final Logger log = LoggerFactory.getLogger(com.airline.booking.service.DatabaseService.class);
+
   private final Vertx vertx;
   private final Pool pool;
+  private final Pool primaryReadPool;
+  private final Pool readPool;
+  private final boolean inMemory;
+  // DB_RESET: drop and reseed a file-backed database instead of upgrading it
+  private final boolean reset;
+  // Set when STORAGE=memory: no pool, the repositories below are backed by these maps
+  private final InMemoryStorage memoryStorage;
+  private final AirlineRepository airlines;
+  private final FlightRepository flights;
+  private final PassengerRepository passengers;
+  private final BookingRepository bookings;
+  private final SeatInventory seatInventory;
+  private final FlightSearchIndex flightSearchIndex;
+  private final FareCalendar fareCalendar;
+  private final ItineraryEngine itineraries;
+  private final AirlineSearchIndex airlineSearchIndex;
+  private final PassengerIdentityIndex passengerIdentities;
+  private final BookingReferenceAllocator bookingReferences;
+  private final IdempotencyCache<Booking> idempotentBookings;
+  private final TableVersions tableVersions = new TableVersions();
+  private final AdmissionController admission;
+  // Identical concurrent reads share one load
+  private final SingleFlight<String, Flight> flightReads = new SingleFlight<>();
+  private final SingleFlight<String, Booking> bookingReads = new SingleFlight<>();
+  private final SingleFlight<String, List<Flight>> flightSearches = new SingleFlight<>();
+  private final MetricsRegistry metrics;
 
   // Updated constructor to accept config from MainVerticle
   public DatabaseService(Vertx vertx, JsonObject config) {
     this.vertx = vertx;
+    this.metrics = new MetricsRegistry(AccessLog.fromConfig(config));
 
     // Use config from application.json with defaults as fallbacks
+    // e.g. jdbc:h2:file:./data/airline for a database that survives restarts
     String jdbcUrl = config.getString("DB_URL", "jdbc:h2:mem:airline;DB_CLOSE_DELAY=-1");
     String user = config.getString("DB_USER", "sa");
     String password = config.getString("DB_PASSWORD", "");
     int poolSize = config.getInteger("DB_POOL_SIZE", 16);
+    int searchIndexMaxFlights = config.getInteger("SEARCH_INDEX_MAX_FLIGHTS", 50_000);
+    // Sizes the passport/email Bloom filters (~1.2 MB each at 1M); more passengers only raise false positives
+    long expectedPassengers = config.getLong("PASSENGER_INDEX_EXPECTED", 1_000_000L);
+    // Requests waiting for a connection beyond this fail fast instead of queueing without bound
+    int poolMaxWaitQueue = config.getInteger("DB_POOL_MAX_WAIT_QUEUE", poolSize * 8);
+    // Reads get their own pools so a burst of searches cannot starve bookings of connections.
+    // Reads that must be current go to the primary; the rest to DB_READ_URL, a replica if set
+    int primaryReadPoolSize = config.getInteger("DB_PRIMARY_READ_POOL_SIZE", 8);
+    int primaryReadPoolMaxWaitQueue = config.getInteger("DB_PRIMARY_READ_POOL_MAX_WAIT_QUEUE", primaryReadPoolSize * 8);
+    String readUrl = config.getString("DB_READ_URL", jdbcUrl);
+    String readUser = config.getString("DB_READ_USER", user);
+    String readPassword = config.getString("DB_READ_PASSWORD", password);
+    int readPoolSize = config.getInteger("DB_READ_POOL_SIZE", 8);
+    int readPoolMaxWaitQueue = config.getInteger("DB_READ_POOL_MAX_WAIT_QUEUE", readPoolSize * 8);
+    // Completed POST /bookings responses kept for Idempotency-Key retries
+    int idempotencyMaxKeys = config.getInteger("IDEMPOTENCY_MAX_KEYS", 100_000);
+    long idempotencyTtlSeconds = config.getLong("IDEMPOTENCY_TTL_SECONDS", 86_400L);
+    // "jdbc" (default) or "memory" for the lock-striped in-memory repositories, seeded from data.sql
+    String storage = config.getString("STORAGE", "jdbc");
+
+    this.inMemory = jdbcUrl.startsWith("jdbc:h2:mem:");
+    this.reset = config.getBoolean("DB_RESET", false);
+
+    if ("memory".equalsIgnoreCase(storage)) {
+      this.pool = null;
+      this.primaryReadPool = null;
+      this.readPool = null;
+      this.memoryStorage = new InMemoryStorage();
+      this.airlines = memoryStorage.airlines();
+      this.flights = memoryStorage.flights();
+      this.passengers = memoryStorage.passengers();
+      this.bookings = memoryStorage.bookings();
+    } else {
+      // Create every JDBC pool immediately
+      this.pool = createPool(vertx, withStatementCache(jdbcUrl, config), user, password,
+              poolSize, poolMaxWaitQueue, POOL_NAME);
+      this.primaryReadPool = createPool(vertx, withStatementCache(jdbcUrl, config), user, password,
+              primaryReadPoolSize, primaryReadPoolMaxWaitQueue, PRIMARY_READ_POOL_NAME);
+      this.readPool = createPool(vertx, withStatementCache(readUrl, config), readUser, readPassword,
+              readPoolSize, readPoolMaxWaitQueue, READ_POOL_NAME);
+      this.memoryStorage = null;
+      this.airlines = new JdbcAirlineRepository(pool, primaryReadPool, readPool, metrics);
+      this.flights = new JdbcFlightRepository(pool, primaryReadPool, readPool, metrics);
+      this.passengers = new JdbcPassengerRepository(pool, primaryReadPool, readPool, metrics);
+      this.bookings = new JdbcBookingRepository(pool, primaryReadPool, readPool, metrics);
+      metrics.registerPool(vertx, POOL_NAME, pool, poolSize);
+      metrics.registerPool(vertx, PRIMARY_READ_POOL_NAME, primaryReadPool, primaryReadPoolSize);
+      metrics.registerPool(vertx, READ_POOL_NAME, readPool, readPoolSize);
+      // Every statement shows up in /metrics from the start, including the ones never executed yet
+      for (SqlStatement statement : SqlStatement.values()) {
+        metrics.query(statement.statementName());
+      }
+    }
+    this.seatInventory = new SeatInventory(flights, bookings);
+    this.flightSearchIndex = new FlightSearchIndex(flights, searchIndexMaxFlights);
+    this.fareCalendar = new FareCalendar(flights, config.getInteger("FARE_CALENDAR_MAX_MONTHS", 10_000));
+    this.itineraries = new ItineraryEngine(vertx, flights,
+            config.getInteger("ITINERARY_WORKERS", Runtime.getRuntime().availableProcessors()),
+            config.getInteger("ITINERARY_HORIZON_DAYS", 365));
+    this.airlineSearchIndex = new AirlineSearchIndex(airlines);
+    this.passengerIdentities = new PassengerIdentityIndex(passengers, expectedPassengers);
+    this.bookingReferences = new BookingReferenceAllocator(bookings::nextReferenceBlock);
+    // Starts at what the write pool can hold, connections plus waiters, and adapts from there
+    this.admission = new AdmissionController(
+            config.getInteger("ADMISSION_INITIAL_LIMIT", poolSize + poolMaxWaitQueue),
+            config.getInteger("ADMISSION_MIN_LIMIT", poolSize),
+            config.getInteger("ADMISSION_MAX_LIMIT", 1024),
+            config.getLong("ADMISSION_TARGET_LATENCY_MS", 250L), TimeUnit.MILLISECONDS);
+    this.idempotentBookings = new IdempotencyCache<>(idempotencyTtlSeconds, TimeUnit.SECONDS, idempotencyMaxKeys);
+
+    metrics.gauge("search_index_hits_total", "Flight searches served from the route index", flightSearchIndex::hits);
+    metrics.gauge("search_index_misses_total", "Flight searches that loaded a route from the database", flightSearchIndex::misses);
+    metrics.gauge("search_index_evictions_total", "Routes evicted from the search index", flightSearchIndex::evictions);
+    metrics.gauge("search_index_flights", "Flights currently cached in the search index", flightSearchIndex::size);
+    metrics.gauge("fare_calendar_hits_total", "Fare calendar months served from memory", fareCalendar::hits);
+    metrics.gauge("fare_calendar_misses_total", "Fare calendar months loaded from the database", fareCalendar::misses);
+    metrics.gauge("fare_calendar_months", "Route months currently cached in the fare calendar", fareCalendar::size);
+    metrics.gauge("itinerary_graph_flights", "Flights in the in-memory itinerary graph", itineraries::size);
+    metrics.gauge("airline_index_airlines", "Airlines in the in-memory search index", airlineSearchIndex::size);
+    metrics.gauge("passenger_index_passengers", "Passengers in the in-memory identity index", passengerIdentities::size);
+    metrics.gauge("passenger_index_filtered_total", "Passenger lookups answered by the Bloom filter alone", passengerIdentities::filtered);
+    metrics.gauge("flight_reads_coalesced_total", "GET /flights/:id requests that joined a read already in flight", flightReads::coalesced);
+    metrics.gauge("booking_reads_coalesced_total", "GET /bookings/:id requests that joined a read already in flight", bookingReads::coalesced);
+    metrics.gauge("flight_searches_coalesced_total", "Flight searches that joined an identical search already in flight", flightSearches::coalesced);
+    metrics.gauge("admission_limit", "Current adaptive concurrency limit", admission::limit);
+    metrics.gauge("admission_in_flight", "Requests currently admitted", admission::inFlight);
+    metrics.gauge("admission_shed_total", "Requests rejected with 503 by admission control", admission::shed);
+    metrics.gauge("idempotency_keys", "Idempotency keys currently remembered for POST /bookings", idempotentBookings::size);
+    metrics.gauge("idempotency_replays_total", "POST /bookings retries answered from an earlier result", idempotentBookings::replays);
+    metrics.gauge("access_log_dropped_total", "Access log entries dropped because the writer fell behind", metrics.accessLog()::dropped);
+    metrics.gauge("access_log_sampled_out_total", "Successful requests left out of the access log by sampling", metrics.accessLog()::sampledOut);
+  }
 
+  /**
+   * The Vert.x JDBC client prepares a fresh java.sql.PreparedStatement per execution, so statement reuse
+   * has to happen in the driver: H2 keeps parsed statements per connection in an LRU keyed by SQL text,
+   * only 8 deep by default. Size it to hold every {@link SqlStatement} plus headroom for ad-hoc SQL,
+   * unless the URL already sets it. DB_STATEMENT_CACHE_SIZE overrides the size.
+   */
+  static String withStatementCache(String jdbcUrl, JsonObject config) {
+    if (!jdbcUrl.startsWith("jdbc:h2:") || jdbcUrl.toUpperCase(Locale.ROOT).contains("QUERY_CACHE_SIZE")) {
+      return jdbcUrl;
+    }
+    int size = config.getInteger("DB_STATEMENT_CACHE_SIZE", SqlStatement.distinctSqlCount() + 8);
+    return jdbcUrl + ";QUERY_CACHE_SIZE=" + size;
+  }
+
+  private static Pool createPool(Vertx vertx, String jdbcUrl, String user, String password,
+                                 int maxSize, int maxWaitQueue, String name) {
     JDBCConnectOptions connectOptions = new JDBCConnectOptions()
             .setJdbcUrl(jdbcUrl)
             .setUser(user)
             .setPassword(password);
 
-    PoolOptions poolOptions = new PoolOptions().setMaxSize(poolSize);
-
-    // Create JDBC pool immediately
-    this.pool = JDBCPool.pool(vertx, connectOptions, poolOptions);
+    // The name ties the pool to the ConnectionPoolMetrics Vert.x creates for it
+    PoolOptions poolOptions = new PoolOptions()
+            .setMaxSize(maxSize)
+            .setMaxWaitQueueSize(maxWaitQueue)
+            .setName(name);
+    return JDBCPool.pool(vertx, connectOptions, poolOptions);
   }
 
+  /** The JDBC write pool, or null when running on in-memory storage. */
   public Pool getPool() {
     return pool;
   }
 
+  /** The JDBC pool for reads that must be current, or null when running on in-memory storage. */
+  public Pool getPrimaryReadPool() {
+    return primaryReadPool;
+  }
+
+  /** The JDBC read pool, or null when running on in-memory storage. */
+  public Pool getReadPool() {
+    return readPool;
+  }
+
+  public AirlineRepository airlines() {
+    return airlines;
+  }
+
+  public FlightRepository flights() {
+    return flights;
+  }
+
+  public PassengerRepository passengers() {
+    return passengers;
+  }
+
+  public BookingRepository bookings() {
+    return bookings;
+  }
+
+  public SeatInventory seatInventory() {
+    return seatInventory;
+  }
+
+  public FlightSearchIndex flightSearchIndex() {
+    return flightSearchIndex;
+  }
+
+  /** Per-day fare aggregates; kept current alongside {@link #flightSearchIndex()}. */
+  public FareCalendar fareCalendar() {
+    return fareCalendar;
+  }
+
+  /** Connecting-itinerary search over the in-memory flight graph. */
+  public ItineraryEngine itineraries() {
+    return itineraries;
+  }
+
+  /** Applies a committed flight insert to every in-memory view of flights. */
+  public void flightAdded(Flight flight) {
+    flightSearchIndex.invalidate(flight.from(), flight.to(), LocalDateTime.parse(flight.departure()).toLocalDate());
+    fareCalendar.flightAdded(flight);
+    itineraries.flightAdded(flight);
+  }
+
+  /** Flights were inserted on the route and day without their rows at hand, e.g. by bulk import. */
+  public void routeChanged(String from, String to, LocalDate date) {
+    flightSearchIndex.invalidate(from, to, date);
+    fareCalendar.invalidate(from, to, date);
+    itineraries.refreshRoute(from, to, date)
+            .onFailure(err -> log.warn("Itinerary graph refresh failed for {} -> {} on {}: {}", from, to, date, err.getMessage()));
+  }
+
+  /** Applies a committed booking ({@code delta < 0}) or cancellation to every in-memory view of the flight. */
+  public void seatsChanged(long flightId, int delta) {
+    flightSearchIndex.adjustSeats(flightId, delta);
+    fareCalendar.adjustSeats(flightId, delta);
+    itineraries.adjustSeats(flightId, delta);
+  }
+
+  /** Serves airline search and autocomplete; handlers {@link AirlineSearchIndex#add} each new airline. */
+  public AirlineSearchIndex airlineSearchIndex() {
+    return airlineSearchIndex;
+  }
+
+  /** Passport and email lookups, and the only way passengers should be registered. */
+  public PassengerIdentityIndex passengerIdentities() {
+    return passengerIdentities;
+  }
+
+  public BookingReferenceAllocator bookingReferences() {
+    return bookingReferences;
+  }
+
+  /**
+   * Reads are keyed by what they load plus the table version seen before loading, so a request never
+   * joins a load that started before a write it has already observed (and tags in its ETag).
+   */
+  public SingleFlight<String, Flight> flightReads() {
+    return flightReads;
+  }
+
+  public SingleFlight<String, Booking> bookingReads() {
+    return bookingReads;
+  }
+
+  /** Keyed by the normalized search parameters and table version, see FlightHandler#searchFlights. */
+  public SingleFlight<String, List<Flight>> flightSearches() {
+    return flightSearches;
+  }
+
+  /** Shared concurrency limit in front of the pool, applied per route by AdmissionHandler. */
+  public AdmissionController admission() {
+    return admission;
+  }
+
+  /** Change counters for conditional GETs; handlers bump them after every committed write. */
+  public TableVersions tableVersions() {
+    return tableVersions;
+  }
+
+  /** Outcomes of POST /bookings by Idempotency-Key, shared by every verticle instance. */
+  public IdempotencyCache<Booking> idempotentBookings() {
+    return idempotentBookings;
+  }
+
+  public MetricsRegistry metrics() {
+    return metrics;
+  }
+
+  /**
+   * Brings the schema up to date. In-memory databases are always rebuilt from schema.sql/data.sql.
+   * File-backed databases ({@code jdbc:h2:file:...}) record the applied version in schema_version and
+   * skip initialization entirely when it matches {@link #SCHEMA_VERSION}, so data survives restarts.
+   * An older file database is upgraded in place through {@link #MIGRATIONS}; only an empty one, or any
+   * one when {@code DB_RESET} is set, is built and seeded from the scripts. A database newer than this
+   * code fails startup rather than being touched. In-memory storage is seeded from the same scripts, see {@link #seedMemoryStorage}.
+   * The airline, passenger and itinerary indexes are warmed afterwards so the first request does not pay for it;
+   * if that fails, each index retries on first use instead of failing startup.
+   */
   public Future<Void> initialize() {
-    try {
-      // Load schema.sql and data.sql from resources
-      String schema = readResourceFile("schema.sql");
-      String data = readResourceFile("data.sql");
-
-      String[] statements = Arrays.stream((schema + "\n" + data).split(";"))
-              .map(String::trim)
-              .filter(s -> !s.isEmpty())
-              .toArray(String[]::new);
-
-      Future<Void> future = Future.succeededFuture();
-      for (String sql : statements) {
-        future = future.compose(v -> pool.query(sql).execute().mapEmpty());
+    return initializeStorage().compose(v -> Future.join(
+            warm("Airline search index", airlineSearchIndex.load()),
+            warm("Passenger identity index", passengerIdentities.load()),
+            warm("Itinerary graph", itineraries.load()))).mapEmpty();
+  }
+
+  private static Future<Void> warm(String index, Future<Void> load) {
+    return load.recover(err -> {
+      log.warn("{} not loaded at startup: {}", index, err.getMessage());
+      return Future.succeededFuture();
+    });
+  }
+
+  private Future<Void> initializeStorage() {
+    long start = System.nanoTime();
+    if (memoryStorage != null) {
+      return seedMemoryStorage().onSuccess(v -> log.info("In-memory storage seeded in {} ms",
+              (System.nanoTime() - start) / 1_000_000));
+    }
+    return pool.withConnection(conn -> {
+      if (inMemory) {
+        return loadScripts(conn).map("rebuilt in memory");
       }
+      return conn.query("CREATE TABLE IF NOT EXISTS schema_version (version INT PRIMARY KEY, " +
+                      "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)").execute()
+              .compose(v -> conn.query("SELECT (SELECT MAX(version) FROM schema_version) AS version, " +
+                      "(SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' " +
+                      "AND TABLE_NAME = 'AIRLINES') AS tables").execute())
+              .compose(rows -> {
+                Row row = rows.iterator().next();
+                if (reset) {
+                  return rebuild(conn).map("DB_RESET set, rebuilt as v" + SCHEMA_VERSION);
+                }
+                if (row.getLong("TABLES") == 0) {
+                  return rebuild(conn).map("created v" + SCHEMA_VERSION);
+                }
+                // Tables without a recorded version predate schema_version, i.e. v1
+                int current = row.getInteger("VERSION") != null ? row.getInteger("VERSION") : 1;
+                if (current == SCHEMA_VERSION) {
+                  return Future.succeededFuture("schema v" + SCHEMA_VERSION + " current, skipped");
+                }
+                if (current > SCHEMA_VERSION) {
+                  return Future.failedFuture(new IllegalStateException("Database schema v" + current
+                          + " is newer than this build (v" + SCHEMA_VERSION + ")"));
+                }
+                return migrate(conn, current).map("migrated from v" + current + " to v" + SCHEMA_VERSION);
+              });
+    }).onSuccess(outcome -> log.info("Database initialized in {} ms ({})",
+            (System.nanoTime() - start) / 1_000_000, outcome)).mapEmpty();
+  }
+
+  /** Drops everything the scripts create and builds the current schema with its seed data. */
+  private Future<Void> rebuild(SqlConnection conn) {
+    return loadScripts(conn).compose(v -> recordVersion(conn, SCHEMA_VERSION));
+  }
 
-      return future;
-    } catch (Exception e) {
-      return Future.failedFuture(e);
+  /**
+   * Applies every migration after {@code from} in order, each with its recorded version in one transaction.
+   * Stops before the first step whose conflict check finds rows, leaving that version unapplied.
+   */
+  private Future<Void> migrate(SqlConnection conn, int from) {
+    Future<Void> chain = Future.succeededFuture();
+    for (int version = from + 1; version <= SCHEMA_VERSION; version++) {
+      int target = version;
+      chain = chain.compose(v -> checkConflicts(conn, target))
+              .compose(v -> conn.begin())
+              .compose(tx -> {
+                Future<Void> step = Future.succeededFuture();
+                for (String statement : MIGRATIONS.get(target)) {
+                  step = step.compose(v -> conn.query(statement).execute().mapEmpty());
+                }
+                return step.compose(v -> recordVersion(conn, target))
+                        .compose(v -> tx.commit(), err -> tx.rollback().transform(ignored -> Future.failedFuture(err)));
+              });
     }
+    return chain;
   }
 
-  private String readResourceFile(String resourceName) throws Exception {
-    InputStream in = getClass().getClassLoader().getResourceAsStream(resourceName);
-    if (in == null) {
-      throw new RuntimeException(resourceName + " not found in classpath");
+  private static Future<Void> checkConflicts(SqlConnection conn, int version) {
+    String query = MIGRATION_CONFLICTS.get(version);
+    if (query == null) {
+      return Future.succeededFuture();
     }
-    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    return conn.query(query).execute().compose(rows -> {
+      if (rows.size() == 0) {
+        return Future.succeededFuture();
+      }
+      List<String> conflicts = new ArrayList<>(rows.size());
+      rows.forEach(row -> conflicts.add(row.getString("CONFLICT")));
+      log.error("Schema v{} cannot be applied, {} conflict(s) need resolving first: {}", version, conflicts.size(), conflicts);
+      return Future.failedFuture(new IllegalStateException("Database cannot be upgraded to schema v" + version
+              + " until these are resolved: " + String.join("; ", conflicts)));
+    });
+  }
+
+  private static Future<Void> recordVersion(SqlConnection conn, int version) {
+    return conn.preparedQuery("MERGE INTO schema_version (version) KEY (version) VALUES (?)")
+            .execute(Tuple.of(version))
+            .mapEmpty();
+  }
+
+  /**
+   * Runs both scripts server-side with H2's RUNSCRIPT on one connection: two round-trips instead of one
+   * per statement, and H2 parses the files itself so semicolons inside literals are safe.
+   */
+  private Future<Void> loadScripts(SqlConnection conn) {
+    return conn.query("RUNSCRIPT FROM 'classpath:/schema.sql'").execute()
+            .compose(v -> conn.query("RUNSCRIPT FROM 'classpath:/data.sql'").execute())
+            .mapEmpty();
+  }
+
+  /**
+   * Runs schema.sql/data.sql against a throwaway H2 memory database and copies every row, with its id,
+   * into the in-memory repositories. Keeps one source of seed data for both storage backends.
+   */
+  private Future<Void> seedMemoryStorage() {
+    Pool seed = JDBCPool.pool(vertx,
+            new JDBCConnectOptions().setJdbcUrl("jdbc:h2:mem:seed-" + UUID.randomUUID()).setUser("sa").setPassword(""),
+            new PoolOptions().setMaxSize(1));
+    return seed.withConnection(conn -> loadScripts(conn)
+                    .compose(v -> copy(conn, "airlines", Airline::fromRow, memoryStorage::restore))
+                    .compose(v -> copy(conn, "flights", Flight::fromRow, memoryStorage::restore))
+                    .compose(v -> copy(conn, "passengers", Passenger::fromRow, memoryStorage::restore))
+                    .compose(v -> copy(conn, "bookings", Booking::fromRow, memoryStorage::restore)))
+            .eventually(seed::close);
+  }
+
+  private static <T> Future<Void> copy(SqlConnection conn, String table, Function<Row, T> mapper, Consumer<T> sink) {
+    return conn.query("SELECT * FROM " + table + " ORDER BY id").execute()
+            .onSuccess(rows -> rows.forEach(row -> sink.accept(mapper.apply(row))))
+            .mapEmpty();
   }
 
   public void close() {
     if (pool != null) {
       pool.close();
+      primaryReadPool.close();
+      readPool.close();
     }
+    itineraries.close();
+    metrics.accessLog().close();
   }
 }
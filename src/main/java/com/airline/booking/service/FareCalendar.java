@@ -0,0 +1,160 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-route, per-month fare aggregates for {@code GET /flights/calendar}: for every day, the lowest
+ * fare still on sale, the seats left and the number of flights. A month is loaded with one
+ * departure_time range query through {@link FlightRepository#findByRoute(String, String, LocalDate, LocalDate)}
+ * and then maintained in place, so a month view costs one lookup instead of a search per day.
+ *
+ * Writers keep it fresh the same way as {@link FlightSearchIndex}: {@link #flightAdded} after a flight
+ * is inserted, {@link #adjustSeats} after a booking or cancellation commits, and {@link #invalidate}
+ * when flights arrive in bulk. An update only rebuilds the day it touches. Months share the search
+ * index's {@link RouteCache}, bounded here by the number of cached months.
+ */
+public class FareCalendar {
+
+  public record MonthKey(String from, String to, YearMonth month) {}
+
+  /** {@code lowestFare} is null when no flight that day has a seat left. */
+  public record Day(String date, Double lowestFare, int seatsAvailable, int flights) {}
+
+  private record Fare(long flightId, double price, int seats) {}
+
+  /** Immutable; updates copy the day arrays and rebuild one day. */
+  private record Month(YearMonth month, Fare[][] fares, Day[] days) {
+
+    static Month of(YearMonth month, List<Flight> flights) {
+      List<List<Fare>> byDay = new ArrayList<>();
+      for (int i = 0; i < month.lengthOfMonth(); i++) {
+        byDay.add(new ArrayList<>());
+      }
+      for (Flight flight : flights) {
+        byDay.get(dayOf(flight) - 1).add(fareOf(flight));
+      }
+      Fare[][] fares = new Fare[byDay.size()][];
+      Day[] days = new Day[byDay.size()];
+      for (int i = 0; i < fares.length; i++) {
+        fares[i] = byDay.get(i).toArray(Fare[]::new);
+        days[i] = summarize(month.atDay(i + 1), fares[i]);
+      }
+      return new Month(month, fares, days);
+    }
+
+    Month withDay(int day, Fare[] dayFares) {
+      Fare[][] fares = this.fares.clone();
+      Day[] days = this.days.clone();
+      fares[day - 1] = dayFares;
+      days[day - 1] = summarize(month.atDay(day), dayFares);
+      return new Month(month, fares, days);
+    }
+
+    List<Long> flightIds() {
+      List<Long> ids = new ArrayList<>();
+      for (Fare[] day : fares) {
+        for (Fare fare : day) {
+          ids.add(fare.flightId());
+        }
+      }
+      return ids;
+    }
+
+    private static Day summarize(LocalDate date, Fare[] fares) {
+      Double lowest = null;
+      int seats = 0;
+      for (Fare fare : fares) {
+        seats += fare.seats();
+        if (fare.seats() > 0 && (lowest == null || fare.price() < lowest)) {
+          lowest = fare.price();
+        }
+      }
+      return new Day(date.toString(), lowest, seats, fares.length);
+    }
+  }
+
+  private final FlightRepository flightStore;
+  private final RouteCache<MonthKey, Month> months;
+
+  public FareCalendar(FlightRepository flightStore, int maxMonths) {
+    this.flightStore = flightStore;
+    this.months = new RouteCache<>(maxMonths, month -> 1, Month::flightIds);
+  }
+
+  /** One entry per day of the month, in order. */
+  public Future<List<Day>> month(String from, String to, YearMonth month) {
+    return months.get(new MonthKey(from, to, month),
+                    () -> flightStore.findByRoute(from, to, month.atDay(1), month.plusMonths(1).atDay(1))
+                            .map(flights -> Month.of(month, flights)))
+            .map(m -> List.of(m.days()));
+  }
+
+  /** Adds a committed flight to its month, if that month is cached. */
+  public void flightAdded(Flight flight) {
+    MonthKey key = new MonthKey(flight.from(), flight.to(), YearMonth.from(departure(flight)));
+    int day = dayOf(flight);
+    months.update(key, month -> {
+      Fare[] current = month.fares()[day - 1];
+      Fare[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = fareOf(flight);
+      return month.withDay(day, updated);
+    });
+  }
+
+  /** Applies a committed seat change to the day of a flight, if its month is cached. */
+  public void adjustSeats(long flightId, int delta) {
+    months.seatChanged(flightId, month -> {
+      Fare[][] fares = month.fares();
+      for (int i = 0; i < fares.length; i++) {
+        for (int j = 0; j < fares[i].length; j++) {
+          Fare fare = fares[i][j];
+          if (fare.flightId() == flightId) {
+            Fare[] updated = fares[i].clone();
+            updated[j] = new Fare(flightId, fare.price(), fare.seats() + delta);
+            return month.withDay(i + 1, updated);
+          }
+        }
+      }
+      return month;
+    });
+  }
+
+  /** Drops the month containing {@code date} so the next request reloads it, e.g. after a bulk import. */
+  public void invalidate(String from, String to, LocalDate date) {
+    months.remove(new MonthKey(from, to, YearMonth.from(date)));
+  }
+
+  public long hits() {
+    return months.hits();
+  }
+
+  public long misses() {
+    return months.misses();
+  }
+
+  public int size() {
+    return months.weight();
+  }
+
+  private static LocalDateTime departure(Flight flight) {
+    return LocalDateTime.parse(flight.departure());
+  }
+
+  private static int dayOf(Flight flight) {
+    return departure(flight).getDayOfMonth();
+  }
+
+  private static Fare fareOf(Flight flight) {
+    return new Fare(flight.id(), flight.price() != null ? flight.price() : 0.0,
+            flight.seatsAvailable() != null ? flight.seatsAvailable() : 0);
+  }
+}
@@ -0,0 +1,70 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory index of flights keyed by (from, to, departure date). A warm route is answered
+ * without touching the store; a cold one is loaded through {@link FlightRepository#findByRoute}.
+ *
+ * Writers keep it fresh: {@link #invalidate} after a flight is added and {@link #adjustSeats}
+ * after a booking or cancellation commits. Routes are kept in a {@link RouteCache} bounded by
+ * the total number of cached flights.
+ */
+public class FlightSearchIndex {
+
+  public record RouteKey(String from, String to, LocalDate date) {}
+
+  private final FlightRepository flightStore;
+  private final RouteCache<RouteKey, List<Flight>> routes;
+
+  public FlightSearchIndex(FlightRepository flightStore, int maxFlights) {
+    this.flightStore = flightStore;
+    this.routes = new RouteCache<>(maxFlights, List::size, flights -> flights.stream().map(Flight::id).toList());
+  }
+
+  /** Returns all flights on the route that depart on the given date, ordered by departure time. */
+  public Future<List<Flight>> search(String from, String to, LocalDate date) {
+    return routes.get(new RouteKey(from, to, date), () -> flightStore.findByRoute(from, to, date).map(List::copyOf));
+  }
+
+  /** Drops a route so the next search reloads it, e.g. after a flight was added to it. */
+  public void invalidate(String from, String to, LocalDate date) {
+    routes.remove(new RouteKey(from, to, date));
+  }
+
+  /** Applies a committed seat change to the cached copy of a flight, if that flight is indexed. */
+  public void adjustSeats(long flightId, int delta) {
+    routes.seatChanged(flightId, flights -> {
+      List<Flight> updated = new ArrayList<>(flights);
+      updated.replaceAll(f -> f.id() == flightId ? withSeats(f, f.seatsAvailable() + delta) : f);
+      return List.copyOf(updated);
+    });
+  }
+
+  public long hits() {
+    return routes.hits();
+  }
+
+  public long misses() {
+    return routes.misses();
+  }
+
+  public long evictions() {
+    return routes.evictions();
+  }
+
+  public int size() {
+    return routes.weight();
+  }
+
+  private static Flight withSeats(Flight f, int seats) {
+    return new Flight(f.id(), f.airlineId(), f.flightNumber(), f.from(), f.to(), f.departure(), f.arrival(),
+            seats, f.price());
+  }
+}
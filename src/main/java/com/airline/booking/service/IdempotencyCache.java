@@ -0,0 +1,107 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests carrying an {@code Idempotency-Key}, kept for a fixed TTL and bounded in size.
+ * The first request with a key runs the action; retries with the same key get the same future, so a
+ * retry that arrives while the original is still running attaches to it instead of starting over.
+ *
+ * Every entry lives for the same TTL, so insertion order is also expiry order: one FIFO queue serves
+ * both expiry and the size bound. Failures are only remembered when the caller says they are final
+ * (e.g. a 409); anything else is forgotten so the client's retry gets a real second attempt.
+ */
+public class IdempotencyCache<T> {
+
+  /** The shared result, and whether it came from an earlier request with the same key. */
+  public record Attempt<T>(Future<T> result, boolean replayed) {}
+
+  /** The key was already used for a request with different content. */
+  public static final class KeyReusedException extends RuntimeException {
+    KeyReusedException(String key) {
+      super("Idempotency-Key " + key + " was already used for a different request", null, false, false);
+    }
+  }
+
+  private record Entry<T>(String key, String fingerprint, Future<T> result, long expiresAt) {}
+
+  private final long ttlNanos;
+  private final int maxEntries;
+  private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry<T>> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final LongAdder replays = new LongAdder();
+
+  public IdempotencyCache(long ttl, TimeUnit unit, int maxEntries) {
+    this.ttlNanos = unit.toNanos(ttl);
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Runs {@code action} unless a live entry exists for {@code key}. {@code fingerprint} identifies the
+   * request content; reusing a key with another fingerprint fails with {@link KeyReusedException}.
+   * Failures of {@code action} are replayed only if {@code keepFailure} accepts them.
+   */
+  public Attempt<T> attempt(String key, String fingerprint, Supplier<Future<T>> action,
+                            Predicate<Throwable> keepFailure) {
+    long now = System.nanoTime();
+    Promise<T> promise = Promise.promise();
+    Entry<T> fresh = new Entry<>(key, fingerprint, promise.future(), now + ttlNanos);
+
+    Entry<T> winner = entries.compute(key, (k, existing) ->
+            existing != null && existing.expiresAt() - now > 0 ? existing : fresh);
+    if (winner != fresh) {
+      if (!winner.fingerprint().equals(fingerprint)) {
+        return new Attempt<>(Future.failedFuture(new KeyReusedException(key)), false);
+      }
+      replays.increment();
+      return new Attempt<>(winner.result(), true);
+    }
+
+    insertionOrder.add(fresh);
+    evict(now);
+    Future<T> result;
+    try {
+      result = action.get();
+    } catch (RuntimeException e) {
+      // Never leave a promise behind that nothing will complete: retries would hang until the TTL
+      entries.remove(key, fresh);
+      promise.fail(e);
+      return new Attempt<>(fresh.result(), false);
+    }
+    result.onComplete(ar -> {
+      if (ar.failed() && !keepFailure.test(ar.cause())) {
+        entries.remove(key, fresh);
+      }
+      promise.handle(ar);
+    });
+    return new Attempt<>(fresh.result(), false);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long replays() {
+    return replays.sum();
+  }
+
+  private void evict(long now) {
+    Entry<T> oldest;
+    while ((oldest = insertionOrder.peek()) != null
+            && (entries.size() > maxEntries || oldest.expiresAt() - now <= 0)) {
+      if (insertionOrder.remove(oldest)) {
+        entries.remove(oldest.key(), oldest);
+      }
+    }
+  }
+}
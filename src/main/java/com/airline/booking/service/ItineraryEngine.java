@@ -0,0 +1,370 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connecting-itinerary search over an in-memory graph of flights: airports are nodes, flights are
+ * edges kept in departure-time order per origin and per route, so "what leaves B between 10:45 and
+ * 16:00 for C" is one range lookup. Finds the k best direct, one-stop and two-stop itineraries that
+ * respect a minimum and maximum connection time, ranked by total duration or total price.
+ *
+ * The graph holds {@code ITINERARY_HORIZON_DAYS} of departures from today and is updated
+ * incrementally: {@link #flightAdded} for single inserts, {@link #refreshRoute} after a bulk import and
+ * {@link #adjustSeats} after bookings, so sold-out legs are skipped. Seat counts are advisory; booking
+ * still goes through SeatInventory. The window slides as days pass, hourly and before any search that
+ * finds it behind: the days coming into range are loaded and departed days dropped. A search for a date
+ * outside it fails with {@link OutsideWindowException} rather than finding nothing.
+ *
+ * Direct-only searches run inline. Connecting searches run on the {@code itinerary-search} worker pool,
+ * split by first leg into chunks that are searched in parallel and merged, so a busy hub never blocks
+ * the event loop. Times are compared as stored, like the rest of the schema.
+ */
+public class ItineraryEngine {
+
+  public enum Sort { DURATION, PRICE }
+
+  /** The search date is before today or beyond the horizon, so the graph cannot answer it. */
+  public static final class OutsideWindowException extends RuntimeException {
+    OutsideWindowException(LocalDate date, LocalDate firstDay, LocalDate endDay) {
+      super("Departure " + date + " is outside the searchable range " + firstDay + " to " + endDay.minusDays(1) + ".",
+              null, false, false);
+    }
+  }
+
+  /** One search; connection times in minutes. */
+  public record Query(String from, String to, LocalDate date, int maxStops,
+                      int minConnectionMinutes, int maxConnectionMinutes, Sort sort, int limit) {}
+
+  public record Itinerary(List<Flight> legs, int stops, long durationMinutes, double totalPrice,
+                          String departure, String arrival) {}
+
+  // Below this many first legs per chunk, splitting costs more than it saves
+  static final int MIN_CHUNK = 16;
+
+  private static final long SLIDE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+  private static final Logger log = LoggerFactory.getLogger(com.airline.booking.service.ItineraryEngine.class);
+
+  /** A flight as an edge of the graph; the snapshot is replaced when its seats change. */
+  private static final class Leg {
+    final long id;
+    final long departure;
+    final long arrival;
+    final String to;
+    volatile Flight flight;
+
+    Leg(long id, long departure, long arrival, String to, Flight flight) {
+      this.id = id;
+      this.departure = departure;
+      this.arrival = arrival;
+      this.to = to;
+      this.flight = flight;
+    }
+
+    double price() {
+      Flight f = flight;
+      return f.price() != null ? f.price() : 0.0;
+    }
+
+    boolean available() {
+      Integer seats = flight.seatsAvailable();
+      return seats != null && seats > 0;
+    }
+  }
+
+  private static final Comparator<Leg> BY_DEPARTURE = Comparator.<Leg>comparingLong(l -> l.departure)
+          .thenComparingLong(l -> l.id);
+
+  private final Vertx vertx;
+  private final FlightRepository flightStore;
+  private final WorkerExecutor workers;
+  private final int parallelism;
+  private final int horizonDays;
+  private final ConcurrentHashMap<Long, Leg> legs = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, NavigableSet<Leg>> byOrigin = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, NavigableSet<Leg>> byRoute = new ConcurrentHashMap<>();
+  private final long slideTimer;
+  private final LazyLoad<Void> loaded = new LazyLoad<>(this::loadWindow);
+  private Future<Void> sliding = Future.succeededFuture();
+  // Departure days the graph holds: [firstDay, endDay)
+  private volatile LocalDate firstDay;
+  private volatile LocalDate endDay;
+
+  public ItineraryEngine(Vertx vertx, FlightRepository flightStore, int parallelism, int horizonDays) {
+    this.vertx = vertx;
+    this.flightStore = flightStore;
+    this.parallelism = parallelism;
+    this.horizonDays = horizonDays;
+    this.workers = vertx.createSharedWorkerExecutor("itinerary-search", parallelism);
+    this.slideTimer = vertx.setPeriodic(SLIDE_INTERVAL_MS, id -> advance(LocalDate.now())
+            .onFailure(err -> log.warn("Itinerary window could not advance: {}", err.getMessage())));
+  }
+
+  /** Loads the graph, see {@link LazyLoad#get()}. */
+  public Future<Void> load() {
+    return loaded.get();
+  }
+
+  private Future<Void> loadWindow() {
+    LocalDate today = LocalDate.now();
+    LocalDate end = today.plusDays(horizonDays);
+    return flightStore.departingBetween(today.atStartOfDay(), end.atStartOfDay())
+            .map(flights -> {
+              flights.forEach(this::flightAdded);
+              firstDay = today;
+              endDay = end;
+              return null;
+            });
+  }
+
+  /**
+   * Moves the window to start at {@code today}: loads the days that came into range, then drops legs
+   * departing before it. Does nothing until the graph is loaded or when the window is already there.
+   */
+  Future<Void> advance(LocalDate today) {
+    Future<Void> current = loaded.current();
+    if (current == null || !current.succeeded() || !today.isAfter(firstDay)) {
+      return Future.succeededFuture();
+    }
+    synchronized (this) {
+      if (!sliding.isComplete()) {
+        return sliding;
+      }
+      if (!today.isAfter(firstDay)) {
+        return Future.succeededFuture();
+      }
+      LocalDate end = today.plusDays(horizonDays);
+      LocalDate from = endDay.isAfter(today) ? endDay : today;
+      sliding = flightStore.departingBetween(from.atStartOfDay(), end.atStartOfDay())
+              .map(flights -> {
+                flights.forEach(this::flightAdded);
+                endDay = end;
+                // Moved before evicting, so a search for a dropped day is rejected rather than half answered
+                firstDay = today;
+                evictBefore(minutes(today.atStartOfDay()));
+                return null;
+              });
+      return sliding;
+    }
+  }
+
+  /** Adds a committed flight to the graph; flights already present are left alone. */
+  public void flightAdded(Flight flight) {
+    Leg leg = new Leg(flight.id(), minutes(flight.departure()), minutes(flight.arrival()), flight.to(), flight);
+    if (legs.putIfAbsent(leg.id, leg) != null) {
+      return;
+    }
+    byOrigin.computeIfAbsent(flight.from(), k -> new ConcurrentSkipListSet<>(BY_DEPARTURE)).add(leg);
+    byRoute.computeIfAbsent(route(flight.from(), flight.to()), k -> new ConcurrentSkipListSet<>(BY_DEPARTURE)).add(leg);
+  }
+
+  /** Picks up flights inserted on the route and day without their ids being known, e.g. by bulk import. */
+  public Future<Void> refreshRoute(String from, String to, LocalDate date) {
+    return flightStore.findByRoute(from, to, date)
+            .onSuccess(flights -> flights.forEach(this::flightAdded))
+            .mapEmpty();
+  }
+
+  /** Applies a committed seat change to a flight in the graph. */
+  public void adjustSeats(long flightId, int delta) {
+    Leg leg = legs.get(flightId);
+    if (leg != null) {
+      synchronized (leg) {
+        Flight f = leg.flight;
+        leg.flight = new Flight(f.id(), f.airlineId(), f.flightNumber(), f.from(), f.to(), f.departure(), f.arrival(),
+                f.seatsAvailable() + delta, f.price());
+      }
+    }
+  }
+
+  public int size() {
+    return legs.size();
+  }
+
+  /** The {@code query.limit()} best itineraries, best first. */
+  public Future<List<Itinerary>> search(Query query) {
+    return load().compose(v -> advance(LocalDate.now())).compose(v -> {
+      LocalDate start = firstDay;
+      LocalDate end = endDay;
+      if (query.date().isBefore(start) || !query.date().isBefore(end)) {
+        return Future.failedFuture(new OutsideWindowException(query.date(), start, end));
+      }
+      long dayStart = minutes(query.date().atStartOfDay());
+      List<Leg> first = new ArrayList<>(range(byOrigin.get(query.from()), dayStart, dayStart + 24 * 60));
+      if (query.maxStops() == 0 || first.isEmpty()) {
+        return Future.succeededFuture(search(query, first));
+      }
+
+      int chunks = Math.max(1, Math.min(parallelism, first.size() / MIN_CHUNK));
+      int chunkSize = (first.size() + chunks - 1) / chunks;
+      List<Future<List<Itinerary>>> parts = new ArrayList<>(chunks);
+      for (int i = 0; i < first.size(); i += chunkSize) {
+        List<Leg> chunk = first.subList(i, Math.min(first.size(), i + chunkSize));
+        parts.add(workers.executeBlocking(() -> search(query, chunk), false));
+      }
+      return Future.all(parts).map(all -> {
+        TopK top = new TopK(query);
+        for (int i = 0; i < parts.size(); i++) {
+          all.<List<Itinerary>>resultAt(i).forEach(top::offer);
+        }
+        return top.best();
+      });
+    });
+  }
+
+  private List<Itinerary> search(Query query, List<Leg> firstLegs) {
+    TopK top = new TopK(query);
+    for (Leg first : firstLegs) {
+      if (!first.available()) {
+        continue;
+      }
+      if (first.to.equals(query.to())) {
+        top.offer(itinerary(first));
+        continue;
+      }
+      if (query.maxStops() < 1 || top.cannotImprove(first.departure, first.arrival, first.price())) {
+        continue;
+      }
+      // With one stop left, only legs into the destination can help
+      NavigableSet<Leg> onward = query.maxStops() == 1 ? byRoute.get(route(first.to, query.to())) : byOrigin.get(first.to);
+      for (Leg second : connections(onward, first, query)) {
+        if (!second.available() || second.to.equals(query.from())) {
+          continue;
+        }
+        double price = first.price() + second.price();
+        if (second.to.equals(query.to())) {
+          top.offer(itinerary(first, second));
+          continue;
+        }
+        if (query.maxStops() < 2 || top.cannotImprove(first.departure, second.arrival, price)) {
+          continue;
+        }
+        for (Leg third : connections(byRoute.get(route(second.to, query.to())), second, query)) {
+          if (third.available()) {
+            top.offer(itinerary(first, second, third));
+          }
+        }
+      }
+    }
+    return top.best();
+  }
+
+  private void evictBefore(long cutoff) {
+    for (NavigableSet<Leg> departures : byOrigin.values()) {
+      NavigableSet<Leg> departed = departures.headSet(probe(cutoff, Long.MIN_VALUE), false);
+      for (Leg leg : departed) {
+        legs.remove(leg.id, leg);
+        NavigableSet<Leg> route = byRoute.get(route(leg.flight.from(), leg.to));
+        if (route != null) {
+          route.remove(leg);
+        }
+      }
+      departed.clear();
+    }
+  }
+
+  private static NavigableSet<Leg> connections(NavigableSet<Leg> departures, Leg arriving, Query query) {
+    return range(departures, arriving.arrival + query.minConnectionMinutes(),
+            arriving.arrival + query.maxConnectionMinutes() + 1);
+  }
+
+  /** Legs departing in {@code [start, end)} minutes. */
+  private static NavigableSet<Leg> range(NavigableSet<Leg> departures, long start, long end) {
+    if (departures == null) {
+      return Collections.emptyNavigableSet();
+    }
+    return departures.subSet(probe(start, Long.MIN_VALUE), true, probe(end, Long.MIN_VALUE), false);
+  }
+
+  private static Leg probe(long departure, long id) {
+    return new Leg(id, departure, departure, null, null);
+  }
+
+  private static Itinerary itinerary(Leg... path) {
+    List<Flight> flights = new ArrayList<>(path.length);
+    double price = 0;
+    for (Leg leg : path) {
+      flights.add(leg.flight);
+      price += leg.price();
+    }
+    Leg first = path[0];
+    Leg last = path[path.length - 1];
+    return new Itinerary(List.copyOf(flights), path.length - 1, last.arrival - first.departure, price,
+            first.flight.departure(), last.flight.arrival());
+  }
+
+  /** Keeps the k best itineraries seen; the worst kept one sits on top of the heap. */
+  private static final class TopK {
+    private final Query query;
+    private final Comparator<Itinerary> order;
+    private final PriorityQueue<Itinerary> heap;
+
+    TopK(Query query) {
+      this.query = query;
+      Comparator<Itinerary> byDuration = Comparator.comparingLong(Itinerary::durationMinutes);
+      Comparator<Itinerary> byPrice = Comparator.comparingDouble(Itinerary::totalPrice);
+      this.order = (query.sort() == Sort.PRICE ? byPrice.thenComparing(byDuration) : byDuration.thenComparing(byPrice))
+              .thenComparingInt(Itinerary::stops)
+              .thenComparing(Itinerary::departure);
+      this.heap = new PriorityQueue<>(query.limit() + 1, order.reversed());
+    }
+
+    void offer(Itinerary itinerary) {
+      heap.offer(itinerary);
+      if (heap.size() > query.limit()) {
+        heap.poll();
+      }
+    }
+
+    /** True when every extension of a partial path is already worse than all k kept itineraries. */
+    boolean cannotImprove(long departure, long arrival, double price) {
+      if (heap.size() < query.limit()) {
+        return false;
+      }
+      Itinerary worst = heap.peek();
+      return query.sort() == Sort.PRICE ? price > worst.totalPrice() : arrival - departure > worst.durationMinutes();
+    }
+
+    List<Itinerary> best() {
+      List<Itinerary> best = new ArrayList<>(heap);
+      best.sort(order);
+      return best;
+    }
+  }
+
+  private static String route(String from, String to) {
+    return from + '|' + to;
+  }
+
+  private static long minutes(String dateTime) {
+    return minutes(LocalDateTime.parse(dateTime));
+  }
+
+  private static long minutes(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+  }
+
+  public Future<Void> close() {
+    vertx.cancelTimer(slideTimer);
+    return workers.close();
+  }
+}
@@ -0,0 +1,43 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/** A value loaded on first use and shared by every caller; a failed load is retried on next use. */
+final class LazyLoad<T> {
+
+  private final Supplier<Future<T>> loader;
+  private volatile Future<T> value;
+
+  LazyLoad(Supplier<Future<T>> loader) {
+    this.loader = loader;
+  }
+
+  /** The value, loading it unless loaded or loading already. */
+  Future<T> get() {
+    Future<T> current = value;
+    if (current != null && !current.failed()) {
+      return current;
+    }
+    synchronized (this) {
+      if (value == null || value.failed()) {
+        value = loader.get();
+      }
+      return value;
+    }
+  }
+
+  /** The latest load, or null before first use. */
+  Future<T> current() {
+    return value;
+  }
+
+  /** Replaces a loaded value with {@code apply} of it; does nothing until loaded. */
+  synchronized void update(UnaryOperator<T> apply) {
+    if (value != null && value.succeeded()) {
+      value = Future.succeededFuture(apply.apply(value.result()));
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Passenger;
+import com.airline.booking.repository.PassengerRepository;
+import io.vertx.core.Future;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory identity index of passengers by passport number and by email, so registration and
+ * {@code GET /passengers/search} never scan the passengers table. Warmed once from
+ * {@link PassengerRepository#all} and kept current by {@link #register}, the only way passengers are
+ * created.
+ *
+ * {@link #register} makes the duplicate check and the insert atomic within this process: both
+ * identities are reserved with {@code putIfAbsent} before the INSERT runs, so two concurrent
+ * registrations of the same passport or email cannot both pass the check. The reservation becomes the
+ * passenger on commit and is released if the insert fails. Lookups treat a reservation as absent until
+ * then. Another process sharing the database keeps its own index, so the unique indexes on email and
+ * passport_number are what hold across processes; their violations are reported as the same
+ * {@link DuplicateIdentityException}.
+ *
+ * A Bloom filter over every reserved identity answers most lookups for unknown passports and emails
+ * without probing the maps.
+ */
+public class PassengerIdentityIndex {
+
+  /** Registration rejected because the passport or email already belongs to a passenger. */
+  public static final class DuplicateIdentityException extends RuntimeException {
+    private final String field;
+
+    DuplicateIdentityException(String field) {
+      super("Passenger with this " + field + " already exists.", null, false, false);
+      this.field = field;
+    }
+
+    /** {@code "passport"} or {@code "email"}. */
+    public String field() {
+      return field;
+    }
+  }
+
+  // Placeholder for an identity whose INSERT is still running
+  private static final Passenger RESERVED = new Passenger(null, "", "", "", null);
+
+  private final PassengerRepository passengerStore;
+  private final ConcurrentHashMap<String, Passenger> byPassport = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Passenger> byEmail = new ConcurrentHashMap<>();
+  private final BloomFilter passports;
+  private final BloomFilter emails;
+  private final LongAdder filtered = new LongAdder();
+  private final LazyLoad<Void> loaded;
+
+  public PassengerIdentityIndex(PassengerRepository passengerStore, long expectedPassengers) {
+    this.passengerStore = passengerStore;
+    this.passports = new BloomFilter(expectedPassengers, 0.01);
+    this.emails = new BloomFilter(expectedPassengers, 0.01);
+    this.loaded = new LazyLoad<>(() -> passengerStore.all().map(all -> {
+      for (Passenger passenger : all) {
+        index(passenger);
+      }
+      return null;
+    }));
+  }
+
+  /** Loads every passenger, see {@link LazyLoad#get()}. */
+  public Future<Void> load() {
+    return loaded.get();
+  }
+
+  /**
+   * Inserts the passenger unless the passport or email is already registered (or being registered),
+   * failing with {@link DuplicateIdentityException} without touching the database in that case.
+   */
+  public Future<Passenger> register(String firstName, String lastName, String email, String passportNumber) {
+    return load().compose(v -> {
+      if (byPassport.putIfAbsent(passportNumber, RESERVED) != null) {
+        return Future.failedFuture(new DuplicateIdentityException("passport"));
+      }
+      if (byEmail.putIfAbsent(email, RESERVED) != null) {
+        byPassport.remove(passportNumber, RESERVED);
+        return Future.failedFuture(new DuplicateIdentityException("email"));
+      }
+      passports.add(passportNumber);
+      emails.add(email);
+
+      return passengerStore.insert(firstName, lastName, email, passportNumber).andThen(ar -> {
+        if (ar.succeeded() && ar.result() != null) {
+          byPassport.replace(passportNumber, RESERVED, ar.result());
+          byEmail.replace(email, RESERVED, ar.result());
+        } else {
+          byPassport.remove(passportNumber, RESERVED);
+          byEmail.remove(email, RESERVED);
+        }
+      }).recover(err -> Future.failedFuture(duplicateOrSelf(err)));
+    });
+  }
+
+  // Registered through another process: the database's unique index caught it instead of the maps
+  private static Throwable duplicateOrSelf(Throwable err) {
+    String message = err.getMessage();
+    if (message == null || !message.contains("Unique index or primary key violation")) {
+      return err;
+    }
+    return new DuplicateIdentityException(message.contains("PASSENGERS(PASSPORT_NUMBER") ? "passport" : "email");
+  }
+
+  /** Exact match on every non-null criterion; at most one passenger, since both keys are unique. */
+  public Future<List<Passenger>> search(String passportNumber, String email) {
+    return load().map(v -> {
+      if (passportNumber == null && email == null) {
+        return List.<Passenger>of();
+      }
+      Passenger match = passportNumber != null ? lookup(byPassport, passports, passportNumber)
+              : lookup(byEmail, emails, email);
+      if (match == null || (email != null && !email.equals(match.email()))) {
+        return List.<Passenger>of();
+      }
+      return List.of(match);
+    });
+  }
+
+  /** Emails held, including registrations still in flight. */
+  public int size() {
+    return byEmail.size();
+  }
+
+  /** Lookups answered by a Bloom filter without probing the maps. */
+  public long filtered() {
+    return filtered.sum();
+  }
+
+  private Passenger lookup(ConcurrentHashMap<String, Passenger> map, BloomFilter filter, String key) {
+    if (!filter.mightContain(key)) {
+      filtered.increment();
+      return null;
+    }
+    Passenger passenger = map.get(key);
+    return passenger == RESERVED ? null : passenger;
+  }
+
+  private void index(Passenger passenger) {
+    if (passenger.passportNumber() != null) {
+      byPassport.putIfAbsent(passenger.passportNumber(), passenger);
+      passports.add(passenger.passportNumber());
+    }
+    byEmail.putIfAbsent(passenger.email(), passenger);
+    emails.add(passenger.email());
+  }
+}
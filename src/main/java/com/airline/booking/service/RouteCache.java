@@ -0,0 +1,231 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded cache of route snapshots loaded from the store. It knows which flights every cached snapshot
+ * holds, so a committed seat change is applied to the snapshot that contains the flight, and once the
+ * total weight of the snapshots exceeds the bound it evicts the least recently used ones.
+ *
+ * A load that overlapped a seat change on one of its flights is served but not cached, since it may
+ * predate the change (see {@link SeatChangeLog}).
+ */
+final class RouteCache<K, V> {
+
+  private final class Entry {
+    private final K key;
+    private volatile Future<V> value;
+    private volatile long lastUsed;
+    // Guarded by this entry: the flights registered for it and their weight. Once removed it never tracks
+    private Collection<Long> flights;
+    private int weight;
+    private boolean removed;
+
+    Entry(K key, Future<V> value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final int maxWeight;
+  private final ToIntFunction<V> weigher;
+  private final Function<V, Collection<Long>> flightsOf;
+  private final ConcurrentHashMap<K, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Entry> entryByFlight = new ConcurrentHashMap<>();
+  private final SeatChangeLog seatChanges = new SeatChangeLog();
+  private final AtomicInteger weight = new AtomicInteger();
+  private final AtomicLong clock = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param weigher   a snapshot's share of {@code maxWeight}
+   * @param flightsOf the ids of the flights in a snapshot
+   */
+  RouteCache(int maxWeight, ToIntFunction<V> weigher, Function<V, Collection<Long>> flightsOf) {
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.flightsOf = flightsOf;
+  }
+
+  /** Returns the cached snapshot for the key, or loads it with {@code loader}, sharing one load per key. */
+  Future<V> get(K key, Supplier<Future<V>> loader) {
+    Entry cached = entries.get(key);
+    if (cached == null) {
+      Promise<V> promise = Promise.promise();
+      Entry fresh = new Entry(key, promise.future());
+      cached = entries.putIfAbsent(key, fresh);
+      if (cached == null) {
+        misses.increment();
+        fresh.lastUsed = clock.incrementAndGet();
+        load(fresh, promise, loader);
+        return promise.future();
+      }
+    }
+    hits.increment();
+    cached.lastUsed = clock.incrementAndGet();
+    return cached.value;
+  }
+
+  /** Drops a snapshot so the next request reloads it. */
+  void remove(K key) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      remove(entry);
+    }
+  }
+
+  /**
+   * Records a committed seat change and applies {@code apply} to the cached snapshot holding the flight.
+   */
+  void seatChanged(long flightId, UnaryOperator<V> apply) {
+    // Recorded first, so a load of this flight that is still running will not be cached
+    seatChanges.changed(flightId);
+    Entry entry = entryByFlight.get(flightId);
+    if (entry != null) {
+      replace(entry, apply);
+    }
+  }
+
+  /** Applies {@code apply} to the cached snapshot for the key, e.g. to add a flight to it. */
+  void update(K key, UnaryOperator<V> apply) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      replace(entry, apply);
+    }
+  }
+
+  long hits() {
+    return hits.sum();
+  }
+
+  long misses() {
+    return misses.sum();
+  }
+
+  long evictions() {
+    return evictions.sum();
+  }
+
+  /** Total weight of the cached snapshots. */
+  int weight() {
+    return weight.get();
+  }
+
+  private void load(Entry entry, Promise<V> promise, Supplier<Future<V>> loader) {
+    long mark = seatChanges.mark();
+    loader.get().onComplete(ar -> {
+      if (ar.failed() || overlapsSeatChange(mark, ar.result()) || !track(entry, ar.result())) {
+        remove(entry);
+      } else {
+        enforceBound(entry);
+        // A change recorded while the load was being tracked may not have found it
+        if (overlapsSeatChange(mark, ar.result())) {
+          remove(entry);
+        }
+      }
+      promise.handle(ar);
+    });
+  }
+
+  /** Registers a loaded snapshot's flights, unless the entry was removed while it loaded. */
+  private boolean track(Entry entry, V value) {
+    Collection<Long> flights = flightsOf.apply(value);
+    int loadedWeight = weigher.applyAsInt(value);
+    synchronized (entry) {
+      if (entry.removed) {
+        return false;
+      }
+      for (Long flightId : flights) {
+        entryByFlight.put(flightId, entry);
+      }
+      entry.flights = flights;
+      entry.weight = loadedWeight;
+      weight.addAndGet(loadedWeight);
+      return true;
+    }
+  }
+
+  /**
+   * Swaps in the updated snapshot and tracks any flights it added; snapshots only ever gain flights.
+   * A snapshot still loading is dropped instead, as it may predate the change and cannot be changed in place.
+   */
+  private void replace(Entry entry, UnaryOperator<V> apply) {
+    synchronized (entry) {
+      if (entry.removed) {
+        return;
+      }
+      if (entry.value.succeeded()) {
+        V updated = apply.apply(entry.value.result());
+        Collection<Long> flights = flightsOf.apply(updated);
+        for (Long flightId : flights) {
+          entryByFlight.put(flightId, entry);
+        }
+        int updatedWeight = weigher.applyAsInt(updated);
+        weight.addAndGet(updatedWeight - entry.weight);
+        entry.flights = flights;
+        entry.weight = updatedWeight;
+        entry.value = Future.succeededFuture(updated);
+        return;
+      }
+    }
+    remove(entry);
+  }
+
+  /** Unmaps the entry and untracks whatever it tracked; an entry still loading will then not track. */
+  private void remove(Entry entry) {
+    entries.remove(entry.key, entry);
+    synchronized (entry) {
+      if (entry.removed) {
+        return;
+      }
+      entry.removed = true;
+      if (entry.flights != null) {
+        for (Long flightId : entry.flights) {
+          entryByFlight.remove(flightId, entry);
+        }
+        weight.addAndGet(-entry.weight);
+        entry.flights = null;
+      }
+    }
+  }
+
+  private boolean overlapsSeatChange(long mark, V value) {
+    for (Long flightId : flightsOf.apply(value)) {
+      if (seatChanges.changedSince(mark, flightId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Evicts least recently used snapshots other than {@code keep} until the weight fits the bound. */
+  private void enforceBound(Entry keep) {
+    while (weight.get() > maxWeight) {
+      // A linear scan per eviction: the bound keeps the map small and loads are rare next to hits
+      Entry oldest = null;
+      for (Entry candidate : entries.values()) {
+        if (candidate != keep && (oldest == null || candidate.lastUsed < oldest.lastUsed)) {
+          oldest = candidate;
+        }
+      }
+      if (oldest == null) {
+        return;
+      }
+      remove(oldest);
+      evictions.increment();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.airline.booking.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Orders committed seat changes against cache loads. A loader takes a {@link #mark} before its query
+ * and, once the rows are back, asks {@link #changedSince} for every flight in them: the query may or
+ * may not have seen a change recorded after the mark, so such a load must not be cached.
+ *
+ * Changes are remembered per stripe of flight ids rather than per flight, so the log stays a fixed
+ * size; a change to an unrelated flight in the same stripe only costs an extra reload.
+ */
+final class SeatChangeLog {
+
+  private static final int STRIPES = 1024;
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLongArray lastChange = new AtomicLongArray(STRIPES);
+
+  long mark() {
+    return sequence.get();
+  }
+
+  /** Records a committed change; call before applying it to the cache. */
+  void changed(long flightId) {
+    long seq = sequence.incrementAndGet();
+    lastChange.accumulateAndGet(stripe(flightId), seq, Math::max);
+  }
+
+  boolean changedSince(long mark, long flightId) {
+    return lastChange.get(stripe(flightId)) > mark;
+  }
+
+  private static int stripe(long flightId) {
+    return (int) (flightId ^ (flightId >>> 32)) & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,265 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Booking;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory mirror of per-flight seat availability. Bookings are reserved here with a
+ * compare-and-set on the flight's state before any SQL runs, so full flights, taken seats
+ * and duplicate passengers are rejected without a database round-trip.
+ *
+ * Flights are loaded lazily from {@code flights}/{@code bookings} on first use and every
+ * confirmed booking must go through {@link FlightInventory#reserve} and every cancellation through
+ * {@link #cancelled} to stay in sync.
+ */
+public class SeatInventory {
+
+  public enum Outcome { RESERVED, FULL, SEAT_TAKEN, ALREADY_BOOKED }
+
+  private final FlightRepository flightStore;
+  private final BookingRepository bookingStore;
+  private final ConcurrentHashMap<Long, Loading> flights = new ConcurrentHashMap<>();
+
+  public SeatInventory(FlightRepository flightStore, BookingRepository bookingStore) {
+    this.flightStore = flightStore;
+    this.bookingStore = bookingStore;
+  }
+
+  /**
+   * Returns the inventory for a flight, loading it on first access. Completes with null when the
+   * flight does not exist; misses are not cached so flights added later are picked up.
+   */
+  public Future<FlightInventory> forFlight(long flightId) {
+    Loading existing = flights.get(flightId);
+    if (existing != null) {
+      return existing.promise.future();
+    }
+    Loading loading = new Loading();
+    Loading raced = flights.putIfAbsent(flightId, loading);
+    if (raced != null) {
+      return raced.promise.future();
+    }
+    loadInto(flightId, loading);
+    return loading.promise.future();
+  }
+
+  private void loadInto(long flightId, Loading loading) {
+    load(flightId).onComplete(ar -> {
+      if (!loading.settle()) {
+        // A cancellation landed while this load ran; read again so waiters get a current instance
+        loadInto(flightId, loading);
+        return;
+      }
+      if (ar.failed() || ar.result() == null) {
+        flights.remove(flightId, loading);
+      }
+      loading.promise.handle(ar);
+    });
+  }
+
+  /**
+   * Hands a committed cancellation's seat back, without touching the database. A load still in
+   * progress may already have read the booking as confirmed, so it is re-run before anyone gets
+   * the flight; there is only ever one inventory per flight.
+   */
+  public void cancelled(long flightId, long passengerId, String seatNumber) {
+    Loading loading = flights.get(flightId);
+    if (loading == null || loading.markStale()) {
+      return;
+    }
+    loading.promise.future().onSuccess(flight -> {
+      if (flight != null) {
+        flight.release(passengerId, seatNumber);
+      }
+    });
+  }
+
+  /** One flight's load; {@link #cancelled} and the load's completion agree under its lock on who goes first. */
+  private static final class Loading {
+    private final Promise<FlightInventory> promise = Promise.promise();
+    private boolean stale;
+    private boolean settled;
+
+    /** Asks an unsettled load to read again; false once the load has settled. */
+    synchronized boolean markStale() {
+      if (settled) {
+        return false;
+      }
+      stale = true;
+      return true;
+    }
+
+    /** Settles the load unless it was marked stale meanwhile, in which case the flag is consumed. */
+    synchronized boolean settle() {
+      if (stale) {
+        stale = false;
+        return false;
+      }
+      settled = true;
+      return true;
+    }
+  }
+
+  private Future<FlightInventory> load(long flightId) {
+    return flightStore.findById(flightId).compose(flight -> {
+      if (flight == null) {
+        return Future.succeededFuture(null);
+      }
+      return bookingStore.confirmedForFlight(flightId).map(bookings -> {
+        Set<String> seats = new HashSet<>();
+        Set<Long> passengers = new HashSet<>();
+        for (Booking booking : bookings) {
+          passengers.add(booking.passengerId());
+          if (booking.seatNumber() != null) {
+            seats.add(booking.seatNumber());
+          }
+        }
+        return new FlightInventory(flightId, flight.price(), flight.seatsAvailable(), seats, passengers);
+      });
+    });
+  }
+
+  /** Lock-free seat state of a single flight; every mutation swaps an immutable snapshot via CAS. */
+  public static final class FlightInventory {
+
+    private record Snapshot(int available, Set<String> seats, Set<Long> passengers) {}
+
+    private final long flightId;
+    private final double price;
+    private final AtomicReference<Snapshot> state;
+
+    FlightInventory(long flightId, double price, int available, Set<String> seats, Set<Long> passengers) {
+      this.flightId = flightId;
+      this.price = price;
+      this.state = new AtomicReference<>(new Snapshot(available,
+              Collections.unmodifiableSet(seats), Collections.unmodifiableSet(passengers)));
+    }
+
+    public long flightId() {
+      return flightId;
+    }
+
+    public double price() {
+      return price;
+    }
+
+    public int available() {
+      return state.get().available();
+    }
+
+    /** Claims one seat for the passenger; a null seat number books unassigned seating. */
+    public Outcome reserve(long passengerId, String seatNumber) {
+      while (true) {
+        Snapshot current = state.get();
+        if (current.passengers().contains(passengerId)) {
+          return Outcome.ALREADY_BOOKED;
+        }
+        if (current.available() <= 0) {
+          return Outcome.FULL;
+        }
+        if (seatNumber != null && current.seats().contains(seatNumber)) {
+          return Outcome.SEAT_TAKEN;
+        }
+
+        Set<Long> passengers = new HashSet<>(current.passengers());
+        passengers.add(passengerId);
+        Set<String> seats = current.seats();
+        if (seatNumber != null) {
+          seats = new HashSet<>(seats);
+          seats.add(seatNumber);
+        }
+        Snapshot next = new Snapshot(current.available() - 1,
+                Collections.unmodifiableSet(seats), Collections.unmodifiableSet(passengers));
+        if (state.compareAndSet(current, next)) {
+          return Outcome.RESERVED;
+        }
+      }
+    }
+
+    /**
+     * Claims seats for a whole group in one CAS: either every entry is reserved or nothing changes.
+     * The returned outcomes are positional; on rejection the entries that would have fit report RESERVED.
+     */
+    public List<Outcome> reserveAll(List<Long> passengerIds, List<String> seatNumbers) {
+      while (true) {
+        Snapshot current = state.get();
+        Set<Long> passengers = new HashSet<>(current.passengers());
+        Set<String> seats = new HashSet<>(current.seats());
+        int available = current.available();
+        List<Outcome> outcomes = new ArrayList<>(passengerIds.size());
+        boolean rejected = false;
+
+        for (int i = 0; i < passengerIds.size(); i++) {
+          String seatNumber = seatNumbers.get(i);
+          Outcome outcome;
+          if (passengers.contains(passengerIds.get(i))) {
+            outcome = Outcome.ALREADY_BOOKED;
+          } else if (available <= 0) {
+            outcome = Outcome.FULL;
+          } else if (seatNumber != null && seats.contains(seatNumber)) {
+            outcome = Outcome.SEAT_TAKEN;
+          } else {
+            outcome = Outcome.RESERVED;
+            passengers.add(passengerIds.get(i));
+            if (seatNumber != null) {
+              seats.add(seatNumber);
+            }
+            available--;
+          }
+          rejected |= outcome != Outcome.RESERVED;
+          outcomes.add(outcome);
+        }
+
+        if (rejected) {
+          return outcomes;
+        }
+        Snapshot next = new Snapshot(available,
+                Collections.unmodifiableSet(seats), Collections.unmodifiableSet(passengers));
+        if (state.compareAndSet(current, next)) {
+          return outcomes;
+        }
+      }
+    }
+
+    /** Undoes a successful {@link #reserveAll}. */
+    public void releaseAll(List<Long> passengerIds, List<String> seatNumbers) {
+      for (int i = 0; i < passengerIds.size(); i++) {
+        release(passengerIds.get(i), seatNumbers.get(i));
+      }
+    }
+
+    /** Returns a seat claimed by {@link #reserve}, either after a failed insert or a cancellation. */
+    public void release(long passengerId, String seatNumber) {
+      while (true) {
+        Snapshot current = state.get();
+        if (!current.passengers().contains(passengerId)) {
+          return;
+        }
+
+        Set<Long> passengers = new HashSet<>(current.passengers());
+        passengers.remove(passengerId);
+        Set<String> seats = current.seats();
+        if (seatNumber != null && seats.contains(seatNumber)) {
+          seats = new HashSet<>(seats);
+          seats.remove(seatNumber);
+        }
+        Snapshot next = new Snapshot(current.available() + 1,
+                Collections.unmodifiableSet(seats), Collections.unmodifiableSet(passengers));
+        if (state.compareAndSet(current, next)) {
+          return;
+        }
+      }
+    }
+  }
+}
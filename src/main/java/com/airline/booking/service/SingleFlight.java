@@ -0,0 +1,74 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads: while a load for a key is running, further requests for the
+ * same key get its result instead of starting their own query. Nothing is kept once the load
+ * completes, so this never serves anything older than a read that was already in flight.
+ *
+ * Shared by every verticle instance; a caller on another event loop gets the result delivered back
+ * on its own context.
+ */
+public class SingleFlight<K, V> {
+
+  private final Map<K, Future<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public Future<V> load(K key, Supplier<Future<V>> loader) {
+    Promise<V> promise = Promise.promise();
+    Future<V> running = inFlight.putIfAbsent(key, promise.future());
+    if (running != null) {
+      coalesced.increment();
+      return onCallerContext(running, Vertx.currentContext());
+    }
+
+    loads.increment();
+    Future<V> loaded;
+    try {
+      loaded = loader.get();
+    } catch (RuntimeException e) {
+      loaded = Future.failedFuture(e);
+    }
+    loaded.onComplete(ar -> {
+      // Forget the key first: a request arriving after this point must not get a result it did not wait for
+      inFlight.remove(key, promise.future());
+      promise.handle(ar);
+    });
+    return promise.future();
+  }
+
+  /** Loads that actually ran. */
+  public long loads() {
+    return loads.sum();
+  }
+
+  /** Requests that attached to a load already in flight. */
+  public long coalesced() {
+    return coalesced.sum();
+  }
+
+  private static <V> Future<V> onCallerContext(Future<V> shared, Context caller) {
+    if (caller == null) {
+      return shared;
+    }
+    Promise<V> promise = Promise.promise();
+    shared.onComplete(ar -> {
+      if (Vertx.currentContext() == caller) {
+        promise.handle(ar);
+      } else {
+        caller.runOnContext(v -> promise.handle(ar));
+      }
+    });
+    return promise.future();
+  }
+}
@@ -0,0 +1,47 @@
+package com.airline.booking.service;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-table change counters behind the ETag and Last-Modified headers of catalog reads. Every
+ * committed write bumps its table, so a conditional GET can be answered from the counter alone,
+ * without a query. Counters live in memory; the ETag carries a per-process epoch so tags handed
+ * out before a restart never match again.
+ *
+ * Versions are coarse: any change to a table invalidates every tag derived from it.
+ */
+public class TableVersions {
+
+  public enum Table { AIRLINES, FLIGHTS, BOOKINGS }
+
+  /** What a response reflects: read it before querying, so a concurrent write can only make it older. */
+  public record Version(String etag, long lastModifiedMillis) {}
+
+  private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+  private final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+  private final AtomicLongArray modifiedAt = new AtomicLongArray(Table.values().length);
+
+  public TableVersions() {
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < modifiedAt.length(); i++) {
+      modifiedAt.set(i, now);
+    }
+  }
+
+  public Version current(Table table) {
+    int i = table.ordinal();
+    long version = versions.get(i);
+    return new Version("\"" + table.name().toLowerCase(Locale.ROOT) + "-" + epoch + "-" + version + "\"", modifiedAt.get(i));
+  }
+
+  public void changed(Table... tables) {
+    long now = System.currentTimeMillis();
+    for (Table table : tables) {
+      int i = table.ordinal();
+      versions.incrementAndGet(i);
+      modifiedAt.accumulateAndGet(i, now, Math::max);
+    }
+  }
+}
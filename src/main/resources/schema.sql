@@ -6,6 +6,7 @@ DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS passengers;
 DROP TABLE IF EXISTS flights;
 DROP TABLE IF EXISTS airlines;
+DROP SEQUENCE IF EXISTS booking_reference_blocks;
 
 -- Create Airlines table
 CREATE TABLE airlines (
@@ -66,10 +67,15 @@ CREATE TABLE bookings (
     FOREIGN KEY (flight_id) REFERENCES flights(id) ON DELETE CASCADE
 );
 
+-- Blocks of booking reference numbers, see BookingReferenceAllocator
+CREATE SEQUENCE booking_reference_blocks START WITH 1;
+
 -- Create indexes for better query performance
 CREATE INDEX idx_flights_route ON flights(departure_airport, arrival_airport);
 CREATE INDEX idx_flights_airline ON flights(airline_id);
 CREATE INDEX idx_flights_departure_time ON flights(departure_time);
 CREATE INDEX idx_bookings_passenger ON bookings(passenger_id);
 CREATE INDEX idx_bookings_flight ON bookings(flight_id);
-CREATE INDEX idx_bookings_reference ON bookings(booking_reference);
\ No newline at end of file
+CREATE INDEX idx_bookings_reference ON bookings(booking_reference);
+-- NULLs are distinct, so passengers without a passport are unaffected
+CREATE UNIQUE INDEX idx_passengers_passport ON passengers(passport_number);
\ No newline at end of file
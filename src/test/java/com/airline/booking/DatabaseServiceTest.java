@@ -1,14 +1,27 @@
 package com.airline.booking;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject; // Add this import
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
+import io.vertx.sqlclient.Tuple;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
+import com.airline.booking.model.Airline;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.NewBooking;
+import com.airline.booking.repository.NewFlight;
 import com.airline.booking.service.DatabaseService;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 @ExtendWith(VertxExtension.class)
 class DatabaseServiceTest {
 
@@ -21,4 +34,224 @@ class DatabaseServiceTest {
                 .onSuccess(v -> ctx.completeNow())
                 .onFailure(ctx::failNow);
     }
+
+    @Test
+    void initialize_shouldKeepFileBackedDataWhenSchemaIsCurrent(Vertx vertx, VertxTestContext ctx, @TempDir Path dir) {
+        JsonObject config = new JsonObject().put("DB_URL", "jdbc:h2:file:" + dir.resolve("airline").toAbsolutePath());
+        DatabaseService first = new DatabaseService(vertx, config);
+
+        first.initialize()
+                .compose(v -> first.getPool().withTransaction(conn -> conn
+                        .preparedQuery("INSERT INTO airlines (name, code, country) VALUES (?, ?, ?)")
+                        .execute(Tuple.of("Persisted Air", "PZ", "Nowhere"))))
+                .compose(v -> first.getPool().close())
+                .compose(v -> {
+                    DatabaseService second = new DatabaseService(vertx, config);
+                    return second.initialize()
+                            .compose(ready -> second.getPool()
+                                    .query("SELECT (SELECT COUNT(*) FROM airlines WHERE code = 'PZ') AS persisted, " +
+                                            "(SELECT MAX(version) FROM schema_version) AS version")
+                                    .execute())
+                            .eventually(() -> second.getPool().close());
+                })
+                .onComplete(ctx.succeeding(rows -> ctx.verify(() -> {
+                    var row = rows.iterator().next();
+                    assertEquals(1L, row.getLong("PERSISTED"));
+                    assertEquals(DatabaseService.SCHEMA_VERSION, row.getInteger("VERSION"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    void initialize_shouldUpgradeOlderFileBackedSchemaInPlace(Vertx vertx, VertxTestContext ctx, @TempDir Path dir) {
+        JsonObject config = new JsonObject().put("DB_URL", "jdbc:h2:file:" + dir.resolve("airline").toAbsolutePath());
+        DatabaseService first = new DatabaseService(vertx, config);
+
+        // Roll the fresh database back to v1: no reference sequence, passports not unique, no recorded version
+        first.initialize()
+                .compose(v -> first.getPool().withTransaction(conn -> conn
+                        .query("DROP SEQUENCE booking_reference_blocks").execute()
+                        .compose(dropped -> conn.query("DROP INDEX idx_passengers_passport").execute())
+                        .compose(dropped -> conn.query("DELETE FROM schema_version").execute())
+                        .compose(deleted -> conn
+                                .preparedQuery("INSERT INTO airlines (name, code, country) VALUES (?, ?, ?)")
+                                .execute(Tuple.of("Legacy Air", "LZ", "Nowhere")))))
+                .compose(v -> first.getPool().close())
+                .compose(v -> {
+                    DatabaseService second = new DatabaseService(vertx, config);
+                    return second.initialize()
+                            .compose(ready -> second.getPool()
+                                    .query("SELECT (SELECT COUNT(*) FROM airlines WHERE code = 'LZ') AS persisted, " +
+                                            "(SELECT MAX(version) FROM schema_version) AS version, " +
+                                            "NEXT VALUE FOR booking_reference_blocks AS block, " +
+                                            "(SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                                            "WHERE INDEX_NAME = 'IDX_PASSENGERS_PASSPORT') AS passport_index")
+                                    .execute())
+                            .eventually(() -> second.getPool().close());
+                })
+                .onComplete(ctx.succeeding(rows -> ctx.verify(() -> {
+                    var row = rows.iterator().next();
+                    assertEquals(1L, row.getLong("PERSISTED"));
+                    assertEquals(DatabaseService.SCHEMA_VERSION, row.getInteger("VERSION"));
+                    assertEquals(1L, row.getLong("BLOCK"));
+                    assertEquals(1L, row.getLong("PASSPORT_INDEX"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    void initialize_shouldRefuseToUpgradeWhenPassengersSharePassports(Vertx vertx, VertxTestContext ctx, @TempDir Path dir) {
+        JsonObject config = new JsonObject().put("DB_URL", "jdbc:h2:file:" + dir.resolve("airline").toAbsolutePath());
+        DatabaseService first = new DatabaseService(vertx, config);
+
+        // A v2 database whose legacy passengers share a passport, which v3 makes unique
+        first.initialize()
+                .compose(v -> first.getPool().withTransaction(conn -> conn
+                        .query("DROP INDEX idx_passengers_passport").execute()
+                        .compose(dropped -> conn.query("DELETE FROM schema_version WHERE version = 3").execute())
+                        .compose(deleted -> conn.query("INSERT INTO passengers (first_name, last_name, email, " +
+                                "passport_number) VALUES ('Old', 'Twin', 'old.twin@example.com', 'TWIN0001'), " +
+                                "('New', 'Twin', 'new.twin@example.com', 'TWIN0001')").execute())))
+                .compose(v -> first.getPool().close())
+                .compose(v -> {
+                    DatabaseService second = new DatabaseService(vertx, config);
+                    return second.initialize()
+                            .transform(ar -> {
+                                assertTrue(ar.failed());
+                                assertTrue(ar.cause().getMessage().matches(".*passport TWIN0001 is held by passengers \\d+, \\d+.*"),
+                                        ar.cause().getMessage());
+                                return second.getPool()
+                                        .query("SELECT (SELECT MAX(version) FROM schema_version) AS version, " +
+                                                "(SELECT COUNT(*) FROM passengers WHERE passport_number = 'TWIN0001') AS twins")
+                                        .execute();
+                            })
+                            .eventually(() -> second.getPool().close());
+                })
+                .onComplete(ctx.succeeding(rows -> ctx.verify(() -> {
+                    // Nothing was changed: the twins keep their passports and the database stays on v2
+                    var row = rows.iterator().next();
+                    assertEquals(2, row.getInteger("VERSION"));
+                    assertEquals(2L, row.getLong("TWINS"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    void insertedFlight_shouldBeReadBackAndBookableDespiteALaggingReplica(Vertx vertx, VertxTestContext ctx) {
+        String suffix = Long.toString(System.nanoTime());
+        // The replica has not even caught up with the schema, so any read routed there fails
+        JsonObject config = new JsonObject()
+                .put("DB_URL", "jdbc:h2:mem:primary-" + suffix + ";DB_CLOSE_DELAY=-1")
+                .put("DB_READ_URL", "jdbc:h2:mem:replica-" + suffix + ";DB_CLOSE_DELAY=-1");
+        DatabaseService db = new DatabaseService(vertx, config);
+        LocalDateTime departure = LocalDateTime.now().plusDays(30).withNano(0);
+
+        db.initialize()
+                .compose(v -> db.flights().insert(new NewFlight("LAG1", 1L, "JNB", "CPT",
+                        departure, departure.plusHours(2), 40, 40, 99.0)))
+                .compose(saved -> db.seatInventory().forFlight(saved.id()).map(inventory -> {
+                    assertEquals("LAG1", saved.flightNumber());
+                    assertNotNull(inventory);
+                    assertEquals(40, inventory.available());
+                    return saved;
+                }))
+                .eventually(() -> {
+                    db.close();
+                    return Future.succeededFuture();
+                })
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @Test
+    void bookingInsert_shouldRejectAPassengerOrSeatAlreadyConfirmedOnTheFlight(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        LocalDateTime departure = LocalDateTime.now().plusDays(30).withNano(0);
+
+        // Straight to storage, as if the in-memory inventory had drifted from the table
+        db.initialize()
+                .compose(v -> db.flights().insert(new NewFlight("DUP1", 1L, "JNB", "CPT",
+                        departure, departure.plusHours(2), 10, 10, 99.0)))
+                .compose(flight -> db.bookings().insert(new NewBooking("DUPREF1", 1L, flight.id(), "1A", 99.0))
+                        .compose(first -> db.bookings().insert(new NewBooking("DUPREF2", 1L, flight.id(), "2A", 99.0)))
+                        .transform(ar -> {
+                            assertInstanceOf(BookingRepository.AlreadyBookedException.class, ar.cause());
+                            return db.bookings().insertAll(flight.id(), List.of(
+                                    new NewBooking("DUPREF3", 2L, flight.id(), "3A", 99.0),
+                                    new NewBooking("DUPREF4", 3L, flight.id(), "1A", 99.0)));
+                        })
+                        .transform(ar -> {
+                            assertInstanceOf(BookingRepository.AlreadyBookedException.class, ar.cause());
+                            return db.flights().findById(flight.id());
+                        }))
+                .onComplete(ctx.succeeding(flight -> ctx.verify(() -> {
+                    // Only the first booking took a seat; the rejected ones rolled theirs back
+                    assertEquals(9, flight.seatsAvailable());
+                    db.close();
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    void streamingCursor_shouldLeaveNoTransactionOpenOnItsConnection(Vertx vertx, VertxTestContext ctx) {
+        // A single connection, so the bare insert below runs on the one the cursor used
+        DatabaseService db = new DatabaseService(vertx, new JsonObject()
+                .put("DB_URL", "jdbc:h2:mem:cursor-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1")
+                .put("DB_PRIMARY_READ_POOL_SIZE", 1));
+
+        db.initialize()
+                .compose(v -> db.airlines().cursor(null))
+                .compose(cursor -> cursor.read(2).compose(rows -> cursor.close()))
+                .compose(v -> db.getPrimaryReadPool()
+                        .query("INSERT INTO airlines (name, code, country) VALUES ('Autocommit Air', 'AC', 'Nowhere')")
+                        .execute())
+                // Visible from another connection only if it was committed
+                .compose(v -> db.getPool().withTransaction(conn -> conn
+                        .query("SELECT COUNT(*) FROM airlines WHERE code = 'AC'").execute()))
+                .eventually(() -> {
+                    db.close();
+                    return Future.succeededFuture();
+                })
+                .onComplete(ctx.succeeding(rows -> ctx.verify(() -> {
+                    assertEquals(1L, rows.iterator().next().getLong(0));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    void reads_shouldGoToReadUrlAndWritesToPrimary(Vertx vertx, VertxTestContext ctx) {
+        String suffix = Long.toString(System.nanoTime());
+        JsonObject config = new JsonObject()
+                .put("DB_URL", "jdbc:h2:mem:primary-" + suffix + ";DB_CLOSE_DELAY=-1")
+                .put("DB_READ_URL", "jdbc:h2:mem:replica-" + suffix + ";DB_CLOSE_DELAY=-1");
+        DatabaseService db = new DatabaseService(vertx, config);
+
+        db.initialize()
+                // Stand-in replica with a single booking the primary does not have
+                .compose(v -> db.getReadPool().query("CREATE TABLE bookings (id BIGINT PRIMARY KEY, " +
+                        "booking_reference VARCHAR(10), passenger_id BIGINT, flight_id BIGINT, seat_number VARCHAR(10), " +
+                        "status VARCHAR(20), total_amount DECIMAL(10,2))").execute())
+                .compose(v -> db.getReadPool().query("INSERT INTO bookings VALUES (1, 'REPLICA', 1, 1, '1A', " +
+                        "'CONFIRMED', 10)").execute())
+                .compose(v -> db.airlines().insert(new Airline(null, "Primary Air", "PA", "Nowhere")))
+                .compose(saved -> db.bookings().findByPassenger(1L, null).map(replicaView -> {
+                    assertEquals(1, replicaView.size());
+                    assertEquals("REPLICA", replicaView.get(0).bookingReference());
+                    return saved;
+                }))
+                // The airline list is served under an ETag, so it must come from the primary
+                .compose(saved -> db.airlines().list(null).map(tagged -> {
+                    assertTrue(tagged.stream().anyMatch(a -> "PA".equals(a.code())));
+                    return saved;
+                }))
+                .compose(saved -> db.getPool().preparedQuery("SELECT COUNT(*) FROM airlines WHERE code = ?")
+                        .execute(Tuple.of("PA")))
+                .eventually(() -> {
+                    db.close();
+                    return Future.succeededFuture();
+                })
+                .onComplete(ctx.succeeding(rows -> ctx.verify(() -> {
+                    assertEquals(1L, rows.iterator().next().getLong(0));
+                    ctx.completeNow();
+                })));
+    }
 }
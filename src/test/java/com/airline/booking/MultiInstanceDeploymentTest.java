@@ -0,0 +1,62 @@
+package com.airline.booking;
+
+import com.airline.booking.service.DatabaseService;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class MultiInstanceDeploymentTest {
+
+    private static final int TEST_PORT = 8891;
+    private static final int INSTANCES = 4;
+
+    @Test
+    @DisplayName("Instances sharing one DatabaseService should spread requests across event loops")
+    void requestsSpreadAcrossEventLoops(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService dbService = new DatabaseService(vertx, new JsonObject());
+        List<MainVerticle> deployed = new CopyOnWriteArrayList<>();
+        WebClient client = WebClient.create(vertx, new WebClientOptions().setKeepAlive(false));
+
+        DeploymentOptions options = new DeploymentOptions()
+                .setInstances(INSTANCES)
+                .setConfig(new JsonObject().put("http.port", TEST_PORT));
+
+        dbService.initialize()
+                .compose(v -> vertx.deployVerticle(() -> {
+                    MainVerticle verticle = new MainVerticle(dbService);
+                    deployed.add(verticle);
+                    return verticle;
+                }, options))
+                .compose(id -> {
+                    List<Future<?>> calls = new ArrayList<>();
+                    for (int i = 0; i < INSTANCES * 4; i++) {
+                        calls.add(client.get(TEST_PORT, "localhost", "/airlines").send());
+                    }
+                    return Future.all(calls);
+                })
+                .onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+                    assertEquals(INSTANCES, deployed.size());
+                    long busyLoops = deployed.stream().filter(verticle -> verticle.requestsServed() > 0).count();
+                    long total = deployed.stream().mapToLong(MainVerticle::requestsServed).sum();
+
+                    assertEquals(INSTANCES * 4, total);
+                    assertTrue(busyLoops > 1, "Requests should not all land on one event loop");
+                    ctx.completeNow();
+                })));
+    }
+}
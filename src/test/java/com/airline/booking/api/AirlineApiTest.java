@@ -2,25 +2,30 @@ package com.airline.booking.api;
 
 import java.util.List;
 import com.airline.booking.handler.AirlineHandler;
+import com.airline.booking.model.Airline;
+import com.airline.booking.repository.AirlineRepository;
+import com.airline.booking.service.AirlineSearchIndex;
 import com.airline.booking.service.DatabaseService;
+import com.airline.booking.service.TableVersions;
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RequestBody;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.jdbcclient.JDBCPool;
+import io.vertx.ext.web.handler.HttpException;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
-import io.vertx.sqlclient.PreparedQuery;
-import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.RowSet;
-import io.vertx.sqlclient.Tuple;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -28,30 +33,29 @@ import static org.mockito.Mockito.*;
 class AirlineApiTest {
 
     private DatabaseService dbService;
-    private JDBCPool pool;
-    private PreparedQuery<RowSet<Row>> preparedQuery;
-    private RowSet<Row> rowSet;
+    private AirlineRepository airlines;
     private RoutingContext rc;
     private HttpServerResponse response;
     private RequestBody requestBody; // Needed for Vert.x 5.x
     private AirlineHandler handler;
 
     @BeforeEach
-    @SuppressWarnings("unchecked")
     void setup() {
         dbService = mock(DatabaseService.class);
-        pool = mock(JDBCPool.class);
-        preparedQuery = mock(PreparedQuery.class);
-        rowSet = mock(RowSet.class);
+        airlines = mock(AirlineRepository.class);
         rc = mock(RoutingContext.class);
         response = mock(HttpServerResponse.class);
         requestBody = mock(RequestBody.class); // Mock the body container
 
         handler = new AirlineHandler(dbService);
 
-        when(dbService.getPool()).thenReturn(pool);
+        when(dbService.airlines()).thenReturn(airlines);
+        when(dbService.tableVersions()).thenReturn(new TableVersions());
+        when(dbService.airlineSearchIndex()).thenReturn(new AirlineSearchIndex(airlines));
+        when(rc.request()).thenReturn(mock(HttpServerRequest.class));
         when(rc.response()).thenReturn(response);
         when(response.putHeader(anyString(), anyString())).thenReturn(response);
+        when(response.putHeader(any(CharSequence.class), any(CharSequence.class))).thenReturn(response);
         when(response.setStatusCode(anyInt())).thenReturn(response);
 
         // Link rc.body() to our mockRequestBody
@@ -59,7 +63,7 @@ class AirlineApiTest {
     }
     @AfterEach
     void resetMocks() {
-        Mockito.reset(pool, preparedQuery, rowSet, rc, response);
+        Mockito.reset(airlines, rc, response);
     }
 
     @Test
@@ -67,32 +71,24 @@ class AirlineApiTest {
         JsonObject body = new JsonObject().put("name", "SkyHigh").put("code", "SHA");
         when(requestBody.asJsonObject()).thenReturn(body);
 
-        when(pool.preparedQuery(anyString())).thenReturn(preparedQuery);
-        when(preparedQuery.execute(any(Tuple.class))).thenReturn(Future.succeededFuture(rowSet));
-
-        Row mockGeneratedKeys = mock(Row.class);
-        when(mockGeneratedKeys.getLong(0)).thenReturn(101L);
-        doReturn(mockGeneratedKeys).when(rowSet).property(any());
+        when(airlines.insert(any(Airline.class)))
+                .thenReturn(Future.succeededFuture(new Airline(101L, "SkyHigh", "SHA", "Unknown")));
+        when(airlines.list(null)).thenReturn(Future.succeededFuture(List.of()));
 
         handler.addAirline(rc);
 
         verify(response).setStatusCode(201);
+        assertEquals(1, dbService.airlineSearchIndex().size());
     }
 
     @Test
     void testListAllAirlines(VertxTestContext ctx) {
-        Row row = mock(Row.class);
-        when(row.getLong("ID")).thenReturn(1L);
-        when(row.getString("NAME")).thenReturn("SkyHigh");
-        when(row.getString("CODE")).thenReturn("SHA");
-        when(row.getString("COUNTRY")).thenReturn("USA");
-        when(pool.query(anyString())).thenReturn(preparedQuery);
-        when(preparedQuery.execute()).thenReturn(Future.succeededFuture(rowSet));
-        doReturn(List.of(row).spliterator()).when(rowSet).spliterator();
+        when(airlines.list(null))
+                .thenReturn(Future.succeededFuture(List.of(new Airline(1L, "SkyHigh", "SHA", "USA"))));
         doAnswer(invocation -> {
             ctx.completeNow();
             return null;
-        }).when(response).end(anyString());
+        }).when(response).end(any(Buffer.class));
         doAnswer(invocation -> {
             ctx.failNow(new RuntimeException("Handler failed: " + invocation.getArgument(0)));
             return null;
@@ -101,6 +97,20 @@ class AirlineApiTest {
         handler.listAllAirlines(rc);
     }
 
+    @Test
+    void testListAllAirlinesNotModified() {
+        TableVersions versions = new TableVersions();
+        when(dbService.tableVersions()).thenReturn(versions);
+        when(rc.request().getHeader(HttpHeaders.IF_NONE_MATCH))
+                .thenReturn(versions.current(TableVersions.Table.AIRLINES).etag());
+
+        handler.listAllAirlines(rc);
+
+        verify(response).setStatusCode(304);
+        verify(response).end();
+        verifyNoInteractions(airlines);
+    }
+
     @Test
     void testSearchAirlinesSuccess(VertxTestContext ctx) {
         // 1. Mock the query parameters
@@ -108,38 +118,68 @@ class AirlineApiTest {
         when(rc.request().getParam("name")).thenReturn("Sky");
         when(rc.request().getParam("code")).thenReturn("SHA");
 
-        // 2. Setup Mock Row with UPPERCASE keys (to match Airline.fromRow)
-        Row row = mock(Row.class);
-        when(row.getLong("ID")).thenReturn(1L);
-        when(row.getString("NAME")).thenReturn("SkyHigh");
-        when(row.getString("CODE")).thenReturn("SHA");
-        when(row.getString("COUNTRY")).thenReturn("USA");
-
-        // 3. Setup Database Mocks
-        when(pool.preparedQuery(anyString())).thenReturn(preparedQuery);
-        when(preparedQuery.execute(any(Tuple.class))).thenReturn(Future.succeededFuture(rowSet));
-        doReturn(List.of(row).spliterator()).when(rowSet).spliterator();
+        // 2. Setup the catalog behind the search index; no SQL search is issued
+        when(airlines.list(null)).thenReturn(Future.succeededFuture(List.of(
+                new Airline(1L, "SkyHigh", "SHA", "USA"),
+                new Airline(2L, "Sky Cargo", "SKC", "USA"))));
 
-        // 4. Handle success and verify the body
+        // 3. Handle success and verify the body
         doAnswer(invocation -> {
-            String body = invocation.getArgument(0);
+            String body = invocation.<Buffer>getArgument(0).toString();
             ctx.verify(() -> {
                 assert(body.contains("SkyHigh"));
                 assert(body.contains("SHA"));
+                assert(!body.contains("SKC"));
             });
+            verify(airlines, never()).search(any(), any(), any(), any());
             ctx.completeNow();
             return null;
-        }).when(response).end(anyString());
+        }).when(response).end(any(Buffer.class));
 
-        // 5. Handle potential failure
+        // 4. Handle potential failure
         doAnswer(invocation -> {
             ctx.failNow(new RuntimeException("Search failed with: " + invocation.getArgument(0)));
             return null;
         }).when(rc).fail(any());
 
-        // 6. Execute
+        // 5. Execute
         handler.searchAirlines(rc);
     }
 
+    @Test
+    void testAutocompleteAirlines(VertxTestContext ctx) {
+        when(rc.request().getParam("q")).thenReturn("sk");
+        when(airlines.list(null)).thenReturn(Future.succeededFuture(List.of(
+                new Airline(1L, "Air Skyline", "ASL", "Canada"),
+                new Airline(2L, "Blue Wings", "SK", "Sweden"),
+                new Airline(3L, "Skyward", "SWD", "USA"),
+                new Airline(4L, "Oslo Air", "OSL", "Norway"))));
 
-}
\ No newline at end of file
+        doAnswer(invocation -> {
+            JsonArray body = new JsonArray(invocation.<Buffer>getArgument(0));
+            ctx.verify(() -> {
+                // Exact code first, then name prefix, then word prefix
+                assertEquals(3, body.size());
+                assertEquals("SK", body.getJsonObject(0).getString("code"));
+                assertEquals("Skyward", body.getJsonObject(1).getString("name"));
+                assertEquals("Air Skyline", body.getJsonObject(2).getString("name"));
+            });
+            ctx.completeNow();
+            return null;
+        }).when(response).end(any(Buffer.class));
+        doAnswer(invocation -> {
+            ctx.failNow(new RuntimeException("Autocomplete failed with: " + invocation.getArgument(0)));
+            return null;
+        }).when(rc).fail(any());
+
+        handler.autocompleteAirlines(rc);
+    }
+
+    @Test
+    void testAutocompleteRequiresQuery() {
+        handler.autocompleteAirlines(rc);
+
+        verify(rc).fail(argThat(err -> err instanceof HttpException http && http.getStatusCode() == 400));
+        verifyNoInteractions(airlines);
+    }
+}
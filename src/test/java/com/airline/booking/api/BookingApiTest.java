@@ -2,8 +2,12 @@ package com.airline.booking.api;
 
 import com.airline.booking.MainVerticle;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.junit5.VertxExtension;
@@ -64,6 +68,139 @@ public class BookingApiTest {
                 })));
     }
 
+    @Test
+    @DisplayName("Should reject a taken seat and free it again after cancellation")
+    void testSeatReleasedOnCancel(Vertx vertx, VertxTestContext testContext) {
+        String seat = "Seat-C" + System.currentTimeMillis() % 10000;
+
+        Future<Integer> first = createPassenger("first@dvt.com", "CAN00001");
+        Future<Integer> second = first.compose(v -> createPassenger("second@dvt.com", "CAN00002"));
+
+        second.compose(secondId -> book(first.result(), seat))
+                .compose(booked -> {
+                    assertEquals(201, booked.statusCode());
+                    return book(second.result(), seat).map(taken -> {
+                        assertEquals(409, taken.statusCode());
+                        return booked.bodyAsJsonObject().getInteger("id");
+                    });
+                })
+                .compose(bookingId -> client.delete(TEST_PORT, "localhost", "/bookings/" + bookingId).send())
+                .compose(cancelled -> {
+                    assertEquals(204, cancelled.statusCode());
+                    return book(second.result(), seat);
+                })
+                .onComplete(testContext.succeeding(rebooked -> testContext.verify(() -> {
+                    assertEquals(201, rebooked.statusCode());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Should book a whole group in one call and reject the same group again per item")
+    void testBatchBooking(Vertx vertx, VertxTestContext testContext) {
+        JsonObject batch = new JsonObject()
+                .put("flightId", 3)
+                .put("bookings", new JsonArray()
+                        .add(new JsonObject().put("passengerId", 1).put("seatNumber", "30A"))
+                        .add(new JsonObject().put("passengerId", 2).put("seatNumber", "30B"))
+                        .add(new JsonObject().put("passengerId", 3)));
+
+        client.post(TEST_PORT, "localhost", "/bookings/batch").sendJsonObject(batch)
+                .compose(first -> {
+                    assertEquals(201, first.statusCode());
+                    JsonObject result = first.bodyAsJsonObject();
+                    assertEquals("CONFIRMED", result.getString("status"));
+                    JsonArray items = result.getJsonArray("items");
+                    assertEquals(3, items.size());
+                    assertEquals(2L, items.getJsonObject(1).getJsonObject("booking").getLong("passengerId"));
+                    assertNotNull(items.getJsonObject(2).getJsonObject("booking").getLong("id"));
+                    return client.post(TEST_PORT, "localhost", "/bookings/batch").sendJsonObject(batch);
+                })
+                .onComplete(testContext.succeeding(second -> testContext.verify(() -> {
+                    assertEquals(409, second.statusCode());
+                    JsonObject result = second.bodyAsJsonObject();
+                    assertEquals("REJECTED", result.getString("status"));
+                    assertEquals("ALREADY_BOOKED", result.getJsonArray("items").getJsonObject(0).getString("status"));
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Should roll back the whole batch when one passenger does not exist")
+    void testBatchBookingUnknownPassenger(Vertx vertx, VertxTestContext testContext) {
+        JsonObject batch = new JsonObject()
+                .put("flightId", 3)
+                .put("bookings", new JsonArray()
+                        .add(new JsonObject().put("passengerId", 4).put("seatNumber", "31A"))
+                        .add(new JsonObject().put("passengerId", 9999).put("seatNumber", "31B")));
+
+        client.post(TEST_PORT, "localhost", "/bookings/batch").sendJsonObject(batch)
+                .compose(rejected -> {
+                    assertEquals(404, rejected.statusCode());
+                    JsonArray items = rejected.bodyAsJsonObject().getJsonArray("items");
+                    assertEquals("VALID", items.getJsonObject(0).getString("status"));
+                    assertEquals("PASSENGER_NOT_FOUND", items.getJsonObject(1).getString("status"));
+                    // Passenger 4 must not have been booked and the seat must still be free
+                    batch.getJsonArray("bookings").remove(1);
+                    return client.post(TEST_PORT, "localhost", "/bookings/batch").sendJsonObject(batch);
+                })
+                .onComplete(testContext.succeeding(single -> testContext.verify(() -> {
+                    assertEquals(201, single.statusCode());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Should book once for concurrent retries with the same Idempotency-Key and reject the key for another body")
+    void testIdempotentBooking(Vertx vertx, VertxTestContext testContext) {
+        String key = "retry-" + System.nanoTime();
+        String seat = "Seat-I" + System.currentTimeMillis() % 10000;
+
+        createPassenger("idempotent@dvt.com", "IDM00001")
+                .compose(passengerId -> {
+                    JsonObject request = new JsonObject()
+                            .put("flightId", 1)
+                            .put("passengerId", passengerId)
+                            .put("seatNumber", seat);
+                    Future<HttpResponse<Buffer>> first = client.post(TEST_PORT, "localhost", "/bookings")
+                            .putHeader("Idempotency-Key", key).sendJsonObject(request);
+                    Future<HttpResponse<Buffer>> retry = client.post(TEST_PORT, "localhost", "/bookings")
+                            .putHeader("Idempotency-Key", key).sendJsonObject(request);
+                    return Future.all(first, retry).compose(both -> {
+                        assertEquals(201, first.result().statusCode());
+                        assertEquals(201, retry.result().statusCode());
+                        assertEquals(first.result().bodyAsJsonObject().getLong("id"),
+                                retry.result().bodyAsJsonObject().getLong("id"));
+                        assertEquals("true", retry.result().getHeader("Idempotent-Replayed"));
+                        return client.post(TEST_PORT, "localhost", "/bookings")
+                                .putHeader("Idempotency-Key", key)
+                                .sendJsonObject(request.copy().put("seatNumber", seat + "X"));
+                    });
+                })
+                .onComplete(testContext.succeeding(reused -> testContext.verify(() -> {
+                    assertEquals(422, reused.statusCode());
+                    testContext.completeNow();
+                })));
+    }
+
+    private Future<Integer> createPassenger(String email, String passport) {
+        JsonObject passenger = new JsonObject()
+                .put("name", "Seat Tester")
+                .put("email", email)
+                .put("passportNumber", passport);
+        return client.post(TEST_PORT, "localhost", "/passengers")
+                .sendJsonObject(passenger)
+                .map(res -> res.bodyAsJsonObject().getInteger("id"));
+    }
+
+    private Future<HttpResponse<Buffer>> book(Integer passengerId, String seat) {
+        JsonObject bookingRequest = new JsonObject()
+                .put("flightId", 1)
+                .put("passengerId", passengerId)
+                .put("seatNumber", seat);
+        return client.post(TEST_PORT, "localhost", "/bookings").sendJsonObject(bookingRequest);
+    }
+
     @Test
     @DisplayName("Should return 400 when flightId is missing")
     void testBookTicketMissingParams(Vertx vertx, VertxTestContext testContext) {
@@ -77,6 +214,45 @@ public class BookingApiTest {
                 })));
     }
 
+    @Test
+    @DisplayName("Should return 400 for a null or non-integer flightId, with or without an Idempotency-Key")
+    void testBookTicketInvalidIds(Vertx vertx, VertxTestContext testContext) {
+        String key = "invalid-" + System.nanoTime();
+        JsonObject nullFlight = new JsonObject().putNull("flightId").put("passengerId", 1);
+
+        client.post(TEST_PORT, "localhost", "/bookings")
+                .putHeader("Idempotency-Key", key)
+                .sendJsonObject(nullFlight)
+                .compose(first -> {
+                    assertEquals(400, first.statusCode());
+                    // The retry must be answered too, not left waiting on the first attempt
+                    return client.post(TEST_PORT, "localhost", "/bookings")
+                            .putHeader("Idempotency-Key", key)
+                            .sendJsonObject(nullFlight);
+                })
+                .compose(retry -> {
+                    assertEquals(400, retry.statusCode());
+                    return client.post(TEST_PORT, "localhost", "/bookings")
+                            .sendJsonObject(new JsonObject().put("flightId", "1").put("passengerId", 1.5));
+                })
+                .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+                    assertEquals(400, response.statusCode());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when booking for a passenger that does not exist")
+    void testBookTicketUnknownPassenger(Vertx vertx, VertxTestContext testContext) {
+        client.post(TEST_PORT, "localhost", "/bookings")
+                .sendJsonObject(new JsonObject().put("flightId", 1).put("passengerId", 99999))
+                .onComplete(testContext.succeeding(response -> testContext.verify(() -> {
+                    assertEquals(404, response.statusCode());
+                    assertEquals("Passenger not found", response.bodyAsJsonObject().getString("error"));
+                    testContext.completeNow();
+                })));
+    }
+
     @Test
     @DisplayName("Should return 404 for a non-existent booking")
     void testRetrieveBookingNotFound(Vertx vertx, VertxTestContext testContext) {
@@ -2,6 +2,7 @@ package com.airline.booking.api;
 
 import com.airline.booking.MainVerticle;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.junit5.VertxExtension;
@@ -75,6 +76,49 @@ class FlightApiTest {
                 })));
     }
 
+    @Test
+    @DisplayName("GET /flights/:id - Should answer a current If-None-Match with 304 and revalidate after a booking")
+    void getFlight_shouldHonourIfNoneMatch(VertxTestContext ctx) {
+        client.get(8080, "localhost", "/flights/2").send()
+                .compose(first -> {
+                    assertEquals(200, first.statusCode());
+                    assertEquals("public, max-age=5", first.getHeader("Cache-Control"));
+                    assertNotNull(first.getHeader("Last-Modified"));
+                    String etag = first.getHeader("ETag");
+                    assertNotNull(etag);
+                    return client.get(8080, "localhost", "/flights/2").putHeader("If-None-Match", etag).send()
+                            .compose(cached -> {
+                                assertEquals(304, cached.statusCode());
+                                assertNull(cached.body());
+                                assertEquals(etag, cached.getHeader("ETag"));
+                                return client.post(8080, "localhost", "/bookings")
+                                        .sendJsonObject(new JsonObject().put("flightId", 2).put("passengerId", 1));
+                            })
+                            .compose(booked -> {
+                                assertEquals(201, booked.statusCode());
+                                return client.get(8080, "localhost", "/flights/2").putHeader("If-None-Match", etag).send();
+                            });
+                })
+                .onComplete(ctx.succeeding(changed -> ctx.verify(() -> {
+                    assertEquals(200, changed.statusCode());
+                    assertNotNull(changed.bodyAsJsonObject());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("GET /flights/:id - Should not tag or cache a 404")
+    void getFlight_404ShouldNotBeCacheable(VertxTestContext ctx) {
+        client.get(8080, "localhost", "/flights/99999")
+                .send()
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(404, resp.statusCode());
+                    assertNull(resp.getHeader("ETag"));
+                    assertNull(resp.getHeader("Cache-Control"));
+                    ctx.completeNow();
+                })));
+    }
+
     @Test
     @DisplayName("POST /flights - Should return 400 when fields are missing")
     void addFlight_shouldReturn400(VertxTestContext ctx) {
@@ -87,4 +131,178 @@ class FlightApiTest {
                     ctx.completeNow();
                 })));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /flights/bulk - Should import NDJSON in batches and report bad lines")
+    void bulkImportNdjson_shouldReportPerLineErrors(VertxTestContext ctx) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append(bulkFlight("BLK" + i, "2026-06-01T08:00:00").encode()).append('\n');
+        }
+        body.append(bulkFlight("BLK-BAD", "next tuesday").encode()).append('\n');
+        // Same flight number and departure as line 1, lands in a later batch
+        body.append(bulkFlight("BLK0", "2026-06-01T08:00:00").encode()).append('\n');
+
+        client.post(8080, "localhost", "/flights/bulk")
+                .putHeader("Content-Type", "application/x-ndjson")
+                .sendBuffer(Buffer.buffer(body.toString()))
+                .compose(resp -> {
+                    assertEquals(200, resp.statusCode());
+                    String[] lines = resp.bodyAsString().split("\n");
+                    assertEquals(3, lines.length);
+                    assertEquals(2501, new JsonObject(lines[0]).getInteger("line"));
+                    assertEquals(2502, new JsonObject(lines[1]).getInteger("line"));
+                    assertTrue(new JsonObject(lines[1]).getString("error").startsWith("Duplicate flight"));
+                    JsonObject summary = new JsonObject(lines[2]);
+                    assertEquals(2502, summary.getInteger("received"));
+                    assertEquals(2500, summary.getInteger("inserted"));
+                    assertEquals(2, summary.getInteger("failed"));
+                    return client.get(8080, "localhost", "/flights/search")
+                            .addQueryParam("from", "BLK")
+                            .addQueryParam("to", "IMP")
+                            .addQueryParam("departure", "2026-06-01")
+                            .send();
+                })
+                .onComplete(ctx.succeeding(search -> ctx.verify(() -> {
+                    assertEquals(2500, search.bodyAsJsonArray().size());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("POST /flights/bulk - Should import CSV with a header row")
+    void bulkImportCsv_shouldInsertRows(VertxTestContext ctx) {
+        String csv = """
+                flightNumber,airlineId,from,to,departureTime,arrivalTime,seatsAvailable,price
+                CSV1,1,CSA,CSB,2026-07-01T09:00:00,2026-07-01T11:00:00,40,250.00
+                CSV2,1,CSA,CSB,2026-07-01T15:00:00,2026-07-01T17:00:00,40,275.00
+                CSV3,1,CSA,CSB
+                """;
+
+        client.post(8080, "localhost", "/flights/bulk")
+                .putHeader("Content-Type", "text/csv")
+                .sendBuffer(Buffer.buffer(csv))
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(200, resp.statusCode());
+                    String[] lines = resp.bodyAsString().split("\n");
+                    assertEquals(4, new JsonObject(lines[0]).getInteger("line"));
+                    JsonObject summary = new JsonObject(lines[1]);
+                    assertEquals(2, summary.getInteger("inserted"));
+                    assertEquals(1, summary.getInteger("failed"));
+                    ctx.completeNow();
+                })));
+    }
+
+    private static JsonObject bulkFlight(String flightNumber, String departure) {
+        return new JsonObject()
+                .put("flightNumber", flightNumber)
+                .put("airlineId", 1)
+                .put("from", "BLK")
+                .put("to", "IMP")
+                .put("departureTime", departure)
+                .put("arrivalTime", "2026-06-01T10:00:00")
+                .put("seatsAvailable", 100)
+                .put("price", 99.0);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("GET /flights/calendar - Should keep per-day lowest fares current across new flights and bookings")
+    void fareCalendar_shouldTrackFlightsAndBookings(VertxTestContext ctx) {
+        JsonObject cheap = new JsonObject()
+                .put("flightNumber", "CAL1")
+                .put("airlineId", 1)
+                .put("from", "CLA")
+                .put("to", "CLB")
+                .put("departureTime", "2027-03-05T08:00:00")
+                .put("arrivalTime", "2027-03-05T10:00:00")
+                .put("seatsAvailable", 1)
+                .put("price", 90.0);
+        JsonObject dear = cheap.copy().put("flightNumber", "CAL2").put("departureTime", "2027-03-05T18:00:00")
+                .put("arrivalTime", "2027-03-05T20:00:00").put("seatsAvailable", 10).put("price", 150.0);
+
+        // Load the (empty) month first so both flights and the booking are applied incrementally
+        calendar()
+                .compose(empty -> {
+                    assertEquals(31, empty.getJsonArray("days").size());
+                    assertNull(empty.getJsonArray("days").getJsonObject(4).getValue("lowestFare"));
+                    return client.post(8080, "localhost", "/flights").sendJsonObject(cheap);
+                })
+                .compose(created -> client.post(8080, "localhost", "/flights").sendJsonObject(dear).map(created))
+                .compose(created -> calendar().compose(before -> {
+                    JsonObject day = before.getJsonArray("days").getJsonObject(4);
+                    assertEquals("2027-03-05", day.getString("date"));
+                    assertEquals(90.0, day.getDouble("lowestFare"));
+                    assertEquals(11, day.getInteger("seatsAvailable"));
+                    assertEquals(2, day.getInteger("flights"));
+                    // Sell the only seat on the cheaper flight
+                    return client.post(8080, "localhost", "/bookings").sendJsonObject(new JsonObject()
+                            .put("flightId", created.bodyAsJsonObject().getLong("id"))
+                            .put("passengerId", 1)
+                            .put("seatNumber", "1A"));
+                }))
+                .compose(booked -> {
+                    assertEquals(201, booked.statusCode());
+                    return calendar();
+                })
+                .onComplete(ctx.succeeding(after -> ctx.verify(() -> {
+                    JsonObject day = after.getJsonArray("days").getJsonObject(4);
+                    assertEquals(150.0, day.getDouble("lowestFare"));
+                    assertEquals(10, day.getInteger("seatsAvailable"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("GET /flights/calendar - Should reject a malformed month with 400")
+    void fareCalendar_badMonth_shouldReturn400(VertxTestContext ctx) {
+        client.get(8080, "localhost", "/flights/calendar?from=CLA&to=CLB&month=2027-13")
+                .send()
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(400, resp.statusCode());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("GET /flights/itineraries - Should return seeded direct flights and validate parameters")
+    void itineraries_shouldReturnDirectFlight(VertxTestContext ctx) {
+        // EK205 DXB -> LHR departs one day after seeding (see data.sql)
+        String tomorrow = java.time.LocalDate.now().plusDays(1).toString();
+        client.get(8080, "localhost", "/flights/itineraries?from=DXB&to=LHR&departure=" + tomorrow)
+                .send()
+                .compose(found -> client.get(8080, "localhost", "/flights/itineraries?from=DXB&to=LHR&departure="
+                                + tomorrow + "&sort=cheapest")
+                        .send()
+                        .map(bad -> {
+                            assertEquals(400, bad.statusCode());
+                            return found;
+                        }))
+                // Yesterday is outside the graph's window: rejected, not an empty result
+                .compose(found -> client.get(8080, "localhost", "/flights/itineraries?from=DXB&to=LHR&departure="
+                                + java.time.LocalDate.now().minusDays(1))
+                        .send()
+                        .map(past -> {
+                            assertEquals(400, past.statusCode());
+                            return found;
+                        }))
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(200, resp.statusCode());
+                    JsonObject first = resp.bodyAsJsonArray().getJsonObject(0);
+                    assertEquals(0, first.getInteger("stops"));
+                    assertEquals("EK205", first.getJsonArray("legs").getJsonObject(0).getString("flightNumber"));
+                    ctx.completeNow();
+                })));
+    }
+
+    private io.vertx.core.Future<JsonObject> calendar() {
+        return client.get(8080, "localhost", "/flights/calendar?from=CLA&to=CLB&month=2027-03")
+                .send()
+                .map(resp -> {
+                    assertEquals(200, resp.statusCode());
+                    return resp.bodyAsJsonObject();
+                });
+    }
+}
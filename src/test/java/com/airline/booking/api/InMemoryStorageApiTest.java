@@ -0,0 +1,119 @@
+package com.airline.booking.api;
+
+import com.airline.booking.MainVerticle;
+import com.airline.booking.service.DatabaseService;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class InMemoryStorageApiTest {
+
+    private static final int TEST_PORT = 8894;
+    private WebClient client;
+
+    @BeforeEach
+    void deploy(Vertx vertx, VertxTestContext ctx) {
+        client = WebClient.create(vertx);
+        DatabaseService db = new DatabaseService(vertx, new JsonObject().put("STORAGE", "memory"));
+        db.initialize()
+                .compose(v -> vertx.deployVerticle(new MainVerticle(db), new DeploymentOptions()
+                        .setConfig(new JsonObject().put("http.port", TEST_PORT))))
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @Test
+    @DisplayName("Seed data should be served from the in-memory repositories")
+    void seededReads(VertxTestContext ctx) {
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+        client.get(TEST_PORT, "localhost", "/flights/1").send()
+                .compose(flight -> client.get(TEST_PORT, "localhost",
+                        "/flights/search?from=DXB&to=LHR&departure=" + tomorrow).send().map(search -> {
+                    ctx.verify(() -> {
+                        assertEquals(200, flight.statusCode());
+                        assertEquals(1L, flight.bodyAsJsonObject().getLong("id"));
+                        assertEquals(200, search.statusCode());
+                        assertEquals("EK205", search.bodyAsJsonArray().getJsonObject(0).getString("flightNumber"));
+                    });
+                    return search;
+                }))
+                .compose(v -> client.get(TEST_PORT, "localhost", "/airlines?limit=2&stream=true").send())
+                .onComplete(ctx.succeeding(airlines -> ctx.verify(() -> {
+                    assertEquals(200, airlines.statusCode());
+                    assertEquals(2, airlines.bodyAsJsonArray().size());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Booking and cancelling should move the seat counter on the in-memory flight")
+    void bookAndCancel(VertxTestContext ctx) {
+        JsonObject passenger = new JsonObject()
+                .put("name", "Memory User")
+                .put("email", "memory@dvt.com")
+                .put("passportNumber", "MEM00001");
+
+        client.get(TEST_PORT, "localhost", "/flights/2").send()
+                .compose(before -> client.post(TEST_PORT, "localhost", "/passengers").sendJsonObject(passenger)
+                        .compose(p -> client.post(TEST_PORT, "localhost", "/bookings").sendJsonObject(new JsonObject()
+                                .put("flightId", 2)
+                                .put("passengerId", p.bodyAsJsonObject().getLong("id"))
+                                .put("seatNumber", "9F")))
+                        .compose(booked -> {
+                            ctx.verify(() -> assertEquals(201, booked.statusCode()));
+                            return client.get(TEST_PORT, "localhost", "/flights/2").send()
+                                    .map(during -> {
+                                        ctx.verify(() -> assertEquals(
+                                                before.bodyAsJsonObject().getInteger("seatsAvailable") - 1,
+                                                during.bodyAsJsonObject().getInteger("seatsAvailable")));
+                                        return booked.bodyAsJsonObject().getLong("id");
+                                    });
+                        })
+                        .compose(id -> client.delete(TEST_PORT, "localhost", "/bookings/" + id).send())
+                        .compose(cancelled -> {
+                            ctx.verify(() -> assertEquals(204, cancelled.statusCode()));
+                            return client.get(TEST_PORT, "localhost", "/flights/2").send();
+                        })
+                        .map(after -> before.bodyAsJsonObject().getInteger("seatsAvailable")
+                                .equals(after.bodyAsJsonObject().getInteger("seatsAvailable"))))
+                .onComplete(ctx.succeeding(restored -> ctx.verify(() -> {
+                    assertTrue(restored);
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Duplicate flights should be rejected like the unique_flight constraint")
+    void duplicateFlightRejected(VertxTestContext ctx) {
+        String day = LocalDate.now().plusDays(40).toString();
+        JsonObject flight = new JsonObject()
+                .put("flightNumber", "MEM1")
+                .put("airlineId", 1)
+                .put("from", "AAA")
+                .put("to", "BBB")
+                .put("departureTime", day + "T08:00:00")
+                .put("arrivalTime", day + "T10:00:00")
+                .put("seatsAvailable", 5)
+                .put("price", 50.0);
+
+        client.post(TEST_PORT, "localhost", "/flights").sendJsonObject(flight)
+                .compose(first -> client.post(TEST_PORT, "localhost", "/flights").sendJsonObject(flight)
+                        .map(second -> new JsonArray().add(first.statusCode()).add(second.statusCode())))
+                .onComplete(ctx.succeeding(codes -> ctx.verify(() -> {
+                    assertEquals(new JsonArray().add(201).add(409), codes);
+                    ctx.completeNow();
+                })));
+    }
+}
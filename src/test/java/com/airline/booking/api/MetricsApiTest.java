@@ -0,0 +1,94 @@
+package com.airline.booking.api;
+
+import com.airline.booking.MainVerticle;
+import com.airline.booking.metrics.AppVertxMetrics;
+import com.airline.booking.metrics.ConnectionPoolMetrics;
+import com.airline.booking.service.DatabaseService;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class MetricsApiTest {
+
+    private static final int TEST_PORT = 8893;
+    private Vertx vertx;
+    private WebClient client;
+
+    @BeforeEach
+    void deploy(VertxTestContext ctx) {
+        // Own instance: the injected Vertx is built without the metrics SPI
+        vertx = Vertx.builder()
+                .with(new VertxOptions().setMetricsOptions(new MetricsOptions().setEnabled(true)))
+                .withMetrics(options -> new AppVertxMetrics())
+                .build();
+        client = WebClient.create(vertx);
+        vertx.deployVerticle(new MainVerticle(), new DeploymentOptions()
+                        .setConfig(new JsonObject().put("http.port", TEST_PORT)))
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @AfterEach
+    void close(VertxTestContext ctx) {
+        vertx.close().onComplete(ctx.succeedingThenComplete());
+    }
+
+    @Test
+    @DisplayName("GET /metrics should expose route latency, query timings and pool state")
+    void scrape(VertxTestContext ctx) {
+        client.get(TEST_PORT, "localhost", "/flights/1").send()
+                .compose(v -> client.get(TEST_PORT, "localhost", "/flights/abc").send())
+                .compose(v -> client.get(TEST_PORT, "localhost", "/metrics").send())
+                .onComplete(ctx.succeeding(response -> ctx.verify(() -> {
+                    assertEquals(200, response.statusCode());
+                    assertTrue(response.getHeader("Content-Type").startsWith("text/plain; version=0.0.4"));
+                    String body = response.bodyAsString();
+                    assertTrue(body.contains(
+                            "http_server_requests_seconds_count{method=\"GET\",route=\"/flights/:id\",status=\"200\"} 1"));
+                    assertTrue(body.contains(
+                            "http_server_requests_seconds_count{method=\"GET\",route=\"/flights/:id\",status=\"400\"} 1"));
+                    assertTrue(body.contains("db_query_seconds_count{query=\"flight.byId\"} 1"));
+                    // Registered statements are listed before their first execution
+                    assertTrue(body.contains("db_query_seconds_count{query=\"booking.cancel\"} 0"));
+                    assertTrue(body.contains("db_pool_connections{pool=\"airline-db\",state=\"active\"} 0"));
+                    assertTrue(body.contains("db_pool_max_connections{pool=\"airline-db\"} 16"));
+                    assertTrue(body.contains("db_pool_max_connections{pool=\"airline-db-read\"} 8"));
+                    assertTrue(body.contains("access_log_dropped_total 0"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Pools with the same name on another Vert.x instance should not replace this instance's pool metrics")
+    void poolMetricsAreScopedToTheirVertx(VertxTestContext ctx) {
+        Vertx other = Vertx.builder()
+                .with(new VertxOptions().setMetricsOptions(new MetricsOptions().setEnabled(true)))
+                .withMetrics(options -> new AppVertxMetrics())
+                .build();
+        ConnectionPoolMetrics mine = ConnectionPoolMetrics.forPool(vertx, DatabaseService.POOL_NAME);
+        DatabaseService second = new DatabaseService(other, new JsonObject());
+
+        second.initialize()
+                .onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+                    ConnectionPoolMetrics theirs = ConnectionPoolMetrics.forPool(other, DatabaseService.POOL_NAME);
+                    assertNotNull(mine);
+                    assertNotNull(theirs);
+                    assertNotSame(mine, theirs);
+                    assertSame(mine, ConnectionPoolMetrics.forPool(vertx, DatabaseService.POOL_NAME));
+                    second.close();
+                    other.close().onComplete(ctx.succeedingThenComplete());
+                })));
+    }
+}
@@ -0,0 +1,89 @@
+package com.airline.booking.api;
+
+import com.airline.booking.MainVerticle;
+import com.airline.booking.service.DatabaseService;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class OverloadApiTest {
+
+    private static final int TEST_PORT = 8895;
+    private WebClient client;
+    private DatabaseService db;
+
+    @BeforeEach
+    void deploy(Vertx vertx, VertxTestContext ctx) {
+        client = WebClient.create(vertx);
+        // One connection for current reads and no room to wait for it
+        db = new DatabaseService(vertx, new JsonObject()
+                .put("DB_URL", "jdbc:h2:mem:overload-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1")
+                .put("DB_PRIMARY_READ_POOL_SIZE", 1)
+                .put("DB_PRIMARY_READ_POOL_MAX_WAIT_QUEUE", 0));
+        db.initialize()
+                .compose(v -> vertx.deployVerticle(new MainVerticle(db), new DeploymentOptions()
+                        .setConfig(new JsonObject().put("http.port", TEST_PORT))))
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @Test
+    @DisplayName("A search that finds the pool's wait queue full should get 503 with Retry-After, not 500")
+    void saturatedSearchIsShed(VertxTestContext ctx) {
+        db.getPrimaryReadPool().getConnection()
+                .compose(held -> client.get(TEST_PORT, "localhost", "/flights/search?from=DXB&to=LHR").send()
+                        .eventually(held::close))
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(503, resp.statusCode());
+                    assertNotNull(resp.getHeader("Retry-After"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Searches holding every read connection should not keep a booking from committing")
+    void bookingIsNotStarvedBySearches(VertxTestContext ctx) {
+        // Registering and the first booking load the passenger and the flight's seat inventory
+        register("Starved", "starved@overload.test")
+                .compose(first -> book(first))
+                .compose(warm -> {
+                    assertEquals(201, warm.statusCode());
+                    return register("Second", "second@overload.test");
+                })
+                .compose(second -> db.getPrimaryReadPool().getConnection()
+                        .compose(held -> client.get(TEST_PORT, "localhost", "/flights/search?from=DXB&to=LHR").send()
+                                .compose(search -> {
+                                    assertEquals(503, search.statusCode());
+                                    return book(second);
+                                })
+                                .eventually(held::close)))
+                .onComplete(ctx.succeeding(booked -> ctx.verify(() -> {
+                    assertEquals(201, booked.statusCode());
+                    ctx.completeNow();
+                })));
+    }
+
+    private Future<Long> register(String name, String email) {
+        return client.post(TEST_PORT, "localhost", "/passengers")
+                .sendJsonObject(new JsonObject().put("name", name + " Traveller").put("email", email)
+                        .put("passportNumber", name.toUpperCase() + "01"))
+                .map(resp -> resp.bodyAsJsonObject().getLong("id"));
+    }
+
+    private Future<HttpResponse<Buffer>> book(long passengerId) {
+        return client.post(TEST_PORT, "localhost", "/bookings")
+                .sendJsonObject(new JsonObject().put("flightId", 1).put("passengerId", (int) passengerId));
+    }
+}
@@ -0,0 +1,78 @@
+package com.airline.booking.api;
+
+import com.airline.booking.MainVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class PaginationApiTest {
+
+    private static final int TEST_PORT = 8892;
+    private WebClient client;
+
+    @BeforeEach
+    void deploy(Vertx vertx, VertxTestContext ctx) {
+        client = WebClient.create(vertx);
+        vertx.deployVerticle(new MainVerticle(), new DeploymentOptions()
+                        .setConfig(new JsonObject().put("http.port", TEST_PORT)))
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @Test
+    @DisplayName("GET /airlines?limit= should page by id and hand out the next cursor")
+    void keysetPages(VertxTestContext ctx) {
+        client.get(TEST_PORT, "localhost", "/airlines").addQueryParam("limit", "5").send()
+                .compose(first -> {
+                    assertEquals(200, first.statusCode());
+                    assertEquals(5, first.bodyAsJsonArray().size());
+                    String next = first.getHeader("X-Next-After");
+                    assertEquals(first.bodyAsJsonArray().getJsonObject(4).getLong("id").toString(), next);
+                    return client.get(TEST_PORT, "localhost", "/airlines")
+                            .addQueryParam("after", next)
+                            .addQueryParam("limit", "5")
+                            .send();
+                })
+                .onComplete(ctx.succeeding(second -> ctx.verify(() -> {
+                    JsonArray page = second.bodyAsJsonArray();
+                    assertEquals(5, page.size());
+                    assertEquals(6L, page.getJsonObject(0).getLong("id"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("GET /airlines?stream=true should return the same rows as the buffered list")
+    void streamedMatchesBuffered(VertxTestContext ctx) {
+        client.get(TEST_PORT, "localhost", "/airlines").send()
+                .compose(buffered -> client.get(TEST_PORT, "localhost", "/airlines")
+                        .addQueryParam("stream", "true")
+                        .send()
+                        .map(streamed -> {
+                            assertEquals("chunked", streamed.getHeader("transfer-encoding"));
+                            assertEquals(buffered.bodyAsJsonArray(), streamed.bodyAsJsonArray());
+                            return streamed;
+                        }))
+                .onComplete(ctx.succeeding(v -> ctx.completeNow()));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an out-of-range limit")
+    void invalidLimit(VertxTestContext ctx) {
+        client.get(TEST_PORT, "localhost", "/passengers/1/bookings").addQueryParam("limit", "0").send()
+                .onComplete(ctx.succeeding(resp -> ctx.verify(() -> {
+                    assertEquals(400, resp.statusCode());
+                    ctx.completeNow();
+                })));
+    }
+}
@@ -102,4 +102,27 @@ class PassengerApiTest {
                     ctx.completeNow();
                 })));
     }
+
+    @Test
+    @DisplayName("POST /passengers - Should reject (409) a passport or email that is already registered")
+    void addPassenger_duplicateIdentity_shouldReturn409(VertxTestContext ctx) {
+        // Seeded in data.sql
+        JsonObject samePassport = new JsonObject()
+                .put("name", "Someone Else")
+                .put("email", "someone.else@example.com")
+                .put("passportNumber", "AE987654321");
+        JsonObject sameEmail = new JsonObject()
+                .put("name", "Ahmed Again")
+                .put("email", "ahmed.alrashid@email.com")
+                .put("passportNumber", "XX0000001");
+
+        client.post(8080, "localhost", "/passengers").sendJsonObject(samePassport)
+                .compose(first -> client.post(8080, "localhost", "/passengers").sendJsonObject(sameEmail)
+                        .map(second -> new int[]{first.statusCode(), second.statusCode()}))
+                .onComplete(ctx.succeeding(statuses -> ctx.verify(() -> {
+                    assertEquals(409, statuses[0]);
+                    assertEquals(409, statuses[1]);
+                    ctx.completeNow();
+                })));
+    }
 }
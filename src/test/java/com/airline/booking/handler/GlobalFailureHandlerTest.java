@@ -1,5 +1,6 @@
 package com.airline.booking.handler;
 
+import io.vertx.core.http.ConnectionPoolTooBusyException;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
@@ -94,4 +95,21 @@ class GlobalFailureHandlerTest {
         JsonObject body = new JsonObject(captor.getValue());
         assertEquals("Invalid email format", body.getString("error"));
     }
+
+    @Test
+    @DisplayName("Should answer shed requests and a full pool wait queue with 503 and Retry-After")
+    void handleOverloaded() {
+        when(rc.failure()).thenReturn(new AdmissionHandler.Overloaded(),
+                new ConnectionPoolTooBusyException("Connection pool reached max wait queue size of 128"));
+
+        GlobalFailureHandler.handle(rc);
+        GlobalFailureHandler.handle(rc);
+
+        verify(response, times(2)).setStatusCode(503);
+        verify(response, times(2)).putHeader("Retry-After", "1");
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(response, times(2)).end(captor.capture());
+        assertEquals("Service is at capacity, retry shortly", new JsonObject(captor.getValue()).getString("error"));
+    }
 }
@@ -0,0 +1,52 @@
+package com.airline.booking.handler;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Flight;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseTest {
+
+    private final Flight flight = new Flight(1L, 2L, "EK205", "DXB", "LHR",
+            "2026-05-01T10:00", "2026-05-01T17:00", 50, 899.99);
+
+    @Test
+    @DisplayName("Compact list encoding should match the pretty form without the whitespace")
+    void compactListMatchesPretty() {
+        List<Object> body = List.of(flight, new Airline(3L, "Emirates", "EK", "United Arab Emirates"));
+
+        Buffer compact = JsonResponse.encode(body, false);
+        Buffer pretty = JsonResponse.encode(body, true);
+
+        assertEquals(new JsonArray(pretty), new JsonArray(compact));
+        assertFalse(compact.toString().contains("\n"));
+        assertTrue(compact.length() < pretty.length());
+    }
+
+    @Test
+    @DisplayName("Immutable snapshots should be encoded once and reused")
+    void snapshotsAreCached() {
+        Buffer first = JsonResponse.encode(flight, false);
+        Buffer second = JsonResponse.encode(flight, false);
+
+        assertSame(first, second);
+        assertEquals("EK205", new JsonObject(first).getString("flightNumber"));
+
+        Buffer uncached = JsonResponse.encodeUncached(flight);
+        assertNotSame(first, uncached);
+        assertEquals(first, uncached);
+    }
+
+    @Test
+    @DisplayName("Empty lists should encode as an empty array")
+    void emptyList() {
+        assertEquals("[]", JsonResponse.encode(List.of(), false).toString());
+    }
+}
@@ -0,0 +1,97 @@
+package com.airline.booking.load;
+
+import com.airline.booking.MainVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load scenarios against a local MainVerticle. Excluded from the default build; run with
+ * {@code mvn -Pload test}, tuning size with -Dload.clients / -Dload.requests.
+ */
+@Tag("load")
+@ExtendWith(VertxExtension.class)
+class BookingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(com.airline.booking.load.BookingLoadTest.class);
+    private static final int PORT = 8897;
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 5_000);
+    // Admission control may shed some traffic as a burst starts, but not a meaningful share of it
+    private static final double MAX_SHED_RATE = 0.01;
+
+    private LoadHarness harness;
+
+    @BeforeEach
+    void deploy(Vertx vertx, VertxTestContext ctx) {
+        harness = new LoadHarness(vertx, PORT, CLIENTS);
+        vertx.deployVerticle(new MainVerticle(), new DeploymentOptions()
+                        .setConfig(new JsonObject().put("http.port", PORT)))
+                .onComplete(ctx.succeedingThenComplete());
+    }
+
+    @AfterEach
+    void close() {
+        harness.close();
+    }
+
+    @Test
+    @Timeout(value = 5, timeUnit = TimeUnit.MINUTES)
+    @DisplayName("Racing for the last seats should sell each seat exactly once")
+    void lastSeatsRace(VertxTestContext ctx) {
+        int seats = 5;
+        LoadScenarios.lastSeatsRace(harness, CLIENTS, seats)
+                .onComplete(ctx.succeeding(report -> ctx.verify(() -> {
+                    log.info("Load report:\n{}", report.format());
+                    assertEquals(seats, report.count("2xx"));
+                    assertEquals(CLIENTS - seats, report.count("409"));
+                    assertEquals(0, report.count("503"));
+                    assertEquals(0, report.count("5xx"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @Timeout(value = 5, timeUnit = TimeUnit.MINUTES)
+    @DisplayName("Mixed search/booking traffic should not produce server errors and should rarely be shed")
+    void mixedSearchBooking(VertxTestContext ctx) {
+        LoadScenarios.mixedSearchBooking(harness, CLIENTS, REQUESTS)
+                .onComplete(ctx.succeeding(report -> ctx.verify(() -> {
+                    log.info("Load report:\n{}", report.format());
+                    assertEquals(REQUESTS, report.requests());
+                    assertEquals(0, report.count("5xx"));
+                    assertEquals(0, report.count("transport"));
+                    assertTrue(report.rate("503") <= MAX_SHED_RATE, "shed " + report.count("503"));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @Timeout(value = 5, timeUnit = TimeUnit.MINUTES)
+    @DisplayName("Cancel/rebook churn should only ever answer 2xx or 409")
+    void cancelRebookChurn(VertxTestContext ctx) {
+        LoadScenarios.cancelRebookChurn(harness, CLIENTS, Math.max(1, REQUESTS / CLIENTS / 4))
+                .onComplete(ctx.succeeding(report -> ctx.verify(() -> {
+                    log.info("Load report:\n{}", report.format());
+                    assertEquals(0, report.count("5xx"));
+                    assertTrue(report.rate("503") <= MAX_SHED_RATE, "shed " + report.count("503"));
+                    assertEquals(report.requests(), report.count("2xx") + report.count("409") + report.count("503"));
+                    ctx.completeNow();
+                })));
+    }
+}
@@ -0,0 +1,59 @@
+package com.airline.booking.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Collects per-request latency and outcome samples for one scenario run. */
+final class LatencyRecorder {
+
+    private long[] samples = new long[4096];
+    private int count;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, int status) {
+        add(latencyNanos);
+        outcomes.merge(bucket(status), 1L, Long::sum);
+    }
+
+    synchronized void recordError(long latencyNanos) {
+        add(latencyNanos);
+        outcomes.merge("transport", 1L, Long::sum);
+    }
+
+    synchronized LoadReport report(String scenario, long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return new LoadReport(scenario, count, count / seconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), percentileMillis(sorted, 0.999),
+                new TreeMap<>(outcomes));
+    }
+
+    private void add(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    // 409 is called out on its own: it is the expected answer when clients race for the same seat.
+    // So is 503, which admission control answers by design; every other 5xx is a server error
+    private static String bucket(int status) {
+        if (status == 409 || status == 503) {
+            return String.valueOf(status);
+        }
+        if (status >= 500) {
+            return "5xx";
+        }
+        return (status / 100) + "xx";
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,136 @@
+package com.airline.booking.load;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load generator against a MainVerticle on a local port: a fixed number of virtual
+ * clients each send their next request as soon as the previous one completes.
+ */
+final class LoadHarness {
+
+    private final WebClient client;
+    private final int port;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    LoadHarness(Vertx vertx, int port, int maxConnections) {
+        this.client = WebClient.create(vertx, new WebClientOptions(), new PoolOptions().setHttp1MaxSize(maxConnections));
+        this.port = port;
+    }
+
+    WebClient client() {
+        return client;
+    }
+
+    int port() {
+        return port;
+    }
+
+    /** Issues {@code totalRequests} calls across {@code concurrency} clients; request(i) builds the i-th call. */
+    Future<LoadReport> run(String scenario, int concurrency, int totalRequests,
+                           IntFunction<Future<HttpResponse<Buffer>>> request) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        AtomicInteger issued = new AtomicInteger();
+        long start = System.nanoTime();
+
+        List<Future<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Promise<Void> done = Promise.promise();
+            next(issued, totalRequests, request, recorder, done);
+            clients.add(done.future());
+        }
+        return Future.all(clients).map(v -> recorder.report(scenario, System.nanoTime() - start));
+    }
+
+    private void next(AtomicInteger issued, int total, IntFunction<Future<HttpResponse<Buffer>>> request,
+                      LatencyRecorder recorder, Promise<Void> done) {
+        int index = issued.getAndIncrement();
+        if (index >= total) {
+            done.complete();
+            return;
+        }
+        long sent = System.nanoTime();
+        request.apply(index).onComplete(ar -> {
+            long latency = System.nanoTime() - sent;
+            if (ar.succeeded()) {
+                recorder.record(latency, ar.result().statusCode());
+            } else {
+                recorder.recordError(latency);
+            }
+            next(issued, total, request, recorder, done);
+        });
+    }
+
+    /** Creates passengers sequentially (setup, not measured) and returns their ids. */
+    Future<List<Integer>> createPassengers(String prefix, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        Future<Void> chain = Future.succeededFuture();
+        for (int i = 0; i < count; i++) {
+            int n = sequence.incrementAndGet();
+            chain = chain.compose(v -> client.post(port, "localhost", "/passengers")
+                    .sendJsonObject(new JsonObject()
+                            .put("name", "Load " + prefix)
+                            .put("email", prefix + n + "@load.test")
+                            .put("passportNumber", prefix + n))
+                    .map(res -> {
+                        ids.add(res.bodyAsJsonObject().getInteger("id"));
+                        return null;
+                    }));
+        }
+        return chain.map(ids);
+    }
+
+    /** Creates a flight with the given capacity and returns its id. */
+    Future<Integer> createFlight(String prefix, int seats, LocalDateTime departure) {
+        JsonObject flight = new JsonObject()
+                .put("flightNumber", prefix + sequence.incrementAndGet())
+                .put("airlineId", 1)
+                .put("from", "JNB")
+                .put("to", "CPT")
+                .put("departureTime", departure.toString())
+                .put("arrivalTime", departure.plusHours(2).toString())
+                .put("seatsAvailable", seats)
+                .put("totalSeats", seats)
+                .put("price", 1500.0);
+        return client.post(port, "localhost", "/flights")
+                .sendJsonObject(flight)
+                .map(res -> res.bodyAsJsonObject().getInteger("id"));
+    }
+
+    Future<HttpResponse<Buffer>> book(int flightId, int passengerId, String seat) {
+        JsonObject booking = new JsonObject()
+                .put("flightId", flightId)
+                .put("passengerId", passengerId)
+                .put("seatNumber", seat);
+        return client.post(port, "localhost", "/bookings").sendJsonObject(booking);
+    }
+
+    Future<HttpResponse<Buffer>> cancel(long bookingId) {
+        return client.delete(port, "localhost", "/bookings/" + bookingId).send();
+    }
+
+    Future<HttpResponse<Buffer>> search(String from, String to, String departure) {
+        return client.get(port, "localhost", "/flights/search")
+                .addQueryParam("from", from)
+                .addQueryParam("to", to)
+                .addQueryParam("departure", departure)
+                .send();
+    }
+
+    void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.airline.booking.load;
+
+import java.util.Map;
+
+/** Summary of one scenario run: throughput, latency percentiles and outcome breakdown. */
+record LoadReport(
+        String scenario,
+        long requests,
+        double throughputPerSecond,
+        double p50Millis,
+        double p99Millis,
+        double p999Millis,
+        Map<String, Long> outcomes
+) {
+    long count(String outcome) {
+        return outcomes.getOrDefault(outcome, 0L);
+    }
+
+    /** Share of all requests that ended with {@code outcome}. */
+    double rate(String outcome) {
+        return requests == 0 ? 0 : (double) count(outcome) / requests;
+    }
+
+    String format() {
+        return String.format("%-22s requests=%-6d throughput=%8.1f req/s  p50=%7.2fms  p99=%7.2fms  p999=%7.2fms  outcomes=%s",
+                scenario, requests, throughputPerSecond, p50Millis, p99Millis, p999Millis, outcomes);
+    }
+}
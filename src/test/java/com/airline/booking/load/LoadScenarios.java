@@ -0,0 +1,59 @@
+package com.airline.booking.load;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Named load scenarios; each performs its own (unmeasured) setup before the timed run. */
+final class LoadScenarios {
+
+    private LoadScenarios() {
+    }
+
+    /** Every client races for one of the last few seats on a single flight. */
+    static Future<LoadReport> lastSeatsRace(LoadHarness harness, int clients, int seats) {
+        LocalDateTime departure = LocalDateTime.now().plusDays(30).withNano(0);
+        return harness.createFlight("RACE", seats, departure)
+                .compose(flightId -> harness.createPassengers("race", clients)
+                        .compose(passengers -> harness.run("last-seats-race", clients, clients,
+                                i -> harness.book(flightId, passengers.get(i), null))));
+    }
+
+    /** 90% searches on a hot route, 10% bookings onto a roomy flight. */
+    static Future<LoadReport> mixedSearchBooking(LoadHarness harness, int concurrency, int requests) {
+        int bookings = requests / 10;
+        LocalDateTime departure = LocalDateTime.now().plusDays(31).withNano(0);
+        // EK205 DXB -> LHR is seeded one day ahead (see data.sql)
+        String searchDate = LocalDate.now().plusDays(1).toString();
+
+        return harness.createFlight("MIX", bookings + 1, departure)
+                .compose(flightId -> harness.createPassengers("mix", bookings)
+                        .compose(passengers -> harness.run("mixed-search-booking", concurrency, requests, i ->
+                                i % 10 == 0 && i / 10 < passengers.size()
+                                        ? harness.book(flightId, passengers.get(i / 10), null)
+                                        : harness.search("DXB", "LHR", searchDate))));
+    }
+
+    /** Clients repeatedly book and cancel on a small flight, so seats keep changing hands. */
+    static Future<LoadReport> cancelRebookChurn(LoadHarness harness, int clients, int cyclesPerClient) {
+        LocalDateTime departure = LocalDateTime.now().plusDays(32).withNano(0);
+        int seats = Math.max(1, clients / 2);
+
+        return harness.createFlight("CHURN", seats, departure)
+                .compose(flightId -> harness.createPassengers("churn", clients)
+                        .compose(passengers -> harness.run("cancel-rebook-churn", clients, clients * cyclesPerClient,
+                                i -> bookThenCancel(harness, flightId, passengers, i % clients))));
+    }
+
+    private static Future<HttpResponse<Buffer>> bookThenCancel(LoadHarness harness, int flightId,
+                                                               List<Integer> passengers, int client) {
+        return harness.book(flightId, passengers.get(client), "C" + client)
+                .compose(res -> res.statusCode() == 201
+                        ? harness.cancel(res.bodyAsJsonObject().getLong("id"))
+                        : Future.succeededFuture(res));
+    }
+}
@@ -0,0 +1,60 @@
+package com.airline.booking.metrics;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogTest {
+
+    @Test
+    @DisplayName("Sampled-out routes should still log every error")
+    void samplingKeepsErrors() {
+        AccessLog accessLog = new AccessLog(true, 64, 1.0, Map.of("GET /flights/search", 0.0));
+        double rate = accessLog.sampleRate("GET /flights/search");
+        assertEquals(0.0, rate);
+        assertEquals(1.0, accessLog.sampleRate("POST /bookings"));
+
+        accessLog.record("GET", "/flights/search", 200, 1_000_000, 0, rate);
+        accessLog.record("GET", "/flights/search", 503, 2_500_000, 1_250_000, rate);
+        accessLog.record("POST", "/bookings", 201, 1_000_000, 500_000, 1.0);
+
+        List<String> lines = new ArrayList<>();
+        assertEquals(2, accessLog.drain(new StringBuilder(), lines::add));
+        assertEquals(1, accessLog.sampledOut());
+        assertTrue(lines.get(0).endsWith(" GET /flights/search status=503 latency_ms=2.500 db_ms=1.250"), lines.get(0));
+        assertTrue(lines.get(1).endsWith(" POST /bookings status=201 latency_ms=1.000 db_ms=0.500"), lines.get(1));
+    }
+
+    @Test
+    @DisplayName("A full ring should drop new entries instead of blocking, and reuse slots once drained")
+    void fullRingDrops() {
+        AccessLog accessLog = new AccessLog(true, 4, 1.0, Map.of());
+        for (int i = 0; i < 6; i++) {
+            accessLog.record("GET", "/airlines", 200, i, 0, 1.0);
+        }
+        assertEquals(2, accessLog.dropped());
+
+        List<String> lines = new ArrayList<>();
+        assertEquals(4, accessLog.drain(new StringBuilder(), lines::add));
+        assertEquals(0, accessLog.drain(new StringBuilder(), lines::add));
+
+        accessLog.record("GET", "/airlines", 404, 0, 0, 1.0);
+        assertEquals(1, accessLog.drain(new StringBuilder(), lines::add));
+        assertTrue(lines.get(4).contains("status=404"));
+    }
+
+    @Test
+    @DisplayName("Disabled access log should record nothing")
+    void disabled() {
+        try (AccessLog accessLog = AccessLog.fromConfig(new JsonObject().put("ACCESS_LOG_ENABLED", false))) {
+            accessLog.record("GET", "/airlines", 500, 0, 0, 1.0);
+            assertEquals(0, accessLog.drain(new StringBuilder(), line -> fail(line)));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.airline.booking.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Bucket bounds should be contiguous and keep values within ~12.5%")
+    void bucketsAreContiguous() {
+        long previous = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long upper = LatencyHistogram.upperBound(i);
+            assertTrue(upper > previous, "bucket " + i);
+            assertEquals(i, LatencyHistogram.indexOf(upper - 1), "bucket " + i);
+            if (i + 1 < LatencyHistogram.BUCKETS) {
+                assertEquals(i + 1, LatencyHistogram.indexOf(upper));
+            }
+            assertTrue(upper - previous <= Math.max(1, upper / 8), "bucket " + i);
+            previous = upper;
+        }
+    }
+
+    @Test
+    @DisplayName("Cumulative counts and percentiles should follow the recorded samples")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_500, histogram.sumMicros());
+        assertEquals(10, histogram.countAtOrBelow(10));
+        assertEquals(1000, histogram.countAtOrBelow(1024));
+        assertEquals(500, histogram.percentileMicros(50), 500 / 8.0);
+        assertEquals(990, histogram.percentileMicros(99), 990 / 8.0);
+    }
+
+    @Test
+    @DisplayName("Exported le buckets should be exact even where they split an HDR bucket")
+    void exportBucketsAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(500_000);      // exactly 0.5ms
+        histogram.recordNanos(500_001);      // just above it
+        histogram.recordMicros(990);         // shares an HDR bucket with 1000-1023us
+        histogram.recordNanos(1_000_000);    // exactly 1ms
+        histogram.recordNanos(20_000_000_000L);
+
+        assertEquals(1, histogram.countAtOrBelowExportBound(0));
+        assertEquals(4, histogram.countAtOrBelowExportBound(1));
+        int last = LatencyHistogram.EXPORT_BOUNDS_SECONDS.length - 1;
+        assertEquals(4, histogram.countAtOrBelowExportBound(last));
+        assertEquals(5, histogram.count());
+    }
+}
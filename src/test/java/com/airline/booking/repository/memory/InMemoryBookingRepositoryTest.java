@@ -0,0 +1,116 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Booking;
+import com.airline.booking.model.Flight;
+import com.airline.booking.model.Passenger;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.Keyset;
+import com.airline.booking.repository.NewBooking;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryBookingRepositoryTest {
+
+    private InMemoryStorage storage(int seats) {
+        InMemoryStorage storage = new InMemoryStorage();
+        storage.restore(new Airline(1L, "Test Air", "TST", "Nowhere"));
+        storage.restore(new Flight(1L, 1L, "TS1", "AAA", "BBB", "2030-01-01T08:00", "2030-01-01T10:00", seats, 100.0));
+        for (long id = 0; id < 200; id++) {
+            storage.restore(new Passenger(id, "Test", "Passenger" + id, "p" + id + "@test", null));
+        }
+        return storage;
+    }
+
+    private static NewBooking booking(long passengerId) {
+        return new NewBooking("R" + passengerId, passengerId, 1L, null, 100.0);
+    }
+
+    @Test
+    @DisplayName("Concurrent inserts should never take more seats than the flight has")
+    void concurrentInsertsNeverOversell() throws InterruptedException {
+        InMemoryStorage storage = storage(50);
+        AtomicInteger booked = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            long passengerId = i;
+            pool.submit(() -> {
+                if (storage.bookings().insert(booking(passengerId)).result() != null) {
+                    booked.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, booked.get());
+        assertEquals(0, storage.flights().findById(1L).result().seatsAvailable());
+        assertEquals(50, storage.bookings().confirmedForFlight(1L).result().size());
+    }
+
+    @Test
+    @DisplayName("A group that does not fit should change nothing; cancelling returns the seat once")
+    void insertAllAndCancel() {
+        InMemoryStorage storage = storage(2);
+
+        assertNull(storage.bookings().insertAll(1L, List.of(booking(1), booking(2), booking(3))).result());
+        assertEquals(2, storage.flights().findById(1L).result().seatsAvailable());
+
+        List<Booking> group = storage.bookings().insertAll(1L, List.of(booking(1), booking(2))).result();
+        assertEquals(List.of(1L, 2L), group.stream().map(Booking::passengerId).toList());
+        assertEquals(0, storage.flights().findById(1L).result().seatsAvailable());
+
+        assertEquals("CANCELLED", storage.bookings().cancel(group.get(0).id()).result().status());
+        assertNull(storage.bookings().cancel(group.get(0).id()).result());
+        assertEquals(1, storage.flights().findById(1L).result().seatsAvailable());
+    }
+
+    @Test
+    @DisplayName("A passenger or seat already confirmed on the flight should be rejected without taking a seat")
+    void duplicatesAreRejected() {
+        InMemoryStorage storage = storage(10);
+        storage.bookings().insert(new NewBooking("R1", 1L, 1L, "1A", 100.0));
+
+        assertInstanceOf(BookingRepository.AlreadyBookedException.class,
+                storage.bookings().insert(new NewBooking("R2", 1L, 1L, "2A", 100.0)).cause());
+        assertInstanceOf(BookingRepository.AlreadyBookedException.class,
+                storage.bookings().insertAll(1L, List.of(booking(2), new NewBooking("R3", 3L, 1L, "1A", 100.0))).cause());
+        assertEquals(9, storage.flights().findById(1L).result().seatsAvailable());
+        assertEquals(1, storage.bookings().confirmedForFlight(1L).result().size());
+    }
+
+    @Test
+    @DisplayName("Keyset pages of a passenger's bookings should see every booking made concurrently, in id order")
+    void concurrentBookingsPageInIdOrder() throws InterruptedException {
+        InMemoryStorage storage = storage(1);
+        for (long flightId = 2; flightId <= 400; flightId++) {
+            storage.restore(new Flight(flightId, 1L, "TS" + flightId, "AAA", "BBB", "2030-01-01T08:00", "2030-01-01T10:00", 1, 100.0));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (long flightId = 1; flightId <= 400; flightId++) {
+            long id = flightId;
+            pool.submit(() -> storage.bookings().insert(new NewBooking("K" + id, 7L, id, null, 100.0)));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Long> paged = new ArrayList<>();
+        long after = 0;
+        List<Booking> page;
+        while (!(page = storage.bookings().findByPassenger(7L, new Keyset(after, 25)).result()).isEmpty()) {
+            page.forEach(b -> paged.add(b.id()));
+            after = page.get(page.size() - 1).id();
+        }
+        assertEquals(400, paged.size());
+        assertEquals(paged.stream().sorted().toList(), paged);
+    }
+}
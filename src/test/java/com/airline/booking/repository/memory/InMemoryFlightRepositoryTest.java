@@ -0,0 +1,63 @@
+package com.airline.booking.repository.memory;
+
+import com.airline.booking.model.Airline;
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.NewFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFlightRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    private InMemoryStorage storage() {
+        InMemoryStorage storage = new InMemoryStorage();
+        storage.restore(new Airline(1L, "Test Air", "TST", "Nowhere"));
+        return storage;
+    }
+
+    private static NewFlight flight(String number, String from, String to, LocalDateTime departure) {
+        return new NewFlight(number, 1L, from, to, departure, departure.plusHours(2), 10, 10, 100.0);
+    }
+
+    @Test
+    @DisplayName("Route and time-window lookups should return departures in range, in order, with current seats")
+    void routeAndWindowLookups() {
+        InMemoryStorage storage = storage();
+        storage.flights().insert(flight("TS3", "AAA", "BBB", DAY.plusDays(1).atTime(6, 0)));
+        storage.flights().insert(flight("TS2", "AAA", "BBB", DAY.atTime(18, 0)));
+        Flight early = storage.flights().insert(flight("TS1", "AAA", "BBB", DAY.atTime(7, 0))).result();
+        storage.flights().insert(flight("TS4", "AAA", "CCC", DAY.atTime(9, 0)));
+        storage.flights().takeSeats(early.id(), 3);
+
+        List<Flight> day = storage.flights().findByRoute("AAA", "BBB", DAY).result();
+        assertEquals(List.of("TS1", "TS2"), day.stream().map(Flight::flightNumber).toList());
+        assertEquals(7, day.get(0).seatsAvailable());
+        assertEquals(3, storage.flights().findByRoute("AAA", "BBB", DAY, DAY.plusDays(2)).result().size());
+        assertEquals(List.of("TS4", "TS2"), storage.flights()
+                .departingBetween(DAY.atTime(8, 0), DAY.plusDays(1).atStartOfDay()).result()
+                .stream().map(Flight::flightNumber).toList());
+        assertTrue(storage.flights().findByRoute("BBB", "AAA", DAY).result().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A rejected batch should never be visible and should release its unique keys")
+    void rejectedBatchIsInvisible() {
+        InMemoryStorage storage = storage();
+        storage.flights().insert(flight("TS9", "AAA", "BBB", DAY.atTime(12, 0)));
+
+        assertTrue(storage.flights().insertAll(List.of(
+                flight("TS1", "AAA", "BBB", DAY.atTime(8, 0)),
+                flight("TS9", "AAA", "BBB", DAY.atTime(12, 0)))).failed());
+
+        assertEquals(List.of("TS9"), storage.flights().findByRoute("AAA", "BBB", DAY).result()
+                .stream().map(Flight::flightNumber).toList());
+        assertTrue(storage.flights().insert(flight("TS1", "AAA", "BBB", DAY.atTime(8, 0))).succeeded());
+    }
+}
@@ -0,0 +1,88 @@
+package com.airline.booking.service;
+
+import com.airline.booking.service.AdmissionController.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    @Test
+    @DisplayName("Searches should be shed at three quarters of the limit while bookings can still use all of it")
+    void shedsByPriority() {
+        AdmissionController admission = new AdmissionController(20, 20, 20, 1, TimeUnit.HOURS);
+        List<Long> held = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            held.add(admission.tryAcquire(Priority.SEARCH));
+        }
+        assertEquals(-1, admission.tryAcquire(Priority.SEARCH));
+        for (int i = 0; i < 3; i++) {
+            held.add(admission.tryAcquire(Priority.STANDARD));
+        }
+        assertEquals(-1, admission.tryAcquire(Priority.STANDARD));
+        held.add(admission.tryAcquire(Priority.BOOKING));
+        held.add(admission.tryAcquire(Priority.BOOKING));
+        assertEquals(-1, admission.tryAcquire(Priority.BOOKING));
+
+        assertTrue(held.stream().allMatch(start -> start >= 0));
+        assertEquals(20, admission.inFlight());
+        assertEquals(3, admission.shed());
+        held.forEach(admission::release);
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    @DisplayName("The limit should grow while busy and fast, and back off once on a slow burst")
+    void additiveIncreaseMultiplicativeDecrease() {
+        AdmissionController admission = new AdmissionController(20, 4, 100, 1, TimeUnit.HOURS);
+        for (int round = 0; round < 20; round++) {
+            List<Long> held = new ArrayList<>();
+            for (int i = 0; i < admission.limit(); i++) {
+                held.add(admission.tryAcquire(Priority.BOOKING));
+            }
+            held.forEach(admission::release);
+        }
+        assertTrue(admission.limit() > 25, "limit " + admission.limit());
+
+        // Idle traffic does not inflate the limit
+        int grown = admission.limit();
+        for (int i = 0; i < 1000; i++) {
+            admission.release(admission.tryAcquire(Priority.BOOKING));
+        }
+        assertEquals(grown, admission.limit());
+
+        // Slow requests in the same interval count as one congestion signal
+        long longAgo = System.nanoTime() - TimeUnit.HOURS.toNanos(2);
+        for (int i = 0; i < 200; i++) {
+            admission.tryAcquire(Priority.BOOKING);
+            admission.release(longAgo);
+        }
+        assertEquals((int) (grown * AdmissionController.BACKOFF), admission.limit(), 1);
+    }
+
+    @Test
+    @DisplayName("A lone slow request among fast ones should not cut the limit")
+    void singleSlowRequestIsNoCongestion() {
+        AdmissionController admission = new AdmissionController(20, 4, 100, 1, TimeUnit.HOURS);
+        long longAgo = System.nanoTime() - TimeUnit.HOURS.toNanos(2);
+
+        admission.tryAcquire(Priority.BOOKING);
+        admission.release(longAgo);
+        assertEquals(20, admission.limit());
+
+        // Past the minimum count but still a small share of what completed in the interval
+        for (int i = 0; i < 100; i++) {
+            admission.release(admission.tryAcquire(Priority.BOOKING));
+        }
+        for (int i = 0; i < AdmissionController.MIN_SLOW; i++) {
+            admission.tryAcquire(Priority.BOOKING);
+            admission.release(longAgo);
+        }
+        assertEquals(20, admission.limit());
+    }
+}
@@ -0,0 +1,72 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Airline;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class AirlineSearchIndexTest {
+
+    @Test
+    @DisplayName("Index search should return exactly what the SQL LIKE search returns, in the same order")
+    void matchesSqlSearch(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        AirlineSearchIndex index = db.airlineSearchIndex();
+        String[][] criteria = {
+                {"air", null, null},
+                {"AIRWAYS", null, null},
+                {"ways", null, "united"},
+                {null, "e", null},
+                {"a", "k", "k"},
+                {"royal air", null, null},
+                {"no such airline", null, null},
+                {null, null, null},
+        };
+
+        db.initialize().compose(v -> {
+            List<Future<?>> checks = new ArrayList<>();
+            for (String[] c : criteria) {
+                checks.add(Future.all(db.airlines().search(null, c[0], c[1], c[2]), index.search(null, c[0], c[1], c[2]))
+                        .onSuccess(both -> ctx.verify(() -> assertEquals(
+                                both.<List<Airline>>resultAt(0), both.<List<Airline>>resultAt(1), String.join("|", String.valueOf(c[0]), c[1], c[2])))));
+            }
+            return Future.all(checks);
+        }).onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+            assertTrue(index.size() > 10);
+            ctx.completeNow();
+        })));
+    }
+
+    @Test
+    @DisplayName("New airlines should be searchable once added, and adding twice should not duplicate them")
+    void addAfterInsert(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        AirlineSearchIndex index = db.airlineSearchIndex();
+
+        db.initialize()
+                .compose(v -> db.airlines().insert(new Airline(null, "Zephyr Skyways", "ZSW", "Iceland")))
+                .compose(saved -> {
+                    int before = index.size();
+                    index.add(saved);
+                    index.add(saved);
+                    assertEquals(before + 1, index.size());
+                    return index.autocomplete("zeph", 5);
+                })
+                .onComplete(ctx.succeeding(found -> ctx.verify(() -> {
+                    assertEquals(1, found.size());
+                    assertEquals("ZSW", found.get(0).code());
+                    ctx.completeNow();
+                })));
+    }
+}
@@ -0,0 +1,88 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingReferenceAllocatorTest {
+
+    @Test
+    @DisplayName("References should be unique across threads and blocks, and carry a valid check symbol")
+    void uniqueAcrossThreads() throws InterruptedException {
+        AtomicLong sequence = new AtomicLong();
+        BookingReferenceAllocator allocator =
+                new BookingReferenceAllocator(() -> Future.succeededFuture(sequence.incrementAndGet()));
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        int perThread = BookingReferenceAllocator.BLOCK_SIZE * 3 + 7;
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    seen.add(allocator.next().result());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(4 * perThread, seen.size());
+        assertTrue(seen.stream().allMatch(BookingReferenceAllocator::isValid));
+        assertTrue(seen.stream().allMatch(ref -> ref.length() == 8 && ref.chars().noneMatch(c -> "01OIL".indexOf(c) >= 0)));
+    }
+
+    @Test
+    @DisplayName("A group spanning a block boundary should be served from the next block without repeats")
+    void groupAcrossBlocks() {
+        AtomicLong sequence = new AtomicLong();
+        BookingReferenceAllocator allocator =
+                new BookingReferenceAllocator(() -> Future.succeededFuture(sequence.incrementAndGet()));
+
+        List<String> first = allocator.next(BookingReferenceAllocator.BLOCK_SIZE - 10).result();
+        List<String> second = allocator.next(100).result();
+
+        Set<String> all = new HashSet<>(first);
+        all.addAll(second);
+        assertEquals(first.size() + second.size(), all.size());
+        // One block for the first group, the prefetched one for the rest
+        assertEquals(2, sequence.get());
+    }
+
+    @Test
+    @DisplayName("The check symbol should catch single-character typos and swapped characters")
+    void checkSymbolCatchesTypos() {
+        String ref = BookingReferenceAllocator.encode(123_456L);
+        assertTrue(BookingReferenceAllocator.isValid(ref));
+
+        String alphabet = BookingReferenceAllocator.ALPHABET;
+        for (int i = 0; i < ref.length(); i++) {
+            for (char c : alphabet.toCharArray()) {
+                if (c != ref.charAt(i)) {
+                    String typo = ref.substring(0, i) + c + ref.substring(i + 1);
+                    assertFalse(BookingReferenceAllocator.isValid(typo), typo);
+                }
+            }
+        }
+        for (int i = 0; i < ref.length(); i++) {
+            for (int j = i + 1; j < ref.length(); j++) {
+                if (ref.charAt(i) != ref.charAt(j)) {
+                    char[] swapped = ref.toCharArray();
+                    swapped[i] = ref.charAt(j);
+                    swapped[j] = ref.charAt(i);
+                    assertFalse(BookingReferenceAllocator.isValid(new String(swapped)), new String(swapped));
+                }
+            }
+        }
+    }
+}
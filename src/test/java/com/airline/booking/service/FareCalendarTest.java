@@ -0,0 +1,66 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FareCalendarTest {
+
+    @Test
+    @DisplayName("A month load that overlapped a seat change should be served but not cached")
+    void seatChangeDuringLoadIsNotCached() {
+        FlightRepository flights = mock(FlightRepository.class);
+        YearMonth month = YearMonth.of(2027, 1);
+        LocalDate first = month.atDay(1);
+        LocalDate end = month.plusMonths(1).atDay(1);
+        Flight stale = new Flight(1L, 1L, "FC1", "AAA", "BBB", "2027-01-05T08:00", "2027-01-05T10:00", 1, 100.0);
+        Flight fresh = new Flight(1L, 1L, "FC1", "AAA", "BBB", "2027-01-05T08:00", "2027-01-05T10:00", 0, 100.0);
+        Promise<List<Flight>> firstLoad = Promise.promise();
+        when(flights.findByRoute("AAA", "BBB", first, end)).thenReturn(firstLoad.future(),
+                Future.succeededFuture(List.of(fresh)));
+        FareCalendar calendar = new FareCalendar(flights, 100);
+
+        Future<List<FareCalendar.Day>> loading = calendar.month("AAA", "BBB", month);
+        // The last seat is booked while the month query is running, which may have read the old count
+        calendar.adjustSeats(1L, -1);
+        firstLoad.complete(List.of(stale));
+
+        assertEquals(100.0, loading.result().get(4).lowestFare());
+        assertEquals(0, calendar.size());
+        FareCalendar.Day reloaded = calendar.month("AAA", "BBB", month).result().get(4);
+        assertNull(reloaded.lowestFare());
+        assertEquals(0, reloaded.seatsAvailable());
+        assertEquals(1, calendar.size());
+        verify(flights, times(2)).findByRoute("AAA", "BBB", first, end);
+    }
+
+    @Test
+    @DisplayName("A flight added to a cached month should be tracked for later seat changes")
+    void addedFlightTakesSeatChanges() {
+        FlightRepository flights = mock(FlightRepository.class);
+        YearMonth month = YearMonth.of(2027, 1);
+        when(flights.findByRoute("AAA", "BBB", month.atDay(1), month.plusMonths(1).atDay(1)))
+                .thenReturn(Future.succeededFuture(List.of()));
+        FareCalendar calendar = new FareCalendar(flights, 100);
+
+        calendar.month("AAA", "BBB", month);
+        calendar.flightAdded(new Flight(2L, 1L, "FC2", "AAA", "BBB", "2027-01-09T08:00", "2027-01-09T10:00", 1, 80.0));
+        assertEquals(80.0, calendar.month("AAA", "BBB", month).result().get(8).lowestFare());
+
+        calendar.adjustSeats(2L, -1);
+        FareCalendar.Day day = calendar.month("AAA", "BBB", month).result().get(8);
+        assertNull(day.lowestFare());
+        assertEquals(1, day.flights());
+        assertEquals(1, calendar.size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(VertxExtension.class)
+class FlightSearchIndexTest {
+
+    @Test
+    @DisplayName("Warm routes should be served from memory and reflect committed seat changes")
+    void searchHitsAndSeatUpdates(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        FlightSearchIndex index = db.flightSearchIndex();
+        // EK205 DXB -> LHR departs one day after seeding (see data.sql)
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+        db.initialize()
+                .compose(v -> index.search("DXB", "LHR", tomorrow))
+                .compose(first -> {
+                    index.adjustSeats(first.get(0).id(), -1);
+                    return index.search("DXB", "LHR", tomorrow).map(second -> List.of(first, second));
+                })
+                .onComplete(ctx.succeeding(results -> ctx.verify(() -> {
+                    Flight before = results.get(0).get(0);
+                    Flight after = results.get(1).get(0);
+
+                    assertEquals("EK205", before.flightNumber());
+                    assertEquals(before.seatsAvailable() - 1, after.seatsAvailable());
+                    assertEquals(1, index.misses());
+                    assertEquals(1, index.hits());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Should evict other routes once the flight bound is exceeded")
+    void boundEvictsOtherRoutes(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        FlightSearchIndex index = new FlightSearchIndex(db.flights(), 1);
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+        db.initialize()
+                .compose(v -> index.search("DXB", "LHR", tomorrow))
+                .compose(v -> index.search("LHR", "DXB", tomorrow))
+                .onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+                    assertEquals(1, index.size());
+                    assertEquals(1, index.evictions());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("A route load that overlapped a seat change should be served but not cached")
+    void seatChangeDuringLoadIsNotCached() {
+        FlightRepository flights = mock(FlightRepository.class);
+        LocalDate date = LocalDate.of(2027, 1, 1);
+        Flight stale = new Flight(1L, 1L, "SX1", "AAA", "BBB", "2027-01-01T08:00", "2027-01-01T10:00", 5, 100.0);
+        Flight fresh = new Flight(1L, 1L, "SX1", "AAA", "BBB", "2027-01-01T08:00", "2027-01-01T10:00", 4, 100.0);
+        Promise<List<Flight>> firstLoad = Promise.promise();
+        when(flights.findByRoute("AAA", "BBB", date)).thenReturn(firstLoad.future(),
+                Future.succeededFuture(List.of(fresh)));
+        FlightSearchIndex index = new FlightSearchIndex(flights, 100);
+
+        Future<List<Flight>> loading = index.search("AAA", "BBB", date);
+        // The booking commits while the route query is running, which may have read the old count
+        index.adjustSeats(1L, -1);
+        firstLoad.complete(List.of(stale));
+
+        assertEquals(5, loading.result().get(0).seatsAvailable());
+        assertEquals(0, index.size());
+        assertEquals(4, index.search("AAA", "BBB", date).result().get(0).seatsAvailable());
+        assertEquals(1, index.size());
+        verify(flights, times(2)).findByRoute("AAA", "BBB", date);
+    }
+
+    @Test
+    @DisplayName("The bound should evict the least recently used route")
+    void boundEvictsLeastRecentlyUsed() {
+        FlightRepository flights = mock(FlightRepository.class);
+        LocalDate date = LocalDate.of(2027, 1, 1);
+        for (String to : List.of("BBB", "CCC", "DDD")) {
+            long id = to.charAt(0);
+            when(flights.findByRoute("AAA", to, date)).thenReturn(Future.succeededFuture(List.of(
+                    new Flight(id, 1L, "LR" + id, "AAA", to, "2027-01-01T08:00", "2027-01-01T10:00", 5, 100.0))));
+        }
+        FlightSearchIndex index = new FlightSearchIndex(flights, 2);
+
+        index.search("AAA", "BBB", date);
+        index.search("AAA", "CCC", date);
+        // BBB is used again, so CCC is now the least recently used
+        index.search("AAA", "BBB", date);
+        index.search("AAA", "DDD", date);
+        index.search("AAA", "BBB", date);
+        index.search("AAA", "CCC", date);
+
+        assertEquals(2, index.size());
+        verify(flights, times(1)).findByRoute("AAA", "BBB", date);
+        verify(flights, times(2)).findByRoute("AAA", "CCC", date);
+    }
+
+    @Test
+    @DisplayName("A route invalidated while loading should leave nothing tracked behind")
+    void invalidateDuringLoadUntracks() {
+        FlightRepository flights = mock(FlightRepository.class);
+        LocalDate date = LocalDate.of(2027, 1, 1);
+        Flight flight = new Flight(1L, 1L, "IV1", "AAA", "BBB", "2027-01-01T08:00", "2027-01-01T10:00", 5, 100.0);
+        Promise<List<Flight>> firstLoad = Promise.promise();
+        when(flights.findByRoute("AAA", "BBB", date)).thenReturn(firstLoad.future(),
+                Future.succeededFuture(List.of(flight)));
+        FlightSearchIndex index = new FlightSearchIndex(flights, 100);
+
+        Future<List<Flight>> loading = index.search("AAA", "BBB", date);
+        index.invalidate("AAA", "BBB", date);
+        firstLoad.complete(List.of(flight));
+
+        assertEquals(1, loading.result().size());
+        assertEquals(0, index.size());
+        // The reloaded route alone owns the flight, so a seat change reaches it
+        index.search("AAA", "BBB", date);
+        index.adjustSeats(1L, -1);
+        assertEquals(4, index.search("AAA", "BBB", date).result().get(0).seatsAvailable());
+        assertEquals(1, index.size());
+    }
+}
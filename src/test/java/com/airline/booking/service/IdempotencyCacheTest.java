@@ -0,0 +1,98 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    @DisplayName("A retry while the first request is in flight should attach to it instead of running again")
+    void retryAttachesToPendingResult() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(1, TimeUnit.HOURS, 100);
+        Promise<String> pending = Promise.promise();
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyCache.Attempt<String> first = cache.attempt("k", "body", () -> {
+            runs.incrementAndGet();
+            return pending.future();
+        }, err -> true);
+        IdempotencyCache.Attempt<String> retry = cache.attempt("k", "body", () -> {
+            runs.incrementAndGet();
+            return Future.succeededFuture("second");
+        }, err -> true);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertFalse(retry.result().isComplete());
+        pending.complete("first");
+        assertEquals("first", retry.result().result());
+        assertEquals(1, runs.get());
+        assertEquals(1, cache.replays());
+
+        IdempotencyCache.Attempt<String> reused = cache.attempt("k", "other body", () -> Future.succeededFuture("x"), err -> true);
+        assertInstanceOf(IdempotencyCache.KeyReusedException.class, reused.result().cause());
+    }
+
+    @Test
+    @DisplayName("Only final failures should be replayed; others let the retry run again")
+    void transientFailuresAreForgotten() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(1, TimeUnit.HOURS, 100);
+
+        cache.attempt("transient", "body", () -> Future.failedFuture(new IllegalStateException("pool timeout")),
+                err -> err instanceof IllegalArgumentException);
+        IdempotencyCache.Attempt<String> retry = cache.attempt("transient", "body",
+                () -> Future.succeededFuture("booked"), err -> true);
+        assertFalse(retry.replayed());
+        assertEquals("booked", retry.result().result());
+
+        cache.attempt("final", "body", () -> Future.failedFuture(new IllegalArgumentException("full")),
+                err -> err instanceof IllegalArgumentException);
+        IdempotencyCache.Attempt<String> replay = cache.attempt("final", "body",
+                () -> Future.succeededFuture("booked"), err -> true);
+        assertTrue(replay.replayed());
+        assertEquals("full", replay.result().cause().getMessage());
+    }
+
+    @Test
+    @DisplayName("An action that throws should fail the attempt and free the key for the retry")
+    void throwingActionIsForgotten() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(1, TimeUnit.HOURS, 100);
+
+        IdempotencyCache.Attempt<String> first = cache.attempt("k", "body", () -> {
+            throw new NullPointerException("flightId");
+        }, err -> true);
+        assertTrue(first.result().failed());
+        assertEquals(0, cache.size());
+
+        IdempotencyCache.Attempt<String> retry = cache.attempt("k", "body", () -> Future.succeededFuture("booked"), err -> true);
+        assertFalse(retry.replayed());
+        assertEquals("booked", retry.result().result());
+    }
+
+    @Test
+    @DisplayName("The oldest keys should be dropped once the bound is reached, and expired keys run again")
+    void boundedAndExpiring() throws InterruptedException {
+        IdempotencyCache<Integer> bounded = new IdempotencyCache<>(1, TimeUnit.HOURS, 3);
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            bounded.attempt("k" + i, "body", () -> Future.succeededFuture(value), err -> true);
+        }
+        assertEquals(3, bounded.size());
+        assertFalse(bounded.attempt("k0", "body", () -> Future.succeededFuture(-1), err -> true).replayed());
+        assertTrue(bounded.attempt("k4", "body", () -> Future.succeededFuture(-1), err -> true).replayed());
+
+        IdempotencyCache<Integer> expiring = new IdempotencyCache<>(10, TimeUnit.MILLISECONDS, 100);
+        expiring.attempt("k", "body", () -> Future.succeededFuture(1), err -> true);
+        Thread.sleep(20);
+        IdempotencyCache.Attempt<Integer> later = expiring.attempt("k", "body", () -> Future.succeededFuture(2), err -> true);
+        assertFalse(later.replayed());
+        assertEquals(2, later.result().result());
+    }
+}
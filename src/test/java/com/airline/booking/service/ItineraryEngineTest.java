@@ -0,0 +1,150 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.FlightRepository;
+import com.airline.booking.repository.NewFlight;
+import com.airline.booking.service.ItineraryEngine.Itinerary;
+import com.airline.booking.service.ItineraryEngine.Query;
+import com.airline.booking.service.ItineraryEngine.Sort;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(VertxExtension.class)
+class ItineraryEngineTest {
+
+    // Inside the default horizon whenever the tests run
+    private static final LocalDate DAY = LocalDate.now().plusDays(30);
+
+    @Test
+    @DisplayName("Should rank direct, one- and two-stop itineraries and respect connection times and seats")
+    void rankingAndConnections(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        ItineraryEngine engine = db.itineraries();
+
+        db.initialize()
+                .compose(v -> add(db, List.of(
+                        flight("IT1", "IAA", "ICC", "08:00", "18:00", 900),
+                        flight("IT2", "IAA", "IBB", "08:00", "10:00", 100),
+                        flight("IT3", "IBB", "ICC", "11:00", "13:00", 150),
+                        // Leaves 20 minutes after IT2 lands: below the 45 minute minimum
+                        flight("IT4", "IBB", "ICC", "10:20", "12:00", 50),
+                        flight("IT5", "IBB", "IDD", "11:00", "12:00", 60),
+                        flight("IT6", "IDD", "ICC", "13:00", "14:30", 60))))
+                .compose(saved -> Future.all(
+                                engine.search(query(2, Sort.DURATION, 10)),
+                                engine.search(query(2, Sort.PRICE, 10)),
+                                engine.search(query(1, Sort.DURATION, 10)))
+                        .compose(all -> {
+                            // Sell out IT3; the one-stop it was part of disappears
+                            db.seatsChanged(saved.get(2).id(), -10);
+                            return engine.search(query(2, Sort.DURATION, 10)).map(soldOut -> List.of(
+                                    all.<List<Itinerary>>resultAt(0), all.<List<Itinerary>>resultAt(1),
+                                    all.<List<Itinerary>>resultAt(2), soldOut));
+                        }))
+                .onComplete(ctx.succeeding(results -> ctx.verify(() -> {
+                    assertEquals(List.of("IT2,IT3", "IT2,IT5,IT6", "IT1"), numbers(results.get(0)));
+                    assertEquals(300, results.get(0).get(0).durationMinutes());
+                    assertEquals(List.of("IT2,IT5,IT6", "IT2,IT3", "IT1"), numbers(results.get(1)));
+                    assertEquals(220.0, results.get(1).get(0).totalPrice());
+                    assertEquals(List.of("IT2,IT3", "IT1"), numbers(results.get(2)));
+                    assertEquals(List.of("IT2,IT5,IT6", "IT1"), numbers(results.get(3)));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Large fan-out searches should be split across workers and still return the k best")
+    void parallelFanOut(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject().put("ITINERARY_WORKERS", 4));
+        List<NewFlight> flights = new ArrayList<>();
+        // 64 first legs out of IAA: enough for several chunks
+        for (int i = 0; i < 64; i++) {
+            LocalDateTime departure = DAY.atTime(6, 0).plusMinutes(10L * i);
+            flights.add(new NewFlight("PF" + i, 1L, "IAA", "IBB", departure, departure.plusHours(1), 10, 10, 100 + i));
+        }
+        flights.add(flight("PX1", "IBB", "ICC", "18:00", "19:00", 80));
+
+        db.initialize()
+                .compose(v -> add(db, flights))
+                .compose(v -> db.itineraries().search(query(1, Sort.DURATION, 3)))
+                .onComplete(ctx.succeeding(best -> ctx.verify(() -> {
+                    assertEquals(3, best.size());
+                    // The latest first leg that still makes the connection is the shortest trip
+                    assertEquals("PF61,PX1", numbers(best).get(0));
+                    assertEquals(170, best.get(0).durationMinutes());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("The window should slide forward, loading new days and dropping departed ones")
+    void windowSlides(Vertx vertx, VertxTestContext ctx) {
+        FlightRepository flights = mock(FlightRepository.class);
+        LocalDate today = LocalDate.now();
+        Flight departed = new Flight(1L, 1L, "WS1", "IAA", "ICC", today + "T08:00", today + "T10:00", 10, 100.0);
+        Flight kept = new Flight(2L, 1L, "WS2", "IAA", "ICC", today.plusDays(1) + "T08:00", today.plusDays(1) + "T10:00", 10, 100.0);
+        Flight arriving = new Flight(3L, 1L, "WS3", "IAA", "ICC", today.plusDays(2) + "T08:00", today.plusDays(2) + "T10:00", 10, 100.0);
+        when(flights.departingBetween(today.atStartOfDay(), today.plusDays(2).atStartOfDay()))
+                .thenReturn(Future.succeededFuture(List.of(departed, kept)));
+        when(flights.departingBetween(today.plusDays(2).atStartOfDay(), today.plusDays(3).atStartOfDay()))
+                .thenReturn(Future.succeededFuture(List.of(arriving)));
+        ItineraryEngine engine = new ItineraryEngine(vertx, flights, 1, 2);
+        Query beyond = new Query("IAA", "ICC", today.plusDays(2), 0, 45, 6 * 60, Sort.DURATION, 10);
+
+        engine.load()
+                .compose(v -> engine.search(beyond).transform(ar -> {
+                    assertInstanceOf(ItineraryEngine.OutsideWindowException.class, ar.cause());
+                    return engine.advance(today.plusDays(1));
+                }))
+                .compose(v -> engine.search(beyond))
+                .onComplete(ctx.succeeding(found -> ctx.verify(() -> {
+                    assertEquals(List.of("WS3"), numbers(found));
+                    // WS1 departed with its day; WS2 and WS3 remain
+                    assertEquals(2, engine.size());
+                    engine.close();
+                    ctx.completeNow();
+                })));
+    }
+
+    private static Query query(int maxStops, Sort sort, int limit) {
+        return new Query("IAA", "ICC", DAY, maxStops, 45, 6 * 60, sort, limit);
+    }
+
+    private static NewFlight flight(String number, String from, String to, String departs, String arrives, double price) {
+        return new NewFlight(number, 1L, from, to, DAY.atTime(LocalTime.parse(departs)),
+                DAY.atTime(LocalTime.parse(arrives)), 10, 10, price);
+    }
+
+    private static Future<List<Flight>> add(DatabaseService db, List<NewFlight> flights) {
+        Future<List<Flight>> chain = Future.succeededFuture(new ArrayList<>());
+        for (NewFlight flight : flights) {
+            chain = chain.compose(saved -> db.flights().insert(flight).map(f -> {
+                db.flightAdded(f);
+                saved.add(f);
+                return saved;
+            }));
+        }
+        return chain;
+    }
+
+    private static List<String> numbers(List<Itinerary> itineraries) {
+        return itineraries.stream()
+                .map(it -> String.join(",", it.legs().stream().map(Flight::flightNumber).toList()))
+                .toList();
+    }
+}
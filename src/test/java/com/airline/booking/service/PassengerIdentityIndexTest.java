@@ -0,0 +1,89 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Passenger;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class PassengerIdentityIndexTest {
+
+    @Test
+    @DisplayName("Concurrent registrations of one passport should insert exactly one passenger")
+    void concurrentRegistrations(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        PassengerIdentityIndex index = db.passengerIdentities();
+
+        db.initialize().compose(v -> {
+            List<Future<Passenger>> attempts = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                attempts.add(index.register("Racer", "No" + i, "racer" + i + "@example.com", "RACE0001"));
+            }
+            return Future.join(attempts).otherwise(f -> null).map(v2 -> attempts);
+        }).compose(attempts -> index.search("RACE0001", null).map(found -> {
+            long won = attempts.stream().filter(Future::succeeded).count();
+            assertEquals(1, won);
+            attempts.stream().filter(Future::failed).forEach(f ->
+                    assertInstanceOf(PassengerIdentityIndex.DuplicateIdentityException.class, f.cause()));
+            return found;
+        })).compose(found -> db.passengers().all().map(all -> List.of(found,
+                all.stream().filter(p -> "RACE0001".equals(p.passportNumber())).toList())))
+                .onComplete(ctx.succeeding(results -> ctx.verify(() -> {
+                    assertEquals(1, results.get(0).size());
+                    assertEquals(results.get(1), results.get(0));
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("A passport or email registered by another process should be rejected by the database as a duplicate")
+    void duplicatesAcrossProcesses(Vertx vertx, VertxTestContext ctx) {
+        DatabaseService db = new DatabaseService(vertx, new JsonObject());
+        PassengerIdentityIndex here = db.passengerIdentities();
+        // A second instance's index over the same table, warmed before the first registration
+        PassengerIdentityIndex elsewhere = new PassengerIdentityIndex(db.passengers(), 1000);
+
+        db.initialize()
+                .compose(v -> Future.all(here.load(), elsewhere.load()))
+                .compose(v -> here.register("First", "Owner", "owner@example.com", "XPROC001"))
+                .compose(v -> elsewhere.register("Second", "Owner", "second@example.com", "XPROC001")
+                        .transform(passport -> elsewhere.register("Third", "Owner", "owner@example.com", "XPROC002")
+                                .transform(email -> Future.succeededFuture(List.of(passport.cause(), email.cause())))))
+                .onComplete(ctx.succeeding(causes -> ctx.verify(() -> {
+                    PassengerIdentityIndex.DuplicateIdentityException passport =
+                            assertInstanceOf(PassengerIdentityIndex.DuplicateIdentityException.class, causes.get(0));
+                    PassengerIdentityIndex.DuplicateIdentityException email =
+                            assertInstanceOf(PassengerIdentityIndex.DuplicateIdentityException.class, causes.get(1));
+                    assertEquals("passport", passport.field());
+                    assertEquals("email", email.field());
+                    ctx.completeNow();
+                })));
+    }
+
+    @Test
+    @DisplayName("Bloom filter should never reject an added value and reject most absent ones")
+    void bloomFilter() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("P" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("P" + i));
+            if (filter.mightContain("Q" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
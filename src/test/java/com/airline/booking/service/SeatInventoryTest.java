@@ -0,0 +1,105 @@
+package com.airline.booking.service;
+
+import com.airline.booking.model.Booking;
+import com.airline.booking.model.Flight;
+import com.airline.booking.repository.BookingRepository;
+import com.airline.booking.repository.FlightRepository;
+import com.airline.booking.service.SeatInventory.FlightInventory;
+import com.airline.booking.service.SeatInventory.Outcome;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatInventoryTest {
+
+    private FlightInventory flight(int available) {
+        return new FlightInventory(1L, 199.99, available, new HashSet<>(), new HashSet<>());
+    }
+
+    @Test
+    @DisplayName("Should reject duplicates, taken seats and full flights before any SQL")
+    void reserveRejections() {
+        FlightInventory flight = new FlightInventory(1L, 100.0, 2, new HashSet<>(Set.of("1A")), new HashSet<>(Set.of(7L)));
+
+        assertEquals(Outcome.ALREADY_BOOKED, flight.reserve(7L, "2B"));
+        assertEquals(Outcome.SEAT_TAKEN, flight.reserve(8L, "1A"));
+        assertEquals(Outcome.RESERVED, flight.reserve(8L, "2B"));
+        assertEquals(Outcome.RESERVED, flight.reserve(9L, null));
+        assertEquals(Outcome.FULL, flight.reserve(10L, "3C"));
+        assertEquals(0, flight.available());
+    }
+
+    @Test
+    @DisplayName("Release should return the seat and allow the passenger to rebook")
+    void releaseRestoresSeat() {
+        FlightInventory flight = flight(1);
+
+        assertEquals(Outcome.RESERVED, flight.reserve(1L, "4D"));
+        flight.release(1L, "4D");
+
+        assertEquals(1, flight.available());
+        assertEquals(Outcome.RESERVED, flight.reserve(2L, "4D"));
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations should never oversell the flight")
+    void concurrentReservationsDoNotOversell() throws InterruptedException {
+        FlightInventory flight = flight(10);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        for (long passenger = 0; passenger < 200; passenger++) {
+            long id = passenger;
+            pool.execute(() -> {
+                if (flight.reserve(id, "S" + id) == Outcome.RESERVED) {
+                    reserved.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, reserved.get());
+        assertEquals(0, flight.available());
+    }
+
+    @Test
+    @DisplayName("A cancellation committed while the flight is loading should not leave the seat taken or a second inventory")
+    void cancelDuringLoadIsNotCached() {
+        FlightRepository flights = mock(FlightRepository.class);
+        BookingRepository bookings = mock(BookingRepository.class);
+        Flight flight = new Flight(1L, 1L, "SI1", "AAA", "BBB", "2027-01-01T08:00", "2027-01-01T10:00", 0, 100.0);
+        Booking booked = new Booking(5L, "REF5", 7L, 1L, "1A", "CONFIRMED", 100.0);
+        Promise<List<Booking>> staleRead = Promise.promise();
+        when(flights.findById(1L)).thenReturn(Future.succeededFuture(flight));
+        when(bookings.confirmedForFlight(1L)).thenReturn(staleRead.future(),
+                Future.succeededFuture(List.of()));
+        SeatInventory inventory = new SeatInventory(flights, bookings);
+
+        Future<FlightInventory> loading = inventory.forFlight(1L);
+        // The cancel commits after the load read the flight but before its bookings came back
+        Flight afterCancel = new Flight(1L, 1L, "SI1", "AAA", "BBB", "2027-01-01T08:00", "2027-01-01T10:00", 1, 100.0);
+        when(flights.findById(1L)).thenReturn(Future.succeededFuture(afterCancel));
+        inventory.cancelled(1L, 7L, "1A");
+        staleRead.complete(List.of(booked));
+
+        // Waiters and later callers share the one reloaded inventory
+        FlightInventory reloaded = inventory.forFlight(1L).result();
+        assertSame(loading.result(), reloaded);
+        assertEquals(1, reloaded.available());
+        assertEquals(Outcome.RESERVED, reloaded.reserve(7L, "1A"));
+        assertEquals(Outcome.ALREADY_BOOKED, inventory.forFlight(1L).result().reserve(7L, "1A"));
+    }
+}
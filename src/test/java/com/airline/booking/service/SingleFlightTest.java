@@ -0,0 +1,61 @@
+package com.airline.booking.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Concurrent loads of one key should share a single query, and the next burst should query again")
+    void coalescesWhileInFlight() {
+        SingleFlight<Long, String> reads = new SingleFlight<>();
+        AtomicInteger queries = new AtomicInteger();
+        Promise<String> pending = Promise.promise();
+
+        Future<String> first = reads.load(1L, () -> {
+            queries.incrementAndGet();
+            return pending.future();
+        });
+        Future<String> second = reads.load(1L, () -> {
+            queries.incrementAndGet();
+            return Future.succeededFuture("other");
+        });
+        Future<String> otherKey = reads.load(2L, () -> {
+            queries.incrementAndGet();
+            return Future.succeededFuture("two");
+        });
+
+        assertFalse(second.isComplete());
+        pending.complete("one");
+        assertEquals("one", first.result());
+        assertEquals("one", second.result());
+        assertEquals("two", otherKey.result());
+        assertEquals(2, queries.get());
+        assertEquals(1, reads.coalesced());
+
+        // Nothing is kept after completion
+        assertEquals("fresh", reads.load(1L, () -> Future.succeededFuture("fresh")).result());
+        assertEquals(3, reads.loads());
+    }
+
+    @Test
+    @DisplayName("A failed load should fail every waiter and not stick to the key")
+    void failuresAreShared() {
+        SingleFlight<String, String> reads = new SingleFlight<>();
+        Promise<String> pending = Promise.promise();
+
+        Future<String> first = reads.load("k", pending::future);
+        Future<String> second = reads.load("k", () -> Future.succeededFuture("unused"));
+        pending.fail("connection reset");
+
+        assertEquals("connection reset", first.cause().getMessage());
+        assertEquals("connection reset", second.cause().getMessage());
+        assertEquals("ok", reads.load("k", () -> Future.succeededFuture("ok")).result());
+    }
+}